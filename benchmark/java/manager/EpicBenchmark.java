@@ -0,0 +1,69 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.TaskStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Подзадачи одного большого эпика: getEpicSubtasks и пересчёт статуса/времени эпика при изменениях.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EpicBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"true", "false"})
+    public boolean timed;
+
+    private InMemoryTaskManager manager;
+    private int epicId;
+
+    static Subtask newSubtask(int i, int epicId, boolean timed) {
+        if (!timed) {
+            return new Subtask("Subtask " + i, "Description " + i, TaskStatus.NEW, epicId, null, null);
+        }
+        return new Subtask("Subtask " + i, "Description " + i, TaskStatus.NEW, epicId,
+                TaskManagerBenchmark.SLOT, TaskManagerBenchmark.START.plusMinutes(10L * i));
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        manager = new InMemoryTaskManager();
+        epicId = manager.createEpic(new Epic("Epic", "Description"));
+        for (int i = 0; i < size; i++) {
+            manager.createSubtask(newSubtask(i, epicId, timed));
+        }
+    }
+
+    @Benchmark
+    public List<Subtask> getEpicSubtasks() {
+        return manager.getEpicSubtasks(epicId);
+    }
+
+    // Подзадача добавляется после всех существующих и удаляется: эпик дважды пересчитывает агрегаты
+    @Benchmark
+    public int createAndDeleteSubtask() {
+        int id = manager.createSubtask(newSubtask(size, epicId, timed));
+        manager.deleteSubtask(id);
+        return id;
+    }
+}
@@ -0,0 +1,127 @@
+package manager;
+
+import model.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Полная запись снимка и загрузка из него для менеджера с size задачами: CSV и двоичный формат,
+// а также открытие отображённого в память хранилища MappedTaskManager с чтением одной задачи.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileBackedTaskManagerBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"true", "false"})
+    public boolean timed;
+
+    private File file;
+    private File binaryFile;
+    private FillableTaskManager manager;
+    private BinaryFileBackedTaskManager binaryManager;
+    private File mappedFile;
+
+    // Заполнение через createTask сохраняло бы файл после каждой задачи, поэтому на время setUp запись отключена
+    static class FillableTaskManager extends FileBackedTaskManager {
+        private boolean filling;
+
+        FillableTaskManager(File file) {
+            super(file);
+        }
+
+        @Override
+        protected void save() {
+            if (!filling) {
+                super.save();
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = File.createTempFile("benchmark", ".csv");
+        manager = new FillableTaskManager(file);
+        manager.filling = true;
+        for (int i = 0; i < size; i++) {
+            manager.createTask(TaskManagerBenchmark.newTask(i, timed));
+        }
+        manager.filling = false;
+        manager.save();
+
+        binaryFile = File.createTempFile("benchmark", ".bin");
+        BinaryFileBackedTaskManager.convertFromCsv(file, binaryFile);
+        binaryManager = BinaryFileBackedTaskManager.loadFromFile(binaryFile);
+
+        mappedFile = File.createTempFile("benchmark", ".db");
+        mappedFile.delete();
+        try (MappedTaskManager mappedManager = new MappedTaskManager(mappedFile)) {
+            for (int i = 0; i < size; i++) {
+                mappedManager.createTask(TaskManagerBenchmark.newTask(i, timed));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+        binaryFile.delete();
+        mappedFile.delete();
+        MappedTaskStore.heapFile(mappedFile).delete();
+        new File(mappedFile.getPath() + ".history").delete();
+    }
+
+    @Benchmark
+    public File save() {
+        manager.save();
+        return file;
+    }
+
+    @Benchmark
+    public FileBackedTaskManager loadFromFile() {
+        return FileBackedTaskManager.loadFromFile(file);
+    }
+
+    @Benchmark
+    public FileBackedTaskManager loadFromFileParallel() {
+        return FileBackedTaskManager.loadFromFile(file, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public File saveBinary() {
+        binaryManager.save();
+        return binaryFile;
+    }
+
+    @Benchmark
+    public FileBackedTaskManager loadBinary() {
+        return BinaryFileBackedTaskManager.loadFromFile(binaryFile);
+    }
+
+    @Benchmark
+    public Task openMapped() {
+        try (MappedTaskManager mappedManager = MappedTaskManager.loadFromFile(mappedFile)) {
+            return mappedManager.peekTask(size / 2);
+        }
+    }
+}
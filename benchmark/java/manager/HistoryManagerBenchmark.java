@@ -0,0 +1,60 @@
+package manager;
+
+import model.Task;
+import model.TaskStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// История из size просмотренных задач: повторный просмотр (перенос в конец списка) и чтение всей истории.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryManagerBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private InMemoryHistoryManager historyManager;
+    private Task[] viewed;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        historyManager = new InMemoryHistoryManager();
+        viewed = new Task[size];
+        for (int i = 0; i < size; i++) {
+            viewed[i] = new Task("Task " + i, "Description " + i, i + 1, TaskStatus.NEW);
+            historyManager.add(viewed[i]);
+        }
+    }
+
+    // По кругу от самой старой записи: каждый add удаляет узел из середины списка и дописывает его в конец
+    @Benchmark
+    public Task add() {
+        Task task = viewed[next];
+        next = (next + 1) % size;
+        historyManager.add(task);
+        return task;
+    }
+
+    @Benchmark
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+}
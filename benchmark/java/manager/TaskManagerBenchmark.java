@@ -0,0 +1,89 @@
+package manager;
+
+import model.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Создание, обновление и удаление задач в InMemoryTaskManager, заполненном size задачами.
+// С timed=true у всех задач есть интервалы (по 5 минут через каждые 10), поэтому каждая операция
+// проходит через проверку пересечений и prioritizedTasks; с timed=false - только через хранилище.
+// dense=true - те же операции в DenseTaskManager (массив по id вместо IntHashMap).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskManagerBenchmark {
+
+    static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    static final Duration SLOT = Duration.ofMinutes(5);
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"true", "false"})
+    public boolean timed;
+
+    @Param({"false", "true"})
+    public boolean dense;
+
+    private InMemoryTaskManager manager;
+    private int[] ids;
+    private int next;
+
+    static Task newTask(int i, boolean timed) {
+        if (!timed) {
+            return new Task("Task " + i, "Description " + i);
+        }
+        return new Task("Task " + i, "Description " + i, SLOT, START.plusMinutes(10L * i));
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        manager = dense ? new DenseTaskManager() : new InMemoryTaskManager();
+        ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = manager.createTask(newTask(i, timed));
+        }
+    }
+
+    // Задача создаётся в свободном слоте после всех существующих и сразу удаляется, размер менеджера не растёт
+    @Benchmark
+    public int createAndDeleteTask() {
+        int id = manager.createTask(newTask(size, timed));
+        manager.deleteTask(id);
+        return id;
+    }
+
+    // Обновление по кругу всех задач с тем же интервалом: пересечение только с самой собой не считается
+    @Benchmark
+    public int updateTask() {
+        int i = next;
+        next = (next + 1) % size;
+        Task task = newTask(i, timed);
+        task.setId(ids[i]);
+        manager.updateTask(task);
+        return ids[i];
+    }
+
+    @Benchmark
+    public List<Task> getPrioritizedTasks() {
+        return manager.getPrioritizedTasks();
+    }
+}
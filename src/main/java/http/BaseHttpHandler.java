@@ -1,15 +1,47 @@
 package http;
 
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 
+import http.utils.GsonUtils;
+import manager.HistorySessions;
+import model.Task;
+
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.IntFunction;
+import java.util.zip.GZIPOutputStream;
 
 public abstract class BaseHttpHandler implements HttpHandler {
 
+    // Ответы короче этого порога не сжимаются: gzip-заголовок и словарь съедят весь выигрыш
+    public static final int GZIP_THRESHOLD = 1024;
+
+    // Заголовок, которым клиент указывает свою сессию истории просмотров
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    // Общий для всех обработчиков Gson с адаптерами моделей
+    protected final Gson gson = GsonUtils.getGson();
+
+    // Истории клиентов; null - все просмотры идут в общую историю менеджера
+    protected final HistorySessions sessions;
+
+    protected BaseHttpHandler() {
+        this(null);
+    }
+
+    protected BaseHttpHandler(HistorySessions sessions) {
+        this.sessions = sessions;
+    }
+
     // Вспомогательный класс для указания, что ID был передан, но некорректно
     public static class InvalidIdFormatException extends IllegalArgumentException {
         public InvalidIdFormatException(String message) {
@@ -17,44 +49,136 @@ public abstract class BaseHttpHandler implements HttpHandler {
         }
     }
 
-    // Новый вспомогательный метод для отправки HTTP-ответов
-    protected void sendResponse(HttpExchange h, int statusCode, String message) throws IOException {
+    // Общая отправка ответа с известным телом: при Accept-Encoding: gzip длинные ответы сжимаются
+    private void writeResponse(HttpExchange h, int statusCode, String message) throws IOException {
         byte[] resp = message.getBytes(StandardCharsets.UTF_8);
         h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        h.getResponseHeaders().add("Vary", "Accept-Encoding");
+        if (resp.length >= GZIP_THRESHOLD && acceptsGzip(h)) {
+            h.getResponseHeaders().add("Content-Encoding", "gzip");
+            h.sendResponseHeaders(statusCode, 0);
+            try (OutputStream os = new GZIPOutputStream(h.getResponseBody())) {
+                os.write(resp);
+            }
+            return;
+        }
         h.sendResponseHeaders(statusCode, resp.length);
         try (OutputStream os = h.getResponseBody()) {
             os.write(resp);
         }
     }
 
+    // Клиент принимает gzip, если он указан в Accept-Encoding (или есть "*") и не отключён через q=0
+    protected static boolean acceptsGzip(HttpExchange h) {
+        List<String> headers = h.getRequestHeaders().get("Accept-Encoding");
+        if (headers == null) {
+            return false;
+        }
+        for (String header : headers) {
+            for (String part : header.split(",")) {
+                String[] params = part.trim().split(";");
+                String coding = params[0].trim();
+                if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                    continue;
+                }
+                boolean disabled = false;
+                for (int i = 1; i < params.length; i++) {
+                    String param = params[i].trim();
+                    if (param.startsWith("q=")) {
+                        try {
+                            disabled = Double.parseDouble(param.substring(2)) <= 0;
+                        } catch (NumberFormatException e) {
+                            disabled = true;
+                        }
+                    }
+                }
+                if (!disabled) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Форматированный JSON отдаётся только по явной просьбе: ?pretty или ?pretty=true
+    protected static boolean isPrettyRequested(String query) {
+        if (query == null || query.isBlank()) {
+            return false;
+        }
+        for (String param : query.split("&")) {
+            if (param.equals("pretty") || param.equals("pretty=true") || param.equals("pretty=1")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Ключ сессии клиента из заголовка X-Client-Id или null, если сессии не используются
+    protected String clientId(HttpExchange h) {
+        if (sessions == null) {
+            return null;
+        }
+        String clientId = h.getRequestHeaders().getFirst(CLIENT_ID_HEADER);
+        return clientId == null || clientId.isBlank() ? null : clientId;
+    }
+
+    // Просмотр задачи по id. Запрос с X-Client-Id ищет задачу без записи в общую историю (peek)
+    // и записывает просмотр в историю этого клиента, остальные запросы идут через обычный get
+    protected <T extends Task> T view(HttpExchange h, int id, IntFunction<T> peek, IntFunction<T> get) {
+        String clientId = clientId(h);
+        if (clientId == null) {
+            return get.apply(id);
+        }
+        T task = peek.apply(id);
+        if (task != null) {
+            sessions.record(clientId, task);
+        }
+        return task;
+    }
+
+    // Gson для тела ответа: компактный или форматированный, если его запросили
+    protected Gson responseGson(HttpExchange h) {
+        return GsonUtils.getGson(isPrettyRequested(h.getRequestURI().getQuery()));
+    }
+
+    // Новый вспомогательный метод для отправки HTTP-ответов
+    protected void sendResponse(HttpExchange h, int statusCode, String message) throws IOException {
+        writeResponse(h, statusCode, message);
+    }
+
     // Метод sendText из примера ТЗ для статуса 200
     protected void sendText(HttpExchange h, String text) throws IOException {
-        byte[] resp = text.getBytes(StandardCharsets.UTF_8);
+        writeResponse(h, 200, text);
+    }
+
+    // Отправка списка со статусом 200 без промежуточной строки: элементы сериализуются по одному
+    // прямо в тело ответа, длина заранее не известна, поэтому ответ идёт чанками (см. ResponseOutputStream)
+    protected void sendJsonList(HttpExchange h, Collection<?> items) throws IOException {
         h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-        h.sendResponseHeaders(200, resp.length);
-        try (OutputStream os = h.getResponseBody()) {
-            os.write(resp);
+        Gson writerGson = responseGson(h);
+        OutputStream body = new ResponseOutputStream(h, 200, acceptsGzip(h), GZIP_THRESHOLD);
+        try (JsonWriter writer = writerGson.newJsonWriter(
+                new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8)))) {
+            writer.beginArray();
+            for (Object item : items) {
+                if (item == null) {
+                    writer.nullValue();
+                } else {
+                    writerGson.toJson(item, item.getClass(), writer);
+                }
+            }
+            writer.endArray();
         }
     }
 
     // Метод sendNotFound для статуса 404
     protected void sendNotFound(HttpExchange h, String message) throws IOException {
-        byte[] resp = message.getBytes(StandardCharsets.UTF_8);
-        h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-        h.sendResponseHeaders(404, resp.length);
-        try (OutputStream os = h.getResponseBody()) {
-            os.write(resp);
-        }
+        writeResponse(h, 404, message);
     }
 
     // Метод sendHasInteractions для статуса 406
     protected void sendHasInteractions(HttpExchange h, String message) throws IOException {
-        byte[] resp = message.getBytes(StandardCharsets.UTF_8);
-        h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-        h.sendResponseHeaders(406, resp.length);
-        try (OutputStream os = h.getResponseBody()) {
-            os.write(resp);
-        }
+        writeResponse(h, 406, message);
     }
 
     // Метод sendNoContent для статуса 204
@@ -64,32 +188,17 @@ public abstract class BaseHttpHandler implements HttpHandler {
 
     // Метод sendBadRequest для статуса 400. Для ошибок, связанных с клиентским запросом (пустое тело, некорректный JSON)
     protected void sendBadRequest(HttpExchange h, String message) throws IOException {
-        byte[] resp = message.getBytes(StandardCharsets.UTF_8);
-        h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-        h.sendResponseHeaders(400, resp.length);
-        try (OutputStream os = h.getResponseBody()) {
-            os.write(resp);
-        }
+        writeResponse(h, 400, message);
     }
 
     // Метод sendInternalServerError для статуса 500
     protected void sendInternalServerError(HttpExchange h, String message) throws IOException {
-        byte[] resp = message.getBytes(StandardCharsets.UTF_8);
-        h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-        h.sendResponseHeaders(500, resp.length);
-        try (OutputStream os = h.getResponseBody()) {
-            os.write(resp);
-        }
+        writeResponse(h, 500, message);
     }
 
     // Метод sendMethodNotAllowed для статуса 405
     protected void sendMethodNotAllowed(HttpExchange exchange, String message) throws IOException {
-        byte[] response = message.getBytes(StandardCharsets.UTF_8);
-        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-        exchange.sendResponseHeaders(405, response.length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(response);
-        }
+        writeResponse(exchange, 405, message);
     }
 
     // Измененный метод parseId для парсинга по id
@@ -1,12 +1,11 @@
 package http;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import com.sun.net.httpserver.HttpExchange;
+import manager.HistorySessions;
 import manager.ManagerSaveException;
 import manager.TaskManager;
 import model.Epic;
-import http.utils.GsonUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -17,11 +16,14 @@ import java.util.Optional;
 public class EpicsHandler extends BaseHttpHandler {
 
     private final TaskManager taskManager;
-    private final Gson gson;
 
     public EpicsHandler(TaskManager taskManager) {
+        this(taskManager, null);
+    }
+
+    public EpicsHandler(TaskManager taskManager, HistorySessions sessions) {
+        super(sessions);
         this.taskManager = taskManager;
-        this.gson = GsonUtils.getGson();
     }
 
     @Override
@@ -60,17 +62,16 @@ public class EpicsHandler extends BaseHttpHandler {
         Optional<Integer> epicIdOptional = parseId(query);
         if (epicIdOptional.isPresent()) {
             int epicId = epicIdOptional.get();
-            Epic epic = taskManager.getEpic(epicId);
+            Epic epic = view(exchange, epicId, taskManager::peekEpic, taskManager::getEpic);
             if (epic != null) {
-                String response = gson.toJson(epic);
+                String response = responseGson(exchange).toJson(epic);
                 sendText(exchange, response);
             } else {
                 sendNotFound(exchange, "Эпик с ID " + epicId + " не найден.");
             }
         } else {
             List<Epic> epics = taskManager.getEpics();
-            String response = gson.toJson(epics);
-            sendText(exchange, response);
+            sendJsonList(exchange, epics);
         }
     }
 
@@ -110,8 +111,7 @@ public class EpicsHandler extends BaseHttpHandler {
         Optional<Integer> deleteIdOptional = parseId(query);
         if (deleteIdOptional.isPresent()) {
             int epicIdToDelete = deleteIdOptional.get();
-            Epic epicToDelete = taskManager.getEpic(epicIdToDelete);
-            if (epicToDelete != null) {
+            if (taskManager.containsEpic(epicIdToDelete)) {
                 taskManager.deleteEpic(epicIdToDelete);
                 sendNoContent(exchange);
             } else {
@@ -0,0 +1,16 @@
+package http;
+
+// Как HttpTaskServer выполняет запросы
+public enum ExecutionMode {
+    // Все запросы на одном потоке диспетчера HttpServer (прежнее поведение)
+    SINGLE_THREADED,
+    // Ограниченный пул платформенных потоков
+    THREAD_POOL,
+    // Отдельный виртуальный поток на каждый запрос (нужна Java 21+)
+    VIRTUAL_THREADS;
+
+    // Можно ли выбрать режим на текущей JVM
+    public boolean isAvailable() {
+        return this != VIRTUAL_THREADS || Runtime.version().feature() >= 21;
+    }
+}
@@ -1,22 +1,25 @@
 package http;
 
-import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
+import manager.HistorySessions;
 import manager.TaskManager;
 import model.Task;
 
 import java.io.IOException;
 import java.util.List;
-import http.utils.GsonUtils;
+import java.util.Optional;
 
 public class HistoryHandler extends BaseHttpHandler {
 
     private final TaskManager taskManager;
-    private final Gson gson;
 
     public HistoryHandler(TaskManager taskManager) {
+        this(taskManager, null);
+    }
+
+    public HistoryHandler(TaskManager taskManager, HistorySessions sessions) {
+        super(sessions);
         this.taskManager = taskManager;
-        this.gson = GsonUtils.getGson();
     }
 
     @Override
@@ -30,7 +33,7 @@ public class HistoryHandler extends BaseHttpHandler {
         try {
             switch (requestMethod) {
                 case "GET":
-                    handleGetHistoryRequest(exchange);
+                    handleGetHistoryRequest(exchange, query);
                     break;
                 default:
                     sendMethodNotAllowed(exchange, "Метод " + requestMethod + " не поддерживается для /history.");
@@ -43,9 +46,43 @@ public class HistoryHandler extends BaseHttpHandler {
         }
     }
 
-    private void handleGetHistoryRequest(HttpExchange exchange) throws IOException {
-        List<Task> history = taskManager.getHistory();
-        String response = gson.toJson(history);
-        sendText(exchange, response);
+    // ?limit=N отдаёт только N последних просмотров. С X-Client-Id отдаётся история этого клиента
+    private void handleGetHistoryRequest(HttpExchange exchange, String query) throws IOException {
+        Optional<Integer> limit;
+        try {
+            limit = parseLimit(query);
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(exchange, e.getMessage());
+            return;
+        }
+        String clientId = clientId(exchange);
+        List<Task> history;
+        if (clientId != null) {
+            history = sessions.getHistory(clientId, taskManager, limit.orElse(Integer.MAX_VALUE));
+        } else {
+            history = limit.isPresent() ? taskManager.getHistory(limit.get()) : taskManager.getHistory();
+        }
+        sendJsonList(exchange, history);
+    }
+
+    private static Optional<Integer> parseLimit(String query) {
+        if (query == null || query.isBlank()) {
+            return Optional.empty();
+        }
+        for (String param : query.split("&")) {
+            if (param.startsWith("limit=")) {
+                String limitString = param.substring(6);
+                try {
+                    int limit = Integer.parseInt(limitString);
+                    if (limit < 0) {
+                        throw new IllegalArgumentException("Параметр limit не может быть отрицательным: " + limit);
+                    }
+                    return Optional.of(limit);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Некорректный формат limit: '" + limitString + "' не является числом.");
+                }
+            }
+        }
+        return Optional.empty();
     }
-}
\ No newline at end of file
+}
@@ -3,17 +3,28 @@ package http;
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpServer;
 import http.utils.GsonUtils;
+import manager.HistorySessions;
 import manager.Managers;
 import manager.TaskManager;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 public class HttpTaskServer {
 
     private static final int PORT = 8080;
+    private static final int DEFAULT_BACKLOG = 0;
+    private static final int POOL_QUEUE_CAPACITY_PER_THREAD = 64;
     private final TaskManager taskManager;
+    private final HistorySessions sessions;
+    private final ExecutorService executor;
     private HttpServer server;
 
     public static Gson getGson() {
@@ -21,29 +32,88 @@ public class HttpTaskServer {
     }
 
     public HttpTaskServer(TaskManager taskManager) throws IOException {
-        this.taskManager = taskManager;
-        this.server = HttpServer.create(new InetSocketAddress(PORT), 0);
-        initializeHandlers();
+        this(taskManager, ExecutionMode.SINGLE_THREADED, 1, DEFAULT_BACKLOG);
     }
 
     public HttpTaskServer() throws IOException {
-        this.taskManager = Managers.getDefault();
-        this.server = HttpServer.create(new InetSocketAddress(PORT), 0);
+        this(Managers.getDefault());
+    }
+
+    // threads учитывается только в режиме THREAD_POOL, backlog передаётся в HttpServer.create (0 - значение системы).
+    // В многопоточных режимах менеджер оборачивается так, чтобы к нему можно было обращаться из нескольких потоков
+    public HttpTaskServer(TaskManager taskManager, ExecutionMode mode, int threads, int backlog) throws IOException {
+        this(taskManager, mode, threads, backlog, new HistorySessions());
+    }
+
+    // sessions хранит истории клиентов, которые передают заголовок X-Client-Id
+    public HttpTaskServer(TaskManager taskManager, ExecutionMode mode, int threads, int backlog,
+                          HistorySessions sessions) throws IOException {
+        if (mode == null) {
+            throw new IllegalArgumentException("Режим выполнения не может быть null.");
+        }
+        if (!mode.isAvailable()) {
+            throw new IllegalArgumentException("Режим " + mode + " недоступен на Java " + Runtime.version().feature() + ".");
+        }
+        if (mode == ExecutionMode.THREAD_POOL && threads <= 0) {
+            throw new IllegalArgumentException("Размер пула должен быть положительным: " + threads);
+        }
+        if (sessions == null) {
+            throw new IllegalArgumentException("Хранилище сессий истории не может быть null.");
+        }
+        this.taskManager = mode == ExecutionMode.SINGLE_THREADED ? taskManager : Managers.getThreadSafe(taskManager);
+        this.sessions = sessions;
+        this.executor = createExecutor(mode, threads);
+        this.server = HttpServer.create(new InetSocketAddress(PORT), backlog);
+        this.server.setExecutor(executor);
         initializeHandlers();
     }
 
+    private static ExecutorService createExecutor(ExecutionMode mode, int threads) {
+        switch (mode) {
+            case THREAD_POOL:
+                AtomicInteger counter = new AtomicInteger();
+                // Очередь ограничена: при перегрузке запрос выполняется потоком диспетчера, а не копится без конца
+                return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(threads * POOL_QUEUE_CAPACITY_PER_THREAD),
+                        runnable -> new Thread(runnable, "http-task-server-" + counter.incrementAndGet()),
+                        new ThreadPoolExecutor.CallerRunsPolicy());
+            case VIRTUAL_THREADS:
+                return newVirtualThreadPerTaskExecutor();
+            default:
+                return null; // HttpServer использует поток диспетчера
+        }
+    }
+
+    // Проект собирается и на Java 17, поэтому метод Java 21 вызывается через reflection. Конструктор
+    // пропускает VIRTUAL_THREADS только при ExecutionMode.isAvailable(), так что метод здесь есть
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Не удалось создать исполнитель виртуальных потоков.", e);
+        }
+    }
+
+    public TaskManager getTaskManager() {
+        return taskManager;
+    }
+
+    public HistorySessions getSessions() {
+        return sessions;
+    }
+
     private void initializeHandlers() {
-        TasksHandler tasksHandler = new TasksHandler(this.taskManager);
+        TasksHandler tasksHandler = new TasksHandler(this.taskManager, this.sessions);
         this.server.createContext("/tasks", tasksHandler);
 
-        EpicsHandler epicsHandler = new EpicsHandler(this.taskManager);
+        EpicsHandler epicsHandler = new EpicsHandler(this.taskManager, this.sessions);
         this.server.createContext("/epics", epicsHandler);
 
-        SubtasksHandler subtasksHandler = new SubtasksHandler(this.taskManager);
+        SubtasksHandler subtasksHandler = new SubtasksHandler(this.taskManager, this.sessions);
         this.server.createContext("/subtasks", subtasksHandler);
         this.server.createContext("/subtasks/epic", subtasksHandler);
 
-        HistoryHandler historyHandler = new HistoryHandler(this.taskManager);
+        HistoryHandler historyHandler = new HistoryHandler(this.taskManager, this.sessions);
         this.server.createContext("/history", historyHandler);
     }
 
@@ -55,6 +125,9 @@ public class HttpTaskServer {
 
     public void stop() {
         server.stop(0);
+        if (executor != null) {
+            executor.shutdown();
+        }
         System.out.println("HTTP-сервер остановлен.");
     }
 
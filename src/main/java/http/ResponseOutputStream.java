@@ -0,0 +1,90 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Потоковое тело ответа с необязательным сжатием. Если клиент не принимает gzip, байты сразу уходят
+// чанками. Если принимает - первые gzipThreshold байт копятся в буфере: уместившийся в них ответ
+// отправляется несжатым с известной длиной, а более длинный сжимается GZIPOutputStream целиком.
+class ResponseOutputStream extends OutputStream {
+
+    private final HttpExchange exchange;
+    private final int statusCode;
+    private final boolean gzipAllowed;
+    private final int gzipThreshold;
+    private ByteArrayOutputStream buffer;
+    private OutputStream out;
+    private boolean closed;
+
+    ResponseOutputStream(HttpExchange exchange, int statusCode, boolean gzipAllowed, int gzipThreshold) {
+        this.exchange = exchange;
+        this.statusCode = statusCode;
+        this.gzipAllowed = gzipAllowed;
+        this.gzipThreshold = gzipThreshold;
+        this.buffer = gzipAllowed ? new ByteArrayOutputStream(Math.min(gzipThreshold, 8192)) : null;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Тело ответа уже закрыто.");
+        }
+        if (out == null && buffer != null && buffer.size() + len <= gzipThreshold) {
+            buffer.write(b, off, len);
+            return;
+        }
+        if (out == null) {
+            startStreaming();
+        }
+        out.write(b, off, len);
+    }
+
+    private void startStreaming() throws IOException {
+        exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+        if (gzipAllowed) {
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(statusCode, 0);
+        out = exchange.getResponseBody();
+        if (gzipAllowed) {
+            out = new GZIPOutputStream(out, 8192);
+            buffer.writeTo(out);
+            buffer = null;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // До отправки заголовков сбрасывать нечего: размер ответа ещё не известен
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (out != null) {
+            out.close();
+            return;
+        }
+        byte[] body = buffer != null ? buffer.toByteArray() : new byte[0];
+        exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+        exchange.sendResponseHeaders(statusCode, body.length == 0 ? -1 : body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+}
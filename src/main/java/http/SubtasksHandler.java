@@ -1,11 +1,10 @@
 package http;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import com.sun.net.httpserver.HttpExchange;
+import manager.HistorySessions;
 import manager.ManagerSaveException;
 import manager.TaskManager;
-import model.Epic;
 import model.Subtask;
 
 import java.io.IOException;
@@ -13,16 +12,18 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
-import http.utils.GsonUtils;
 
 public class SubtasksHandler extends BaseHttpHandler {
 
     private final TaskManager taskManager;
-    private final Gson gson;
 
     public SubtasksHandler(TaskManager taskManager) {
+        this(taskManager, null);
+    }
+
+    public SubtasksHandler(TaskManager taskManager, HistorySessions sessions) {
+        super(sessions);
         this.taskManager = taskManager;
-        this.gson = GsonUtils.getGson();
     }
 
     @Override
@@ -66,11 +67,9 @@ public class SubtasksHandler extends BaseHttpHandler {
             Optional<Integer> epicIdOptional = parseId(query);
             if (epicIdOptional.isPresent()) {
                 int epicId = epicIdOptional.get();
-                Epic epic = taskManager.getEpic(epicId);
-                if (epic != null) {
+                if (taskManager.containsEpic(epicId)) {
                     List<Subtask> epicSubtasks = taskManager.getEpicSubtasks(epicId);
-                    String response = gson.toJson(epicSubtasks);
-                    sendText(exchange, response);
+                    sendJsonList(exchange, epicSubtasks);
                 } else {
                     sendNotFound(exchange, "Эпик с ID " + epicId + " не найден.");
                 }
@@ -86,17 +85,16 @@ public class SubtasksHandler extends BaseHttpHandler {
         Optional<Integer> subtaskIdOptional = parseId(query);
         if (subtaskIdOptional.isPresent()) {
             int subtaskId = subtaskIdOptional.get();
-            Subtask subtask = taskManager.getSubtask(subtaskId);
+            Subtask subtask = view(exchange, subtaskId, taskManager::peekSubtask, taskManager::getSubtask);
             if (subtask != null) {
-                String response = gson.toJson(subtask);
+                String response = responseGson(exchange).toJson(subtask);
                 sendText(exchange, response);
             } else {
                 sendNotFound(exchange, "Подзадача с ID " + subtaskId + " не найдена.");
             }
         } else {
             List<Subtask> subtasks = taskManager.getSubtasks();
-            String response = gson.toJson(subtasks);
-            sendText(exchange, response);
+            sendJsonList(exchange, subtasks);
         }
     }
 
@@ -117,7 +115,7 @@ public class SubtasksHandler extends BaseHttpHandler {
                 return;
             }
 
-            if (!taskManager.getEpics().stream().anyMatch(epic -> epic.getId() == subtask.getEpicId())) {
+            if (!taskManager.containsEpic(subtask.getEpicId())) {
                 sendBadRequest(exchange, "Указанный Epic с ID " + subtask.getEpicId() + " не существует.");
                 return;
             }
@@ -126,7 +124,7 @@ public class SubtasksHandler extends BaseHttpHandler {
                 int newId = taskManager.createSubtask(subtask);
                 sendText(exchange, "Подзадача создана с ID: " + newId);
             } else {
-                Subtask existingSubtask = taskManager.getSubtask(subtask.getId());
+                Subtask existingSubtask = taskManager.peekSubtask(subtask.getId());
                 if (existingSubtask != null && existingSubtask.getEpicId() != subtask.getEpicId()) {
                     sendBadRequest(exchange, "Нельзя изменить EpicId у существующей подзадачи.");
                     return;
@@ -146,8 +144,7 @@ public class SubtasksHandler extends BaseHttpHandler {
         Optional<Integer> deleteIdOptional = parseId(query);
         if (deleteIdOptional.isPresent()) {
             int subtaskIdToDelete = deleteIdOptional.get();
-            Subtask subtaskToDelete = taskManager.getSubtask(subtaskIdToDelete);
-            if (subtaskToDelete != null) {
+            if (taskManager.containsSubtask(subtaskIdToDelete)) {
                 taskManager.deleteSubtask(subtaskIdToDelete);
                 sendNoContent(exchange);
             } else {
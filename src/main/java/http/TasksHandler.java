@@ -1,8 +1,8 @@
 package http;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import com.sun.net.httpserver.HttpExchange;
+import manager.HistorySessions;
 import manager.ManagerSaveException;
 import manager.TaskManager;
 import model.Task;
@@ -10,18 +10,20 @@ import model.Task;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import http.utils.GsonUtils;
 import java.util.List;
 import java.util.Optional;
 
 public class TasksHandler extends BaseHttpHandler {
 
     private final TaskManager taskManager;
-    private final Gson gson;
 
     public TasksHandler(TaskManager taskManager) {
+        this(taskManager, null);
+    }
+
+    public TasksHandler(TaskManager taskManager, HistorySessions sessions) {
+        super(sessions);
         this.taskManager = taskManager;
-        this.gson = GsonUtils.getGson();
     }
 
     @Override
@@ -59,17 +61,16 @@ public class TasksHandler extends BaseHttpHandler {
         Optional<Integer> taskIdOptional = parseId(query);
         if (taskIdOptional.isPresent()) {
             int taskId = taskIdOptional.get();
-            Task task = taskManager.getTask(taskId);
+            Task task = view(exchange, taskId, taskManager::peekTask, taskManager::getTask);
             if (task != null) {
-                String response = gson.toJson(task);
+                String response = responseGson(exchange).toJson(task);
                 sendText(exchange, response);
             } else {
                 sendNotFound(exchange, "Задача с ID " + taskId + " не найдена.");
             }
         } else {
             List<Task> tasks = taskManager.getTasks();
-            String response = gson.toJson(tasks);
-            sendText(exchange, response);
+            sendJsonList(exchange, tasks);
         }
     }
 
@@ -108,8 +109,7 @@ public class TasksHandler extends BaseHttpHandler {
         Optional<Integer> deleteIdOptional = parseId(query);
         if (deleteIdOptional.isPresent()) {
             int taskIdToDelete = deleteIdOptional.get();
-            Task taskToDelete = taskManager.getTask(taskIdToDelete);
-            if (taskToDelete != null) {
+            if (taskManager.containsTask(taskIdToDelete)) {
                 taskManager.deleteTask(taskIdToDelete);
                 sendNoContent(exchange);
             } else {
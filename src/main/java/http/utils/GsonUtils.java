@@ -2,29 +2,277 @@ package http.utils;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
 
 import java.io.IOException;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.PrimitiveIterator;
 
 public class GsonUtils { // Создала отдельным классом, чтобы не дублировать во всех Handler'ах
 
+    private static final LocalDateTimeAdapter LOCAL_DATE_TIME_ADAPTER = new LocalDateTimeAdapter();
+    private static final DurationAdapter DURATION_ADAPTER = new DurationAdapter();
+    private static final EpicAdapter EPIC_ADAPTER = new EpicAdapter();
+    private static final SubtaskAdapter SUBTASK_ADAPTER = new SubtaskAdapter();
+    private static final TaskAdapter TASK_ADAPTER = new TaskAdapter();
+
+    // Gson потокобезопасен, поэтому все обработчики используют одни и те же готовые экземпляры
+    private static final Gson GSON = createGson(false);
+    private static final Gson PRETTY_GSON = createGson(true);
+
     private GsonUtils() {
     }
 
-    // Метод для получения настроенного Gson
+    // Метод для получения настроенного Gson. По умолчанию JSON компактный, без лишних пробелов
     public static Gson getGson() {
+        return GSON;
+    }
+
+    // Форматированный вывод нужен только для чтения человеком (параметр ?pretty в запросе)
+    public static Gson getGson(boolean prettyPrinting) {
+        return prettyPrinting ? PRETTY_GSON : GSON;
+    }
+
+    private static Gson createGson(boolean prettyPrinting) {
         GsonBuilder gsonBuilder = new GsonBuilder();
-        gsonBuilder.registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter());
-        gsonBuilder.registerTypeAdapter(Duration.class, new DurationAdapter());
-        gsonBuilder.setPrettyPrinting();
+        gsonBuilder.registerTypeAdapter(LocalDateTime.class, LOCAL_DATE_TIME_ADAPTER);
+        gsonBuilder.registerTypeAdapter(Duration.class, DURATION_ADAPTER);
+        gsonBuilder.registerTypeAdapter(Task.class, TASK_ADAPTER);
+        gsonBuilder.registerTypeAdapter(Epic.class, EPIC_ADAPTER);
+        gsonBuilder.registerTypeAdapter(Subtask.class, SUBTASK_ADAPTER);
+        if (prettyPrinting) {
+            gsonBuilder.setPrettyPrinting();
+        }
         return gsonBuilder.create();
     }
 
-    public static class LocalDateTimeAdapter extends com.google.gson.TypeAdapter<LocalDateTime> {
+    // Общие поля Task, Epic и Subtask. При чтении сюда складываются значения, пока не дочитан весь объект
+    private static class TaskFields {
+        private int id;
+        private String name;
+        private String description;
+        private TaskStatus status;
+        private Duration duration;
+        private LocalDateTime startTime;
+
+        TaskFields(TaskStatus status, Duration duration) {
+            this.status = status;
+            this.duration = duration;
+        }
+
+        // Возвращает false, если поле не общее и его должен разобрать адаптер наследника
+        boolean read(JsonReader in, String field) throws IOException {
+            switch (field) {
+                case "id":
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                    } else {
+                        id = in.nextInt();
+                    }
+                    return true;
+                case "name":
+                    name = readString(in);
+                    return true;
+                case "description":
+                    description = readString(in);
+                    return true;
+                case "status":
+                    status = readStatus(in);
+                    return true;
+                case "duration":
+                    duration = DURATION_ADAPTER.read(in);
+                    return true;
+                case "startTime":
+                    startTime = LOCAL_DATE_TIME_ADAPTER.read(in);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        static void write(JsonWriter out, Task value) throws IOException {
+            out.name("id").value(value.getId());
+            out.name("name").value(value.getName());
+            out.name("description").value(value.getDescription());
+            out.name("status").value(value.getStatus() == null ? null : value.getStatus().name());
+            out.name("duration");
+            DURATION_ADAPTER.write(out, value.getDuration());
+            out.name("startTime");
+            LOCAL_DATE_TIME_ADAPTER.write(out, value.getStartTime());
+        }
+
+        private static String readString(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return in.nextString();
+        }
+
+        // Неизвестный статус, как и раньше у Gson, превращается в null
+        private static TaskStatus readStatus(JsonReader in) throws IOException {
+            String value = readString(in);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return TaskStatus.valueOf(value);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    // Адаптеры моделей без рефлексии: поля пишутся в фиксированном порядке, null-поля пропускаются,
+    // а при чтении объект создаётся сразу нужным конструктором. Неизвестные поля игнорируются
+    public static class TaskAdapter extends TypeAdapter<Task> {
+        @Override
+        public void write(JsonWriter out, Task value) throws IOException {
+            if (value instanceof Epic) {
+                EPIC_ADAPTER.write(out, (Epic) value);
+                return;
+            }
+            if (value instanceof Subtask) {
+                SUBTASK_ADAPTER.write(out, (Subtask) value);
+                return;
+            }
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            TaskFields.write(out, value);
+            out.endObject();
+        }
+
+        @Override
+        public Task read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            TaskFields fields = new TaskFields(null, null);
+            in.beginObject();
+            while (in.hasNext()) {
+                if (!fields.read(in, in.nextName())) {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Task(fields.name, fields.description, fields.id, fields.status, fields.duration,
+                    fields.startTime);
+        }
+    }
+
+    public static class SubtaskAdapter extends TypeAdapter<Subtask> {
+        @Override
+        public void write(JsonWriter out, Subtask value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            TaskFields.write(out, value);
+            out.name("epicId").value(value.getEpicId());
+            out.endObject();
+        }
+
+        // Значения по умолчанию те же, что у конструктора Subtask() для Gson
+        @Override
+        public Subtask read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            TaskFields fields = new TaskFields(TaskStatus.NEW, Duration.ZERO);
+            int epicId = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                if (fields.read(in, field)) {
+                    continue;
+                }
+                if (field.equals("epicId") && in.peek() != JsonToken.NULL) {
+                    epicId = in.nextInt();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Subtask(fields.name, fields.description, fields.id, fields.status, epicId, fields.duration,
+                    fields.startTime);
+        }
+    }
+
+    public static class EpicAdapter extends TypeAdapter<Epic> {
+        @Override
+        public void write(JsonWriter out, Epic value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            TaskFields.write(out, value);
+            out.name("subtaskIds").beginArray();
+            for (PrimitiveIterator.OfInt ids = value.subtaskIdIterator(); ids.hasNext(); ) {
+                out.value(ids.nextInt());
+            }
+            out.endArray();
+            out.name("endTime");
+            LOCAL_DATE_TIME_ADAPTER.write(out, value.getEndTime());
+            out.endObject();
+        }
+
+        // Значения по умолчанию те же, что у конструктора Epic() для Gson
+        @Override
+        public Epic read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            TaskFields fields = new TaskFields(TaskStatus.NEW, Duration.ZERO);
+            Epic epic = new Epic();
+            LocalDateTime endTime = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                if (fields.read(in, field)) {
+                    continue;
+                }
+                if (field.equals("subtaskIds") && in.peek() == JsonToken.BEGIN_ARRAY) {
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        epic.addSubtaskId(in.nextInt());
+                    }
+                    in.endArray();
+                } else if (field.equals("endTime")) {
+                    endTime = LOCAL_DATE_TIME_ADAPTER.read(in);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            epic.setId(fields.id);
+            epic.setName(fields.name);
+            epic.setDescription(fields.description);
+            epic.setStatus(fields.status);
+            epic.setCalculatedDuration(fields.duration);
+            epic.setCalculatedStartTime(fields.startTime);
+            epic.setEndTime(endTime);
+            return epic;
+        }
+    }
+
+    public static class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
         private final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
         @Override
@@ -46,7 +294,7 @@ public class GsonUtils { // Создала отдельным классом, ч
         }
     }
 
-    public static class DurationAdapter extends com.google.gson.TypeAdapter<Duration> {
+    public static class DurationAdapter extends TypeAdapter<Duration> {
         @Override
         public void write(JsonWriter out, Duration value) throws IOException {
             if (value == null) {
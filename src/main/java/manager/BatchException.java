@@ -0,0 +1,52 @@
+package manager;
+
+import model.Task;
+
+import java.util.List;
+
+// Пакетная операция (createAll/updateAll) не выполнена: менеджер не изменился.
+// getErrors() перечисляет все найденные ошибки с номером элемента в пакете
+public class BatchException extends ManagerSaveException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<ItemError> errors;
+
+    public BatchException(List<ItemError> errors) {
+        super("Пакет не применён, ошибок: " + errors.size() + ". Первая: " + errors.get(0));
+        this.errors = List.copyOf(errors);
+    }
+
+    public List<ItemError> getErrors() {
+        return errors;
+    }
+
+    public static class ItemError {
+        private final int index;
+        private final Task item;
+        private final String message;
+
+        public ItemError(int index, Task item, String message) {
+            this.index = index;
+            this.item = item;
+            this.message = message;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Task getItem() {
+            return item;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + index + ": " + message;
+        }
+    }
+}
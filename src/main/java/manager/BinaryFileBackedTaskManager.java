@@ -0,0 +1,54 @@
+package manager;
+
+import java.io.File;
+import java.io.IOException;
+
+// Менеджер с двоичным снимком вместо CSV (формат описан в BinarySnapshot). Запись и чтение не разбирают строки,
+// не вызывают LocalDateTime.parse и valueOf, а запятые и переводы строк в названиях больше ничего не ломают.
+// Поведение (когда сохранять, как восстанавливать связи и историю) то же, что у FileBackedTaskManager.
+public class BinaryFileBackedTaskManager extends FileBackedTaskManager {
+
+    public BinaryFileBackedTaskManager(File file) {
+        super(file);
+    }
+
+    public static BinaryFileBackedTaskManager loadFromFile(File file) throws ManagerSaveException {
+        BinaryFileBackedTaskManager manager = new BinaryFileBackedTaskManager(file);
+        manager.load();
+        return manager;
+    }
+
+    // Переводит CSV-файл FileBackedTaskManager в двоичный снимок
+    public static void convertFromCsv(File csvFile, File binaryFile) throws ManagerSaveException {
+        FileBackedTaskManager csvManager = FileBackedTaskManager.loadFromFile(csvFile);
+        try {
+            BinarySnapshot.write(binaryFile, csvManager.tasks.values(), csvManager.epics.values(),
+                    csvManager.subtasks.values(), csvManager.getHistory());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения задач в файл: " + binaryFile.getName(), e);
+        }
+    }
+
+    @Override
+    protected void writeSnapshot(File target) {
+        try {
+            BinarySnapshot.write(target, tasks.values(), epics.values(), subtasks.values(), getHistory());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения задач в файл: " + target.getName(), e);
+        }
+    }
+
+    @Override
+    protected void load() throws ManagerSaveException {
+        File file = getFile();
+        if (!file.exists() || file.length() == 0) {
+            return;
+        }
+        try {
+            BinarySnapshot.Contents contents = BinarySnapshot.read(file);
+            restoreState(contents.tasks, contents.history);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка загрузки задач из файла: " + file.getName() + " (" + e.getMessage() + ")", e);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// Двоичный формат снимка:
+//   int MAGIC, byte VERSION, varint число задач, эпиков, подзадач и записей истории;
+//   записи задач, эпиков и подзадач; id из истории (varint); int CRC32 всех предыдущих байт.
+// Запись: varint id, byte статус (ordinal + 1, 0 - null), строки name и description (varint длина + 1, 0 - null,
+// затем UTF-8), byte флагов времени; при наличии - начало в секундах эпохи UTC (zigzag varlong) и наносекунды
+// (varint), длительность в минутах (zigzag varlong). У подзадачи в конце varint epicId.
+// Время эпика не пишется, оно пересчитывается из подзадач при загрузке.
+class BinarySnapshot {
+
+    static final int MAGIC = 0x4B414E42; // "KANB"
+    static final byte VERSION = 1;
+
+    private static final int HAS_START = 1;
+    private static final int HAS_NANOS = 2;
+    private static final int HAS_DURATION = 4;
+
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    // Прочитанный снимок: все задачи подряд (задачи, эпики, подзадачи) и id из истории
+    static class Contents {
+        final List<Task> tasks;
+        final List<Integer> history;
+
+        Contents(List<Task> tasks, List<Integer> history) {
+            this.tasks = tasks;
+            this.history = history;
+        }
+    }
+
+    private BinarySnapshot() {
+    }
+
+    static void write(File target, Collection<Task> tasks, Collection<Epic> epics, Collection<Subtask> subtasks,
+                      List<Task> history) throws IOException {
+        CRC32 crc = new CRC32();
+        try (FileOutputStream file = new FileOutputStream(target);
+             DataOutputStream out = new DataOutputStream(
+                     new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), crc))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            writeVarInt(out, tasks.size());
+            writeVarInt(out, epics.size());
+            writeVarInt(out, subtasks.size());
+            writeVarInt(out, history.size());
+            for (Task task : tasks) {
+                writeRecord(out, task, true);
+            }
+            for (Epic epic : epics) {
+                writeRecord(out, epic, false);
+            }
+            for (Subtask subtask : subtasks) {
+                writeRecord(out, subtask, true);
+                writeVarInt(out, subtask.getEpicId());
+            }
+            for (Task task : history) {
+                writeVarInt(out, task.getId());
+            }
+            // Сумма снимается до записи её самой, поэтому покрывает ровно предыдущие байты
+            out.writeInt((int) crc.getValue());
+        }
+    }
+
+    static Contents read(File source) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(
+                new CheckedInputStream(new BufferedInputStream(new FileInputStream(source), 1 << 16), crc))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("файл не является двоичным снимком");
+            }
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("неподдерживаемая версия снимка " + version);
+            }
+            int taskCount = readCount(in);
+            int epicCount = readCount(in);
+            int subtaskCount = readCount(in);
+            int historyCount = readCount(in);
+            // Каждая запись занимает хотя бы байт, так что испорченные счётчики не приведут к огромным аллокациям
+            long maxLength = source.length();
+            if ((long) taskCount + epicCount + subtaskCount + historyCount > maxLength) {
+                throw new IOException("число записей больше размера файла");
+            }
+
+            byte[] buffer = new byte[256];
+            List<Task> tasks = new ArrayList<>(taskCount + epicCount + subtaskCount);
+            for (int i = 0; i < taskCount; i++) {
+                RecordReader record = new RecordReader(in, buffer, maxLength, true);
+                buffer = record.buffer;
+                tasks.add(new Task(record.name, record.description, record.id, record.status, record.duration,
+                        record.startTime));
+            }
+            for (int i = 0; i < epicCount; i++) {
+                RecordReader record = new RecordReader(in, buffer, maxLength, false);
+                buffer = record.buffer;
+                tasks.add(new Epic(record.name, record.description, record.id, record.status));
+            }
+            for (int i = 0; i < subtaskCount; i++) {
+                RecordReader record = new RecordReader(in, buffer, maxLength, true);
+                buffer = record.buffer;
+                int epicId = readVarInt(in);
+                tasks.add(new Subtask(record.name, record.description, record.id, record.status, epicId,
+                        record.duration, record.startTime));
+            }
+            List<Integer> history = new ArrayList<>(historyCount);
+            for (int i = 0; i < historyCount; i++) {
+                history.add(readVarInt(in));
+            }
+
+            long expected = crc.getValue();
+            int actual = in.readInt();
+            if ((int) expected != actual) {
+                throw new IOException("контрольная сумма не совпадает");
+            }
+            if (in.read() != -1) {
+                throw new IOException("лишние данные после контрольной суммы");
+            }
+            return new Contents(tasks, history);
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, Task task, boolean withTime) throws IOException {
+        writeVarInt(out, task.getId());
+        out.writeByte(task.getStatus() == null ? 0 : task.getStatus().ordinal() + 1);
+        writeString(out, task.getName());
+        writeString(out, task.getDescription());
+        if (!withTime) {
+            return;
+        }
+        LocalDateTime startTime = task.getStartTime();
+        Duration duration = task.getDuration();
+        int flags = 0;
+        if (startTime != null) {
+            flags |= HAS_START;
+            if (startTime.getNano() != 0) {
+                flags |= HAS_NANOS;
+            }
+        }
+        if (duration != null) {
+            flags |= HAS_DURATION;
+        }
+        out.writeByte(flags);
+        if (startTime != null) {
+            writeVarLong(out, zigZag(startTime.toEpochSecond(ZoneOffset.UTC)));
+            if (startTime.getNano() != 0) {
+                writeVarInt(out, startTime.getNano());
+            }
+        }
+        if (duration != null) {
+            writeVarLong(out, zigZag(duration.toMinutes()));
+        }
+    }
+
+    // Поля одной записи. Буфер для строк переиспользуется между записями и растёт при необходимости
+    private static class RecordReader {
+        private byte[] buffer;
+        private final long maxLength;
+        private final int id;
+        private final TaskStatus status;
+        private final String name;
+        private final String description;
+        private LocalDateTime startTime;
+        private Duration duration;
+
+        RecordReader(DataInputStream in, byte[] buffer, long maxLength, boolean withTime) throws IOException {
+            this.buffer = buffer;
+            this.maxLength = maxLength;
+            this.id = readVarInt(in);
+            int status = in.readUnsignedByte();
+            if (status > STATUSES.length) {
+                throw new IOException("неизвестный статус " + status + " у задачи " + id);
+            }
+            this.status = status == 0 ? null : STATUSES[status - 1];
+            this.name = readString(in);
+            this.description = readString(in);
+            if (!withTime) {
+                return;
+            }
+            int flags = in.readUnsignedByte();
+            if ((flags & HAS_START) != 0) {
+                long seconds = unZigZag(readVarLong(in));
+                int nanos = (flags & HAS_NANOS) != 0 ? readVarInt(in) : 0;
+                startTime = LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+            }
+            if ((flags & HAS_DURATION) != 0) {
+                duration = Duration.ofMinutes(unZigZag(readVarLong(in)));
+            }
+        }
+
+        private String readString(DataInputStream in) throws IOException {
+            int length = readVarInt(in) - 1;
+            if (length == -1) {
+                return null;
+            }
+            if (length < 0 || length > maxLength) {
+                throw new IOException("длина строки больше размера файла у задачи " + id);
+            }
+            if (length > buffer.length) {
+                buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+            in.readFully(buffer, 0, length);
+            return new String(buffer, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = readVarInt(in);
+        if (count < 0) {
+            throw new IOException("некорректное число записей " + count);
+        }
+        return count;
+    }
+
+    // Беззнаковый LEB128: 7 бит на байт, старший бит - признак продолжения
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInputStream in) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("слишком длинный varint");
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("слишком длинный varlong");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
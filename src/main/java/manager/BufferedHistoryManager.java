@@ -0,0 +1,221 @@
+package manager;
+
+import model.Task;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+
+// История для многопоточного сервера. Просмотры (add) не трогают общий список: поток кладёт задачу в свой
+// кольцевой буфер (полосу), выбранную по потоку, без блокировок - одним CAS. Буферы пачками переносит в delegate
+// задача в drainExecutor под drainLock. Если полоса полна, поток пробует перенести сам через tryLock, а если
+// блокировку держит кто-то другой (или CAS проиграл соседу) - просмотр теряется: порядок недавних просмотров
+// важнее полноты под пиковой нагрузкой, а поток запроса на учёте истории никогда не ждёт.
+// getHistory, remove, removeAll и restore берут drainLock, сначала дописывают в delegate всё накопленное
+// и поэтому видят согласованное состояние, включая просмотры, сделанные этим же потоком.
+// Просмотр, начатый до удаления задачи, может попасть в буфер уже после remove. Такие записи отсекает isLive:
+// перенос пропускает задачи, которых уже нет в менеджере (менеджер удаляет задачу из таблицы до remove)
+public class BufferedHistoryManager implements HistoryManager {
+
+    private static final int BUFFER_SIZE = 16;
+    // Сколько записей в полосе достаточно, чтобы запланировать перенос
+    private static final int DRAIN_THRESHOLD = BUFFER_SIZE / 2;
+
+    private final HistoryManager delegate;
+    private final Executor drainExecutor;
+    private final RingBuffer[] stripes;
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final IntPredicate isLive;
+
+    public BufferedHistoryManager(HistoryManager delegate) {
+        this(delegate, ForkJoinPool.commonPool());
+    }
+
+    public BufferedHistoryManager(HistoryManager delegate, Executor drainExecutor) {
+        this(delegate, drainExecutor, id -> true);
+    }
+
+    // isLive(id) - есть ли задача с этим id в менеджере на момент переноса
+    public BufferedHistoryManager(HistoryManager delegate, IntPredicate isLive) {
+        this(delegate, ForkJoinPool.commonPool(), isLive);
+    }
+
+    public BufferedHistoryManager(HistoryManager delegate, Executor drainExecutor, IntPredicate isLive) {
+        this.delegate = delegate;
+        this.drainExecutor = drainExecutor;
+        this.isLive = isLive;
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4 - 1)) << 1;
+        this.stripes = new RingBuffer[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new RingBuffer();
+        }
+    }
+
+    // Кольцевой буфер на много писателей и одного читателя: писатели занимают ячейку CAS по writeCounter,
+    // читатель (владелец drainLock) двигает readCounter
+    private static final class RingBuffer {
+        private final AtomicReferenceArray<Task> buffer = new AtomicReferenceArray<>(BUFFER_SIZE);
+        private final AtomicLong readCounter = new AtomicLong();
+        private final AtomicLong writeCounter = new AtomicLong();
+
+        // Число записей в буфере после вставки или -1, если буфер полон или ячейку перехватил другой поток
+        int offer(Task task) {
+            long head = readCounter.get();
+            long tail = writeCounter.get();
+            if (tail - head >= BUFFER_SIZE) {
+                return -1;
+            }
+            if (!writeCounter.compareAndSet(tail, tail + 1)) {
+                return -1;
+            }
+            buffer.lazySet((int) (tail & (BUFFER_SIZE - 1)), task);
+            return (int) (tail + 1 - head);
+        }
+
+        void drainTo(HistoryManager target, IntPredicate isLive) {
+            long head = readCounter.get();
+            long tail = writeCounter.get();
+            while (head < tail) {
+                int index = (int) (head & (BUFFER_SIZE - 1));
+                Task task = buffer.get(index);
+                if (task == null) {
+                    // Писатель занял ячейку, но ещё не записал задачу: заберём её при следующем переносе
+                    break;
+                }
+                buffer.lazySet(index, null);
+                if (isLive.test(task.getId())) {
+                    target.add(task);
+                }
+                head++;
+            }
+            readCounter.lazySet(head);
+        }
+
+        boolean isEmpty() {
+            return readCounter.get() == writeCounter.get();
+        }
+    }
+
+    private RingBuffer stripe() {
+        int h = System.identityHashCode(Thread.currentThread()) * 0x9E3779B9;
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        RingBuffer stripe = stripe();
+        int pending = stripe.offer(task);
+        if (pending < 0 && drainLock.tryLock()) {
+            // Полосу никто не разгружает: переносим сами, не дожидаясь владельца, и пробуем ещё раз
+            try {
+                drainBuffers();
+            } finally {
+                drainLock.unlock();
+            }
+            pending = stripe.offer(task);
+        }
+        if (pending < 0 || pending >= DRAIN_THRESHOLD) {
+            scheduleDrain();
+        }
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                drainExecutor.execute(this::drainTask);
+            } catch (RejectedExecutionException e) {
+                // Исполнитель остановлен: буферы разгрузятся при следующем чтении или переполнении
+                drainScheduled.set(false);
+            }
+        }
+    }
+
+    private void drainTask() {
+        drainLock.lock();
+        try {
+            drainBuffers();
+        } finally {
+            drainScheduled.set(false);
+            drainLock.unlock();
+        }
+        // Просмотры, записанные во время переноса, без новой задачи остались бы в буфере до следующего чтения
+        for (RingBuffer stripe : stripes) {
+            if (!stripe.isEmpty()) {
+                scheduleDrain();
+                return;
+            }
+        }
+    }
+
+    private void drainBuffers() {
+        for (RingBuffer stripe : stripes) {
+            stripe.drainTo(delegate, isLive);
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            delegate.remove(id);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            return delegate.getHistory();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            return delegate.getHistory(limit);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    // Накопленные в буферах просмотры относятся к удаляемой истории и выбрасываются вместе с ней
+    @Override
+    public void removeAll() {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            delegate.removeAll();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public void restore(List<Task> history) {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            delegate.restore(history);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package manager;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+// IntTaskStore поверх ConcurrentHashMap для ConcurrentTaskManager: чтение без блокировок важнее упаковки id,
+// поэтому методы с int просто упаковывают ключ. Обходы слабо согласованы, как и у самой ConcurrentHashMap
+class ConcurrentIntTaskStore<V> extends AbstractMap<Integer, V> implements IntTaskStore<V> {
+
+    private final ConcurrentHashMap<Integer, V> map = new ConcurrentHashMap<>();
+
+    @Override
+    public V get(int id) {
+        return map.get(id);
+    }
+
+    @Override
+    public V put(int id, V value) {
+        return map.put(id, value);
+    }
+
+    @Override
+    public V remove(int id) {
+        return map.remove(id);
+    }
+
+    @Override
+    public boolean containsKey(int id) {
+        return map.containsKey(id);
+    }
+
+    @Override
+    public void forEachKey(IntConsumer action) {
+        for (Integer id : map.keySet()) {
+            action.accept(id);
+        }
+    }
+
+    @Override
+    public void forEachValue(Consumer<? super V> action) {
+        map.values().forEach(action);
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public V get(Object key) {
+        return map.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        return map.put(key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return map.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    @Override
+    public Set<Integer> keySet() {
+        return map.keySet();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return map.values();
+    }
+
+    @Override
+    public Set<Entry<Integer, V>> entrySet() {
+        return map.entrySet();
+    }
+}
@@ -0,0 +1,328 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Потокобезопасный менеджер для многопоточного HttpTaskServer.
+// Задачи хранятся в ConcurrentHashMap, поэтому getTasks/getSubtasks и getTask/getSubtask не берут блокировок.
+// Эпик меняется на месте (подзадачи, статус, время), поэтому наружу отдаётся его копия, снятая под read-блокировкой полосы.
+// Эпики разбиты на полосы (stripes) по id: запись в подзадачи одного эпика блокирует только его полосу,
+// а getEpicSubtasks читает под read-блокировкой полосы. Расписание (prioritizedTasks + intervalIndex) защищено
+// отдельной read/write-блокировкой: проверка пересечений и вставка выполняются под одной write-блокировкой,
+// поэтому пересекающиеся интервалы не проскочат даже при конкурирующих запросах.
+// Порядок захвата всегда: полосы эпиков (по возрастанию номера) -> расписание.
+// Просмотры пишутся в BufferedHistoryManager без блокировок и переносятся в историю пачками.
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final ReadWriteLock[] stripes;
+    private final ReadWriteLock scheduleLock = new ReentrantReadWriteLock();
+
+    public ConcurrentTaskManager() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public ConcurrentTaskManager(int stripeCount) {
+        this(stripeCount, new ConcurrentIntTaskStore<>(), new ConcurrentIntTaskStore<>(), new ConcurrentIntTaskStore<>());
+    }
+
+    // getTask, гонящийся с deleteTask, может дописать просмотр уже после удаления из истории:
+    // буфер истории отбрасывает просмотры задач, которых больше нет в таблицах
+    private ConcurrentTaskManager(int stripeCount, IntTaskStore<Task> tasks, IntTaskStore<Epic> epics,
+                                  IntTaskStore<Subtask> subtasks) {
+        super(tasks, epics, subtasks, new BufferedHistoryManager(Managers.getDefaultHistory(),
+                id -> tasks.containsKey(id) || epics.containsKey(id) || subtasks.containsKey(id)));
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Количество полос должно быть положительным: " + stripeCount);
+        }
+        this.stripes = new ReadWriteLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    private int stripeIndex(int epicId) {
+        return Math.floorMod(epicId, stripes.length);
+    }
+
+    private ReadWriteLock stripeFor(int epicId) {
+        return stripes[stripeIndex(epicId)];
+    }
+
+    private static <T> T locked(Lock lock, Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void locked(Lock lock, Runnable action) {
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Write-блокировки двух полос в фиксированном порядке, чтобы не было взаимоблокировки
+    private <T> T lockedStripes(int firstEpicId, int secondEpicId, Supplier<T> action) {
+        int first = Math.min(stripeIndex(firstEpicId), stripeIndex(secondEpicId));
+        int second = Math.max(stripeIndex(firstEpicId), stripeIndex(secondEpicId));
+        return locked(stripes[first].writeLock(), () -> locked(stripes[second].writeLock(), action));
+    }
+
+    private void lockedAll(Runnable action) {
+        lockedAll(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private <T> T lockedAll(Supplier<T> action) {
+        for (ReadWriteLock stripe : stripes) {
+            stripe.writeLock().lock();
+        }
+        try {
+            return locked(scheduleLock.writeLock(), action);
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                stripes[i].writeLock().unlock();
+            }
+        }
+    }
+
+    private static boolean isTimed(Task task) {
+        return task != null && task.getStartTime() != null && task.getDuration() != null;
+    }
+
+    @Override
+    protected synchronized int generateId() {
+        return super.generateId();
+    }
+
+    // Одиночные вставки и удаления в расписании безопасны и вне блокировки вызывающего метода
+    @Override
+    protected void addPrioritized(Task task) {
+        locked(scheduleLock.writeLock(), () -> super.addPrioritized(task));
+    }
+
+    @Override
+    protected boolean removePrioritized(Task task) {
+        return locked(scheduleLock.writeLock(), () -> super.removePrioritized(task));
+    }
+
+    @Override
+    protected boolean hasIntersections(Task newTask) {
+        return locked(scheduleLock.readLock(), () -> super.hasIntersections(newTask));
+    }
+
+    // Эпик временно убирается из расписания, поэтому весь пересчёт должен быть атомарным для проверок пересечений
+    @Override
+    protected void trackEpicSubtask(Epic epic, Subtask subtask) {
+        locked(scheduleLock.writeLock(), () -> super.trackEpicSubtask(epic, subtask));
+    }
+
+    @Override
+    protected void untrackEpicSubtask(Epic epic, int subtaskId) {
+        locked(scheduleLock.writeLock(), () -> super.untrackEpicSubtask(epic, subtaskId));
+    }
+
+    @Override
+    protected void calculateEpicTimesAndStatus(Epic epic) {
+        locked(scheduleLock.writeLock(), () -> super.calculateEpicTimesAndStatus(epic));
+    }
+
+    @Override
+    public int createTask(Task task) {
+        if (!isTimed(task)) {
+            return super.createTask(task);
+        }
+        return locked(scheduleLock.writeLock(), () -> super.createTask(task));
+    }
+
+    @Override
+    public int createEpic(Epic epic) {
+        return super.createEpic(epic);
+    }
+
+    @Override
+    public int createSubtask(Subtask subtask) {
+        if (subtask == null) {
+            return super.createSubtask(null);
+        }
+        return locked(stripeFor(subtask.getEpicId()).writeLock(), () -> {
+            if (!isTimed(subtask)) {
+                return super.createSubtask(subtask);
+            }
+            return locked(scheduleLock.writeLock(), () -> super.createSubtask(subtask));
+        });
+    }
+
+    // Пакет может затронуть любые эпики и расписание, поэтому выполняется под всеми блокировками
+    @Override
+    public List<Integer> createAll(Collection<? extends Task> items) {
+        return lockedAll(() -> super.createAll(items));
+    }
+
+    @Override
+    public void updateAll(Collection<? extends Task> items) {
+        lockedAll(() -> super.updateAll(items));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        locked(scheduleLock.writeLock(), () -> super.updateTask(task));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        if (epic == null) {
+            super.updateEpic(null);
+            return;
+        }
+        locked(stripeFor(epic.getId()).writeLock(), () -> super.updateEpic(epic));
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        if (subtask == null) {
+            super.updateSubtask(null);
+            return;
+        }
+        // Если подзадачу успели перенести в другой эпик, блокировки отпускаются и попытка повторяется
+        // с актуальными полосами: повторный захват под уже взятыми полосами нарушил бы порядок захвата
+        boolean updated;
+        do {
+            Subtask existing = subtasks.get(subtask.getId());
+            int previousEpicId = existing != null ? existing.getEpicId() : subtask.getEpicId();
+            updated = lockedStripes(previousEpicId, subtask.getEpicId(), () -> {
+                Subtask current = subtasks.get(subtask.getId());
+                if (current != null && current.getEpicId() != previousEpicId) {
+                    return false;
+                }
+                if (!isTimed(subtask) && !isTimed(current)) {
+                    super.updateSubtask(subtask);
+                } else {
+                    locked(scheduleLock.writeLock(), () -> super.updateSubtask(subtask));
+                }
+                return true;
+            });
+        } while (!updated);
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        locked(scheduleLock.writeLock(), () -> super.deleteTask(id));
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        // Подзадачи эпика снимаются с расписания одним проходом под одной write-блокировкой
+        locked(stripeFor(id).writeLock(), () -> locked(scheduleLock.writeLock(), () -> super.deleteEpic(id)));
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        // Повтор после переноса подзадачи - так же, как в updateSubtask, только после отпускания полосы
+        boolean deleted;
+        do {
+            Subtask subtask = subtasks.get(id);
+            if (subtask == null) {
+                return;
+            }
+            deleted = locked(stripeFor(subtask.getEpicId()).writeLock(), () -> {
+                Subtask current = subtasks.get(id);
+                if (current != null && current.getEpicId() != subtask.getEpicId()) {
+                    return false;
+                }
+                super.deleteSubtask(id);
+                return true;
+            });
+        } while (!deleted);
+    }
+
+    @Override
+    public void removeAllTasks() {
+        locked(scheduleLock.writeLock(), super::removeAllTasks);
+    }
+
+    @Override
+    public void removeAllEpics() {
+        lockedAll(super::removeAllEpics);
+    }
+
+    @Override
+    public void removeAllSubtasks() {
+        lockedAll(super::removeAllSubtasks);
+    }
+
+    private Epic copyOf(Epic epic) {
+        return locked(stripeFor(epic.getId()).readLock(), epic::copy);
+    }
+
+    // Эпики в списке заменяются копиями. Вызывается без блокировки расписания, чтобы не нарушить порядок захвата
+    private <T extends Task> List<T> withEpicCopies(List<T> list) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) instanceof Epic) {
+                @SuppressWarnings("unchecked")
+                T copy = (T) copyOf((Epic) list.get(i));
+                list.set(i, copy);
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        return locked(stripeFor(id).readLock(), () -> {
+            Epic epic = super.getEpic(id);
+            return epic != null ? epic.copy() : null;
+        });
+    }
+
+    @Override
+    public Epic peekEpic(int id) {
+        return locked(stripeFor(id).readLock(), () -> {
+            Epic epic = super.peekEpic(id);
+            return epic != null ? epic.copy() : null;
+        });
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        return withEpicCopies(super.getEpics());
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return withEpicCopies(new ArrayList<>(super.getHistory()));
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        return withEpicCopies(new ArrayList<>(super.getHistory(limit)));
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int epicId) {
+        return locked(stripeFor(epicId).readLock(), () -> super.getEpicSubtasks(epicId));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return withEpicCopies(locked(scheduleLock.readLock(), () -> new ArrayList<>(prioritizedTasks)));
+    }
+}
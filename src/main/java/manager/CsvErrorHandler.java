@@ -0,0 +1,11 @@
+package manager;
+
+// Получает строки CSV, которые не удалось разобрать при загрузке. Такие строки пропускаются, загрузка продолжается
+@FunctionalInterface
+public interface CsvErrorHandler {
+
+    CsvErrorHandler PRINT = (lineNumber, line, reason) ->
+            System.err.println("Пропущена некорректная строка " + lineNumber + " при загрузке: " + line + " - " + reason);
+
+    void onMalformedLine(long lineNumber, String line, String reason);
+}
@@ -0,0 +1,302 @@
+package manager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+// Потоковый разбор CSV по RFC 4180: next() читает из Reader одну запись, поля в кавычках могут содержать
+// запятые, переводы строк и удвоенные кавычки. Поля записи лежат в общем буфере символов, а intField, enumField
+// и dateTimeField разбирают их прямо из буфера, без промежуточных строк. Файл целиком в памяти не держится.
+final class CsvReader implements Closeable {
+
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private final char[] input = new char[8192];
+    private int inputPosition;
+    private int inputLimit;
+
+    private char[] chars = new char[256];
+    private int length;
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private int fieldCount;
+    private boolean quoted;
+    private boolean truncated;
+
+    private long line;
+    private long recordLine;
+
+    CsvReader(Reader reader) {
+        this(reader, 1);
+    }
+
+    // firstLine - номер первой строки, если Reader начинается с середины файла
+    CsvReader(Reader reader, long firstLine) {
+        this.reader = reader;
+        this.line = firstLine;
+    }
+
+    // Читает следующую запись; false, если записей больше нет
+    boolean next() throws IOException {
+        int c = read();
+        if (c == EOF) {
+            return false;
+        }
+        recordLine = line;
+        length = 0;
+        fieldCount = 0;
+        quoted = false;
+        truncated = false;
+        startField();
+        while (true) {
+            if (c == '"' && length == fieldStarts[fieldCount - 1]) {
+                c = readQuoted();
+                continue;
+            }
+            switch (c) {
+                case ',':
+                    endField();
+                    startField();
+                    break;
+                case '\r':
+                    if (peek() == '\n') {
+                        read();
+                    }
+                    line++;
+                    endField();
+                    return true;
+                case '\n':
+                    line++;
+                    endField();
+                    return true;
+                case EOF:
+                    endField();
+                    return true;
+                default:
+                    append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    // Содержимое поля в кавычках; возвращает первый символ после закрывающей кавычки
+    private int readQuoted() throws IOException {
+        quoted = true;
+        while (true) {
+            int c = read();
+            if (c == EOF) {
+                truncated = true;
+                return EOF;
+            }
+            if (c == '"') {
+                if (peek() != '"') {
+                    return read();
+                }
+                read();
+            } else if (c == '\n' || (c == '\r' && peek() != '\n')) {
+                line++;
+            }
+            append((char) c);
+        }
+    }
+
+    private int read() throws IOException {
+        if (inputPosition == inputLimit && !fill()) {
+            return EOF;
+        }
+        return input[inputPosition++];
+    }
+
+    private int peek() throws IOException {
+        if (inputPosition == inputLimit && !fill()) {
+            return EOF;
+        }
+        return input[inputPosition];
+    }
+
+    private boolean fill() throws IOException {
+        int count = reader.read(input, 0, input.length);
+        while (count == 0) {
+            count = reader.read(input, 0, input.length);
+        }
+        if (count < 0) {
+            return false;
+        }
+        inputPosition = 0;
+        inputLimit = count;
+        return true;
+    }
+
+    private void append(char c) {
+        if (length == chars.length) {
+            chars = Arrays.copyOf(chars, length * 2);
+        }
+        chars[length++] = c;
+    }
+
+    private void startField() {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        }
+        fieldStarts[fieldCount++] = length;
+    }
+
+    private void endField() {
+        fieldEnds[fieldCount - 1] = length;
+    }
+
+    // Номер строки, с которой начинается текущая запись
+    long lineNumber() {
+        return recordLine;
+    }
+
+    int fieldCount() {
+        return fieldCount;
+    }
+
+    // Запись оборвалась внутри кавычек (например, недописанный хвост журнала)
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    // Пустая строка или строка из одних пробелов
+    boolean isBlankRecord() {
+        if (fieldCount != 1 || quoted) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (!Character.isWhitespace(chars[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean isEmpty(int field) {
+        return field >= fieldCount || fieldStarts[field] == fieldEnds[field];
+    }
+
+    String field(int field) {
+        checkField(field);
+        return new String(chars, fieldStarts[field], fieldEnds[field] - fieldStarts[field]);
+    }
+
+    int intField(int field) {
+        long value = longField(field);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Число вне диапазона int: " + field(field));
+        }
+        return (int) value;
+    }
+
+    // Целое число; пробелы по краям допускаются
+    long longField(int field) {
+        checkField(field);
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        while (start < end && chars[start] == ' ') {
+            start++;
+        }
+        while (end > start && chars[end - 1] == ' ') {
+            end--;
+        }
+        boolean negative = start < end && chars[start] == '-';
+        int i = negative || (start < end && chars[start] == '+') ? start + 1 : start;
+        if (i == end || end - i > 18) {
+            throw new NumberFormatException("Некорректное число: " + field(field));
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Некорректное число: " + field(field));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    // Значение перечисления по имени; сравнение идёт по символам буфера
+    <E extends Enum<E>> E enumField(int field, E[] values) {
+        checkField(field);
+        int start = fieldStarts[field];
+        int fieldLength = fieldEnds[field] - start;
+        for (E value : values) {
+            String name = value.name();
+            if (name.length() == fieldLength && matches(name, start)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестное значение: " + field(field));
+    }
+
+    private boolean matches(String name, int start) {
+        for (int i = 0; i < name.length(); i++) {
+            if (chars[start + i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Время в формате LocalDateTime.toString(); вариант с долями секунды разбирает LocalDateTime.parse
+    LocalDateTime dateTimeField(int field) {
+        checkField(field);
+        int start = fieldStarts[field];
+        int fieldLength = fieldEnds[field] - start;
+        if ((fieldLength == 16 || fieldLength == 19) && chars[start + 4] == '-' && chars[start + 7] == '-'
+                && chars[start + 10] == 'T' && chars[start + 13] == ':'
+                && (fieldLength == 16 || chars[start + 16] == ':')) {
+            int year = digits(start, 4);
+            int month = digits(start + 5, 2);
+            int day = digits(start + 8, 2);
+            int hour = digits(start + 11, 2);
+            int minute = digits(start + 14, 2);
+            int second = fieldLength == 19 ? digits(start + 17, 2) : 0;
+            if (year >= 0 && month >= 0 && day >= 0 && hour >= 0 && minute >= 0 && second >= 0) {
+                return LocalDateTime.of(year, month, day, hour, minute, second);
+            }
+        }
+        return LocalDateTime.parse(field(field));
+    }
+
+    // Неотрицательное число из count цифр или -1
+    private int digits(int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    // Текст записи для сообщений об ошибках (поля через запятую, без кавычек)
+    String recordText() {
+        StringBuilder sb = new StringBuilder(length + fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(chars, fieldStarts[i], fieldEnds[i] - fieldStarts[i]);
+        }
+        return sb.toString();
+    }
+
+    private void checkField(int field) {
+        if (field >= fieldCount) {
+            throw new IllegalArgumentException("Пропущено поле " + (field + 1));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
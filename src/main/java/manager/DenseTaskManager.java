@@ -0,0 +1,27 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+// Менеджер в памяти, который хранит задачи в DenseTaskStore - массиве, индексированном по id, вместо хеш-таблиц.
+// Подходит, когда id выдаёт сам менеджер и они идут подряд: поиск по id - одно чтение из массива,
+// а getTasks/getEpics/getSubtasks - последовательный проход по массиву в порядке id
+public class DenseTaskManager extends InMemoryTaskManager {
+
+    public DenseTaskManager() {
+        this(Managers.getDefaultHistory());
+    }
+
+    public DenseTaskManager(HistoryManager historyManager) {
+        this(new DenseTaskStore(), historyManager);
+    }
+
+    private DenseTaskManager(DenseTaskStore store, HistoryManager historyManager) {
+        super(new DenseTaskMap<>(store, TaskType.TASK, Task.class),
+                new DenseTaskMap<>(store, TaskType.EPIC, Epic.class),
+                new DenseTaskMap<>(store, TaskType.SUBTASK, Subtask.class),
+                historyManager);
+    }
+}
@@ -0,0 +1,212 @@
+package manager;
+
+import model.Task;
+import model.TaskType;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+// Таблица задач одного типа поверх общего DenseTaskStore для InMemoryTaskManager.
+// Обход keySet/values/entrySet идёт по занятым ячейкам в порядке id; remove итератора поддерживается,
+// потому что удаление освобождает ячейку и не сдвигает соседние
+class DenseTaskMap<T extends Task> extends AbstractMap<Integer, T> implements IntTaskStore<T> {
+
+    private final DenseTaskStore store;
+    private final TaskType type;
+    private final Class<T> valueClass;
+
+    DenseTaskMap(DenseTaskStore store, TaskType type, Class<T> valueClass) {
+        this.store = store;
+        this.type = type;
+        this.valueClass = valueClass;
+    }
+
+    @Override
+    public int size() {
+        return store.count(type);
+    }
+
+    @Override
+    public boolean containsKey(int id) {
+        return store.get(id, type) != null;
+    }
+
+    @Override
+    public T get(int id) {
+        return valueClass.cast(store.get(id, type));
+    }
+
+    @Override
+    public T put(int id, T value) {
+        if (value == null) {
+            throw new IllegalArgumentException("DenseTaskMap не хранит значения null.");
+        }
+        return valueClass.cast(store.put(id, type, valueClass.cast(value)));
+    }
+
+    @Override
+    public T remove(int id) {
+        return valueClass.cast(store.remove(id, type));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && containsKey((int) (Integer) key);
+    }
+
+    @Override
+    public T get(Object key) {
+        return key instanceof Integer ? get((int) (Integer) key) : null;
+    }
+
+    @Override
+    public T put(Integer key, T value) {
+        return put((int) key, value);
+    }
+
+    @Override
+    public T remove(Object key) {
+        return key instanceof Integer ? remove((int) (Integer) key) : null;
+    }
+
+    // Обходы идут прямо по битовой карте занятых ячеек, без итератора
+    @Override
+    public void forEachKey(IntConsumer action) {
+        int expected = store.modCount(type);
+        for (int id = store.next(0, type); id >= 0; id = store.next(id + 1, type)) {
+            action.accept(id);
+        }
+        if (store.modCount(type) != expected) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public void forEachValue(Consumer<? super T> action) {
+        int expected = store.modCount(type);
+        for (int id = store.next(0, type); id >= 0; id = store.next(id + 1, type)) {
+            action.accept(valueClass.cast(store.at(id)));
+        }
+        if (store.modCount(type) != expected) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public void clear() {
+        store.clear(type);
+    }
+
+    // Обходит id типа по возрастанию
+    private abstract class IdIterator<E> implements Iterator<E> {
+        private int expected = store.modCount(type);
+        private int next = store.next(0, type);
+        private int current = -1;
+
+        @Override
+        public boolean hasNext() {
+            return next >= 0;
+        }
+
+        @Override
+        public E next() {
+            if (store.modCount(type) != expected) {
+                throw new ConcurrentModificationException();
+            }
+            if (next < 0) {
+                throw new NoSuchElementException();
+            }
+            current = next;
+            next = store.next(current + 1, type);
+            return at(current);
+        }
+
+        @Override
+        public void remove() {
+            if (current < 0) {
+                throw new IllegalStateException();
+            }
+            if (store.modCount(type) != expected) {
+                throw new ConcurrentModificationException();
+            }
+            store.remove(current, type);
+            expected = store.modCount(type);
+            current = -1;
+        }
+
+        abstract E at(int id);
+    }
+
+    @Override
+    public Set<Integer> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Integer> iterator() {
+                return new IdIterator<>() {
+                    @Override
+                    Integer at(int id) {
+                        return id;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return DenseTaskMap.this.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+        };
+    }
+
+    @Override
+    public Collection<T> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new IdIterator<>() {
+                    @Override
+                    T at(int id) {
+                        return valueClass.cast(store.at(id));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return DenseTaskMap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<Integer, T>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Integer, T>> iterator() {
+                return new IdIterator<>() {
+                    @Override
+                    Entry<Integer, T> at(int id) {
+                        return new SimpleImmutableEntry<>(id, valueClass.cast(store.at(id)));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return DenseTaskMap.this.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,156 @@
+package manager;
+
+import model.Task;
+import model.TaskType;
+
+import java.util.Arrays;
+
+// Хранилище задач всех типов в массиве, индексированном прямо по id: менеджер выдаёт id подряд (++idCounter),
+// поэтому поиск - одно чтение из массива без хеширования. Массив разбит на куски по CHUNK_SIZE ячеек и растёт
+// добавлением кусков, без копирования уже занятых. У каждой ячейки есть метка типа (0 - пусто, иначе
+// ordinal + 1), а битовая карта occupied отмечает занятые ячейки: обход по типу пропускает удалённые
+// и неиспользованные id целыми словами по 64 и идёт в порядке id
+class DenseTaskStore {
+
+    static final int CHUNK_BITS = 10;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final TaskType[] TYPES = TaskType.values();
+
+    private Task[][] chunks = new Task[0][];
+    private byte[][] tags = new byte[0][];
+    private long[] occupied = new long[0];
+    private final int[] counts = new int[TYPES.length];
+    // Граница обхода: все занятые id меньше limit
+    private int limit;
+    private int allocatedChunks;
+    // Счётчики изменений по типам: обход задач одного типа не ломается от изменений других
+    private final int[] modCounts = new int[TYPES.length];
+
+    private static byte tag(TaskType type) {
+        return (byte) (type.ordinal() + 1);
+    }
+
+    // Тип задачи с этим id или null, если ячейка пуста
+    TaskType typeOf(int id) {
+        if (id < 0 || id >= limit) {
+            return null;
+        }
+        int tag = tags[id >>> CHUNK_BITS][id & CHUNK_MASK];
+        return tag == 0 ? null : TYPES[tag - 1];
+    }
+
+    Task get(int id, TaskType type) {
+        if (id < 0 || id >= limit) {
+            return null;
+        }
+        int chunk = id >>> CHUNK_BITS;
+        int slot = id & CHUNK_MASK;
+        return tags[chunk][slot] == tag(type) ? chunks[chunk][slot] : null;
+    }
+
+    // Записывает задачу в её ячейку. Ячейку, занятую задачей другого типа, перезаписать нельзя
+    Task put(int id, TaskType type, Task task) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Id задачи не может быть отрицательным: " + id);
+        }
+        ensureCapacity(id);
+        int chunk = id >>> CHUNK_BITS;
+        int slot = id & CHUNK_MASK;
+        byte current = tags[chunk][slot];
+        if (current != 0 && current != tag(type)) {
+            throw new IllegalArgumentException("Id " + id + " уже занят задачей типа " + TYPES[current - 1] + ".");
+        }
+        Task previous = chunks[chunk][slot];
+        chunks[chunk][slot] = task;
+        if (current == 0) {
+            tags[chunk][slot] = tag(type);
+            occupied[id >>> 6] |= 1L << id;
+            counts[type.ordinal()]++;
+            limit = Math.max(limit, id + 1);
+            modCounts[type.ordinal()]++;
+        }
+        return previous;
+    }
+
+    Task remove(int id, TaskType type) {
+        Task previous = get(id, type);
+        if (previous != null) {
+            int chunk = id >>> CHUNK_BITS;
+            int slot = id & CHUNK_MASK;
+            chunks[chunk][slot] = null;
+            tags[chunk][slot] = 0;
+            occupied[id >>> 6] &= ~(1L << id);
+            counts[type.ordinal()]--;
+            modCounts[type.ordinal()]++;
+        }
+        return previous;
+    }
+
+    int count(TaskType type) {
+        return counts[type.ordinal()];
+    }
+
+    // Удаляет все задачи типа одним проходом по занятым ячейкам
+    void clear(TaskType type) {
+        if (counts[type.ordinal()] == 0) {
+            return;
+        }
+        for (int id = next(0, type); id >= 0; id = next(id + 1, type)) {
+            remove(id, type);
+        }
+    }
+
+    // Наименьший занятый задачей типа type id не меньше from или -1
+    int next(int from, TaskType type) {
+        if (from < 0) {
+            from = 0;
+        }
+        byte wanted = tag(type);
+        int word = from >>> 6;
+        if (word >= occupied.length) {
+            return -1;
+        }
+        long bits = occupied[word] & (-1L << from);
+        while (true) {
+            while (bits != 0) {
+                int id = (word << 6) + Long.numberOfTrailingZeros(bits);
+                if (tags[id >>> CHUNK_BITS][id & CHUNK_MASK] == wanted) {
+                    return id;
+                }
+                bits &= bits - 1;
+            }
+            if (++word >= occupied.length || word << 6 >= limit) {
+                return -1;
+            }
+            bits = occupied[word];
+        }
+    }
+
+    Task at(int id) {
+        return chunks[id >>> CHUNK_BITS][id & CHUNK_MASK];
+    }
+
+    int modCount(TaskType type) {
+        return modCounts[type.ordinal()];
+    }
+
+    // Куски выделяются подряд до нужного включительно, поэтому любая ячейка меньше allocatedChunks * CHUNK_SIZE
+    // читается без проверок на null
+    private void ensureCapacity(int id) {
+        int chunk = id >>> CHUNK_BITS;
+        if (chunk < allocatedChunks) {
+            return;
+        }
+        if (chunk >= chunks.length) {
+            int chunkCount = Math.max(chunk + 1, chunks.length * 2);
+            chunks = Arrays.copyOf(chunks, chunkCount);
+            tags = Arrays.copyOf(tags, chunkCount);
+        }
+        for (; allocatedChunks <= chunk; allocatedChunks++) {
+            chunks[allocatedChunks] = new Task[CHUNK_SIZE];
+            tags[allocatedChunks] = new byte[CHUNK_SIZE];
+        }
+        occupied = Arrays.copyOf(occupied, allocatedChunks * (CHUNK_SIZE / 64));
+    }
+}
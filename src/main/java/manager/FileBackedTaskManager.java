@@ -6,50 +6,79 @@ import model.Task;
 import model.TaskStatus;
 import model.TaskType;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.time.DateTimeException;
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 public class FileBackedTaskManager extends InMemoryTaskManager {
 
+    // Примерный размер куска файла, который при параллельной загрузке разбирается одним потоком
+    private static final int PARALLEL_CHUNK_BYTES = 64 * 1024;
+
+    private static final TaskType[] TASK_TYPES = TaskType.values();
+    private static final TaskStatus[] TASK_STATUSES = TaskStatus.values();
+
     private final File file;
 
     public FileBackedTaskManager(File file) {
         this.file = file;
     }
 
+    protected FileBackedTaskManager(File file, IntTaskStore<Task> tasks, IntTaskStore<Epic> epics,
+                                    IntTaskStore<Subtask> subtasks, HistoryManager historyManager) {
+        super(tasks, epics, subtasks, historyManager);
+        this.file = file;
+    }
+
     protected void save() {
-        try (FileWriter writer = new FileWriter(file)) {
-            writer.write("id,type,name,status,description,startTime,duration,epic\n");
+        writeSnapshot(file);
+    }
 
-            for (Task task : getTasks()) {
-                writer.write(taskToString(task) + "\n");
-            }
+    protected void writeSnapshot(File target) {
+        try (FileWriter writer = new FileWriter(target)) {
+            writeSnapshot(writer);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения задач в файл: " + target.getName(), e);
+        }
+    }
 
-            for (Epic epic : getEpics()) {
-                writer.write(taskToString(epic) + "\n");
-            }
+    // CSV-снимок текущего состояния в writer
+    protected void writeSnapshot(Writer writer) throws IOException {
+        writer.write("id,type,name,status,description,startTime,duration,epic\n");
 
-            for (Subtask subtask : getSubtasks()) {
-                writer.write(taskToString(subtask) + "\n");
-            }
+        for (Task task : getTasks()) {
+            writer.write(taskToString(task) + "\n");
+        }
 
-            writer.write("\n");
-            writer.write(historyToString(getHistory()));
-        } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка сохранения задач в файл: " + file.getName(), e);
+        for (Epic epic : getEpics()) {
+            writer.write(taskToString(epic) + "\n");
         }
+
+        for (Subtask subtask : getSubtasks()) {
+            writer.write(taskToString(subtask) + "\n");
+        }
+
+        writer.write("\n");
+        writer.write(historyToString(getHistory()));
     }
 
-    private String taskToString(Task task) {
+    protected String taskToString(Task task) {
         StringBuilder csvLineBuilder = new StringBuilder();
 
         csvLineBuilder.append(task.getId()).append(",");
@@ -61,9 +90,11 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         } else {
             csvLineBuilder.append(TaskType.TASK);
         }
-        csvLineBuilder.append(",").append(task.getName());
+        csvLineBuilder.append(",");
+        appendField(csvLineBuilder, task.getName());
         csvLineBuilder.append(",").append(task.getStatus());
-        csvLineBuilder.append(",").append(task.getDescription());
+        csvLineBuilder.append(",");
+        appendField(csvLineBuilder, task.getDescription());
 
         csvLineBuilder.append(",");
         if (task.getStartTime() != null) {
@@ -86,174 +117,400 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         return csvLineBuilder.toString();
     }
 
+    // Поле по RFC 4180: если в нём есть запятая, кавычка или перевод строки, оно берётся в кавычки,
+    // а кавычки внутри удваиваются
+    private static void appendField(StringBuilder sb, String value) {
+        String text = String.valueOf(value);
+        boolean needsQuotes = false;
+        for (int i = 0; i < text.length() && !needsQuotes; i++) {
+            char c = text.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            sb.append(text);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
     public static FileBackedTaskManager loadFromFile(File file) throws ManagerSaveException {
+        return loadFromFile(file, CsvErrorHandler.PRINT);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, CsvErrorHandler errors) throws ManagerSaveException {
         FileBackedTaskManager manager = new FileBackedTaskManager(file);
-        String historyLine = null;
+        manager.load(errors);
+        return manager;
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, ForkJoinPool pool) throws ManagerSaveException {
+        return loadFromFile(file, pool, CsvErrorHandler.PRINT);
+    }
 
+    // Параллельная загрузка больших файлов. Один проход по байтам находит границы записей (с учётом кавычек)
+    // и пустую строку перед историей, список задач делится по границам записей на куски, и куски разбираются в pool.
+    // Таблицы создаются сразу нужного размера, а статус и время эпиков пересчитываются параллельно.
+    // Ошибки передаются в errors из вызывающего потока и в порядке строк файла
+    public static FileBackedTaskManager loadFromFile(File file, ForkJoinPool pool, CsvErrorHandler errors)
+            throws ManagerSaveException {
         if (!file.exists()) {
-            return manager;
+            return new FileBackedTaskManager(file);
+        }
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка загрузки задач из файла: " + file.getName(), e);
         }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            br.readLine();
+        CsvLayout layout = new CsvLayout(content);
+        ParsedChunk parsed = layout.chunkStarts.isEmpty()
+                ? new ParsedChunk()
+                : pool.invoke(new ParseChunks(content, layout, errors, 0, layout.chunkStarts.size()));
+        for (Runnable error : parsed.errors) {
+            error.run();
+        }
 
-            String line;
-            List<String> taskLines = new ArrayList<>();
-            boolean readingHistory = false;
+        List<Integer> history = new ArrayList<>();
+        try (CsvReader csv = new CsvReader(chunkReader(content, layout.historyStart, content.length),
+                layout.historyLine)) {
+            while (csv.next()) {
+                if (!csv.isBlankRecord()) {
+                    history = readHistory(csv, errors);
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка загрузки задач из файла: " + file.getName(), e);
+        }
 
-            while ((line = br.readLine()) != null) {
-                if (line.isBlank()) {
-                    readingHistory = true;
+        int taskCount = 0;
+        int epicCount = 0;
+        for (Task task : parsed.tasks) {
+            if (task instanceof Epic) {
+                epicCount++;
+            } else if (!(task instanceof Subtask)) {
+                taskCount++;
+            }
+        }
+        int subtaskCount = parsed.tasks.size() - taskCount - epicCount;
+
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, new IntHashMap<>(taskCount),
+                new IntHashMap<>(epicCount), new IntHashMap<>(subtaskCount),
+                Managers.getDefaultHistory());
+        manager.restoreState(parsed.tasks, history, pool);
+        return manager;
+    }
+
+    // Разметка файла: начала кусков списка задач (каждый начинается с новой записи) с номерами их строк,
+    // конец списка задач и начало истории. Поле в кавычках может содержать переводы строк,
+    // поэтому границы записей ищутся с учётом кавычек так же, как их читает CsvReader
+    private static class CsvLayout {
+        final List<Integer> chunkStarts = new ArrayList<>();
+        final List<Long> chunkLines = new ArrayList<>();
+        int bodyEnd;
+        int historyStart;
+        long historyLine;
+
+        CsvLayout(byte[] content) {
+            int length = content.length;
+            int bodyStart = -1;
+            int recordStart = 0;
+            long line = 1;
+            boolean inQuotes = false;
+            boolean fieldStart = true;
+            boolean recordQuoted = false;
+            bodyEnd = length;
+            historyStart = length;
+            for (int i = 0; i < length; i++) {
+                byte b = content[i];
+                boolean crlf = b == '\r' && i + 1 < length && content[i + 1] == '\n';
+                if (inQuotes) {
+                    if (b == '"') {
+                        if (i + 1 < length && content[i + 1] == '"') {
+                            i++;
+                        } else {
+                            inQuotes = false;
+                        }
+                    } else if (b == '\n' || (b == '\r' && !crlf)) {
+                        line++;
+                    }
                     continue;
                 }
-                if (readingHistory) {
-                    historyLine = line;
+                if (b == '"' && fieldStart) {
+                    inQuotes = true;
+                    recordQuoted = true;
+                    fieldStart = false;
+                } else if (b == ',') {
+                    fieldStart = true;
+                } else if (b == '\n' || b == '\r') {
+                    int recordEnd = i;
+                    if (crlf) {
+                        i++;
+                    }
+                    line++;
+                    int next = i + 1;
+                    if (bodyStart < 0) {
+                        bodyStart = next;
+                        addChunk(next, line);
+                    } else if (!recordQuoted && isBlank(content, recordStart, recordEnd)) {
+                        bodyEnd = recordStart;
+                        historyStart = next;
+                        historyLine = line;
+                        break;
+                    } else if (next - chunkStarts.get(chunkStarts.size() - 1) >= PARALLEL_CHUNK_BYTES) {
+                        addChunk(next, line);
+                    }
+                    recordStart = next;
+                    recordQuoted = false;
+                    fieldStart = true;
                 } else {
-                    taskLines.add(line);
+                    fieldStart = false;
                 }
             }
+            if (!chunkStarts.isEmpty() && chunkStarts.get(chunkStarts.size() - 1) >= bodyEnd) {
+                chunkStarts.remove(chunkStarts.size() - 1);
+                chunkLines.remove(chunkLines.size() - 1);
+            }
+        }
 
-            for (String taskLine : taskLines) {
-                Optional<Task> optionalTask = fromString(taskLine);
-                if (optionalTask.isEmpty()) {
-                    System.err.println("Пропущена некорректная строка при загрузке: " + taskLine);
-                    continue;
-                }
-                Task task = optionalTask.get();
+        private void addChunk(int start, long line) {
+            chunkStarts.add(start);
+            chunkLines.add(line);
+        }
 
-                if (task instanceof Epic) {
-                    manager.epics.put(task.getId(), (Epic) task);
-                } else if (task instanceof Subtask) {
-                    manager.subtasks.put(task.getId(), (Subtask) task);
-                } else {
-                    manager.tasks.put(task.getId(), task);
-                }
-                if (task.getId() >= manager.idCounter) {
-                    manager.idCounter = task.getId() + 1;
+        int chunkEnd(int chunk) {
+            return chunk + 1 < chunkStarts.size() ? chunkStarts.get(chunk + 1) : bodyEnd;
+        }
+
+        private static boolean isBlank(byte[] content, int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (content[i] < 0 || !Character.isWhitespace((char) content[i])) {
+                    return false;
                 }
             }
+            return true;
+        }
+    }
 
-            for (Subtask subtask : manager.subtasks.values()) {
-                Epic epic = manager.epics.get(subtask.getEpicId());
-                if (epic != null) {
-                    epic.addSubtaskId(subtask.getId());
-                } else {
-                    System.err.println("Предупреждение при загрузке: Подзадача с ID " + subtask.getId() +
-                            " ссылается на несуществующий эпик с ID " + subtask.getEpicId() +
-                            ". Подзадача не будет привязана к эпику.");
+    // Задачи и отложенные сообщения об ошибках одного или нескольких соседних кусков
+    private static class ParsedChunk {
+        final List<Task> tasks = new ArrayList<>();
+        final List<Runnable> errors = new ArrayList<>();
+    }
+
+    // Разбор кусков [from, to) разметки: диапазон делится пополам, пока не останется один кусок.
+    // RecursiveTask формально Serializable, но задача живёт только внутри ForkJoinPool и никогда не сериализуется
+    @SuppressWarnings("serial")
+    private static class ParseChunks extends RecursiveTask<ParsedChunk> {
+        private final byte[] content;
+        private final CsvLayout layout;
+        private final CsvErrorHandler errors;
+        private final int from;
+        private final int to;
+
+        ParseChunks(byte[] content, CsvLayout layout, CsvErrorHandler errors, int from, int to) {
+            this.content = content;
+            this.layout = layout;
+            this.errors = errors;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ParsedChunk compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                ParseChunks right = new ParseChunks(content, layout, errors, middle, to);
+                right.fork();
+                ParsedChunk result = new ParseChunks(content, layout, errors, from, middle).compute();
+                ParsedChunk rightResult = right.join();
+                result.tasks.addAll(rightResult.tasks);
+                result.errors.addAll(rightResult.errors);
+                return result;
+            }
+            ParsedChunk result = new ParsedChunk();
+            CsvErrorHandler deferred = (lineNumber, line, reason) ->
+                    result.errors.add(() -> errors.onMalformedLine(lineNumber, line, reason));
+            try (CsvReader csv = new CsvReader(chunkReader(content, layout.chunkStarts.get(from), layout.chunkEnd(from)),
+                    layout.chunkLines.get(from))) {
+                while (csv.next()) {
+                    if (!csv.isBlankRecord()) {
+                        readTaskInto(csv, result.tasks, deferred);
+                    }
                 }
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка разбора файла задач", e);
             }
+            return result;
+        }
+    }
 
-            for (Epic epic : manager.epics.values()) {
-                manager.calculateEpicTimesAndStatus(epic);
-            }
+    private static Reader chunkReader(byte[] content, int from, int to) {
+        return new InputStreamReader(new ByteArrayInputStream(content, from, to - from), Charset.defaultCharset());
+    }
 
-            if (historyLine != null && !historyLine.trim().isEmpty()) {
-                List<Integer> idsInHistory = historyFromString(historyLine);
-                for (Integer id : idsInHistory) {
-                    if (manager.tasks.containsKey(id)) {
-                        manager.getTask(id);
-                    } else if (manager.epics.containsKey(id)) {
-                        manager.getEpic(id);
-                    } else if (manager.subtasks.containsKey(id)) {
-                        manager.getSubtask(id);
-                    }
+    protected File getFile() {
+        return file;
+    }
+
+    protected void load() throws ManagerSaveException {
+        load(CsvErrorHandler.PRINT);
+    }
+
+    // Загружает состояние из файла в текущий менеджер. Записи читаются из файла по одной,
+    // некорректные передаются в errors и пропускаются
+    protected void load(CsvErrorHandler errors) throws ManagerSaveException {
+        if (!file.exists()) {
+            return;
+        }
+
+        try (CsvReader csv = new CsvReader(new FileReader(file))) {
+            csv.next();
+
+            List<Task> loadedTasks = new ArrayList<>();
+            List<Integer> history = new ArrayList<>();
+            boolean readingHistory = false;
+
+            while (csv.next()) {
+                if (csv.isBlankRecord()) {
+                    readingHistory = true;
+                    continue;
+                }
+                if (readingHistory) {
+                    history = readHistory(csv, errors);
+                    continue;
                 }
+                readTaskInto(csv, loadedTasks, errors);
             }
 
+            restoreState(loadedTasks, history);
         } catch (IOException e) {
             throw new ManagerSaveException("Ошибка загрузки задач из файла: " + file.getName(), e);
         }
+    }
 
-        return manager;
+    // Раскладывает прочитанные из снимка задачи по таблицам, восстанавливает связи эпиков, расписание и историю.
+    // Общая часть загрузки для всех форматов снимка
+    protected void restoreState(List<Task> loadedTasks, List<Integer> idsInHistory) {
+        restoreState(loadedTasks, idsInHistory, null);
     }
 
-    private static Optional<Task> fromString(String value) {
-        String[] parts = value.split(",");
-        if (parts.length < 5) {
-            System.err.println("Некорректная строка (слишком короткая): " + value);
-            return Optional.empty();
+    // С pool агрегаты эпиков считаются параллельно: каждый пересчёт трогает только свой эпик и читает подзадачи,
+    // а расписание не потокобезопасно, поэтому эпики попадают в него уже после, одним потоком
+    protected void restoreState(List<Task> loadedTasks, List<Integer> idsInHistory, ForkJoinPool pool) {
+        for (Task task : loadedTasks) {
+            if (task instanceof Epic) {
+                epics.put(task.getId(), (Epic) task);
+            } else if (task instanceof Subtask) {
+                subtasks.put(task.getId(), (Subtask) task);
+            } else {
+                tasks.put(task.getId(), task);
+            }
+            if (!(task instanceof Epic) && task.getStartTime() != null && task.getDuration() != null) {
+                addPrioritized(task);
+            }
+            if (task.getId() >= idCounter) {
+                idCounter = task.getId() + 1;
+            }
         }
 
-        try {
-            int id = Integer.parseInt(parts[0]);
-            TaskType type = TaskType.valueOf(parts[1]);
-            String name = parts[2];
-            String statusString = parts[3];
-            String description = parts[4];
-
-            TaskStatus status;
-            try {
-                status = TaskStatus.valueOf(statusString);
-            } catch (IllegalArgumentException e) {
-                System.err.println("Ошибка парсинга статуса в строке: " + value + " - " + e.getMessage());
-                return Optional.empty();
+        subtasks.forEachValue(subtask -> {
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic != null) {
+                epic.addSubtaskId(subtask.getId());
+            } else {
+                System.err.println("Предупреждение при загрузке: Подзадача с ID " + subtask.getId() +
+                        " ссылается на несуществующий эпик с ID " + subtask.getEpicId() +
+                        ". Подзадача не будет привязана к эпику.");
             }
+        });
 
-            LocalDateTime startTime = null;
-            if (parts.length > 5 && !parts[5].isEmpty()) {
-                try {
-                    startTime = LocalDateTime.parse(parts[5]);
-                } catch (DateTimeParseException e) {
-                    System.err.println("Ошибка парсинга времени старта в строке: " + value + " - " + e.getMessage());
-                    return Optional.empty();
-                }
-            }
+        if (pool == null) {
+            epics.forEachValue(this::calculateEpicTimesAndStatus);
+        } else {
+            pool.invoke(ForkJoinTask.adapt(() -> epics.values().parallelStream().forEach(this::rebuildEpicAggregates)));
+            epics.forEachValue(this::addPrioritizedIfTimed);
+        }
 
-            Duration duration = null;
-            if (parts.length > 6 && !parts[6].isEmpty()) {
-                try {
-                    long minutes = Long.parseLong(parts[6]);
-                    duration = Duration.ofMinutes(minutes);
-                } catch (NumberFormatException e) {
-                    System.err.println("Ошибка парсинга длительности в строке: " + value + " - " + e.getMessage());
-                    return Optional.empty();
+        if (!idsInHistory.isEmpty()) {
+            List<Task> history = new ArrayList<>(idsInHistory.size());
+            for (int id : idsInHistory) {
+                if (tasks.containsKey(id)) {
+                    history.add(tasks.get(id));
+                } else if (epics.containsKey(id)) {
+                    history.add(epics.get(id));
+                } else if (subtasks.containsKey(id)) {
+                    history.add(subtasks.get(id));
                 }
             }
+            // История восстанавливается напрямую, а не через getTask/getEpic/getSubtask, которые вызывают save()
+            historyManager.restore(history);
+        }
+    }
 
-            switch (type) {
-                case TASK:
-                    if (parts.length > 7 && !parts[7].isEmpty()) {
-                        System.err.println("Некорректный формат строки для Task: лишние поля или epicId: " + value);
-                        return Optional.empty();
-                    }
-                    return Optional.of(new Task(name, description, id, status, duration, startTime));
-                case EPIC:
-                    if (parts.length > 7 && !parts[7].isEmpty()) {
-                        System.err.println("Некорректный формат строки для Epic: лишние поля или epicId: " + value);
-                        return Optional.empty();
-                    }
-                    return Optional.of(new Epic(name, description, id, status));
-                case SUBTASK:
-                    if (parts.length < 8 || parts[7].isEmpty()) {
-                        System.err.println("Некорректный формат строки для Subtask: отсутствует или пустой epicId: " + value);
-                        return Optional.empty();
-                    }
-                    try {
-                        int epicId = Integer.parseInt(parts[7]);
-                        if (parts.length > 8) {
-                            System.err.println("Некорректный формат строки для Subtask: лишние поля после epicId: " + value);
-                            return Optional.empty();
-                        }
-                        return Optional.of(new Subtask(name, description, id, status, epicId, duration, startTime));
-                    } catch (NumberFormatException e) {
-                        System.err.println("Ошибка парсинга epicId в строке: " + value + " - " + e.getMessage());
-                        return Optional.empty();
-                    }
+    private static void readTaskInto(CsvReader csv, List<Task> target, CsvErrorHandler errors) {
+        try {
+            target.add(readTask(csv, 0));
+        } catch (IllegalArgumentException e) {
+            errors.onMalformedLine(csv.lineNumber(), csv.recordText(), e.getMessage());
+        }
+    }
+
+    // Задача из полей текущей записи начиная с поля first (в журнале LogBackedTaskManager перед задачей стоит
+    // операция). Для некорректной записи бросает IllegalArgumentException с причиной
+    static Task readTask(CsvReader csv, int first) {
+        if (csv.isTruncated()) {
+            throw new IllegalArgumentException("Незакрытая кавычка");
+        }
+        if (csv.fieldCount() - first < 5) {
+            throw new IllegalArgumentException("Слишком короткая строка");
+        }
+        int id = csv.intField(first);
+        TaskType type = csv.enumField(first + 1, TASK_TYPES);
+        String name = csv.field(first + 2);
+        TaskStatus status = csv.enumField(first + 3, TASK_STATUSES);
+        String description = csv.field(first + 4);
+
+        LocalDateTime startTime = null;
+        if (!csv.isEmpty(first + 5)) {
+            try {
+                startTime = csv.dateTimeField(first + 5);
+            } catch (DateTimeException e) {
+                throw new IllegalArgumentException("Ошибка парсинга времени старта: " + e.getMessage(), e);
+            }
+        }
+        Duration duration = csv.isEmpty(first + 6) ? null : Duration.ofMinutes(csv.longField(first + 6));
+
+        switch (type) {
+            case EPIC:
+                checkNoExtraFields(csv, first + 7, "Epic");
+                return new Epic(name, description, id, status);
+            case SUBTASK:
+                if (csv.isEmpty(first + 7)) {
+                    throw new IllegalArgumentException("Отсутствует или пустой epicId у подзадачи");
+                }
+                int epicId = csv.intField(first + 7);
+                checkNoExtraFields(csv, first + 8, "Subtask");
+                return new Subtask(name, description, id, status, epicId, duration, startTime);
+            default:
+                checkNoExtraFields(csv, first + 7, "Task");
+                return new Task(name, description, id, status, duration, startTime);
+        }
+    }
 
-                default:
-                    System.err.println("Неизвестный тип задачи: " + type + " в строке: " + value);
-                    return Optional.empty();
+    private static void checkNoExtraFields(CsvReader csv, int from, String typeName) {
+        for (int i = from; i < csv.fieldCount(); i++) {
+            if (!csv.isEmpty(i)) {
+                throw new IllegalArgumentException("Лишние поля для " + typeName);
             }
-        } catch (NumberFormatException e) {
-            System.err.println("Ошибка парсинга числовых полей в строке: " + value + " - " + e.getMessage());
-            return Optional.empty();
-        } catch (IllegalArgumentException e) {
-            System.err.println("Ошибка парсинга типа или статуса задачи в строке: " + value + " - " + e.getMessage());
-            return Optional.empty();
-        } catch (ArrayIndexOutOfBoundsException e) {
-            System.err.println("Некорректный формат строки: пропущены поля: " + value + " - " + e.getMessage());
-            return Optional.empty();
         }
     }
 
@@ -268,17 +525,16 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         return sb.toString();
     }
 
-    private static List<Integer> historyFromString(String value) {
-        List<Integer> ids = new ArrayList<>();
-        if (value == null || value.trim().isEmpty()) {
-            return ids;
-        }
-        String[] idStrings = value.split(",");
-        for (String idStr : idStrings) {
+    private static List<Integer> readHistory(CsvReader csv, CsvErrorHandler errors) {
+        List<Integer> ids = new ArrayList<>(csv.fieldCount());
+        for (int i = 0; i < csv.fieldCount(); i++) {
+            if (csv.isEmpty(i)) {
+                continue;
+            }
             try {
-                ids.add(Integer.parseInt(idStr.trim()));
+                ids.add(csv.intField(i));
             } catch (NumberFormatException e) {
-                System.err.println("Ошибка парсинга ID в строке истории: " + idStr + " - " + e.getMessage());
+                errors.onMalformedLine(csv.lineNumber(), csv.recordText(), "Ошибка парсинга ID в истории: " + e.getMessage());
             }
         }
         return ids;
@@ -309,6 +565,20 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         return id;
     }
 
+    // Пакет сохраняется один раз, а не после каждого элемента
+    @Override
+    public List<Integer> createAll(Collection<? extends Task> items) {
+        List<Integer> ids = super.createAll(items);
+        save();
+        return ids;
+    }
+
+    @Override
+    public void updateAll(Collection<? extends Task> items) {
+        super.updateAll(items);
+        save();
+    }
+
     @Override
     public void updateTask(Task task) {
         super.updateTask(task);
@@ -366,21 +636,27 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     @Override
     public Task getTask(int id) {
         Task task = super.getTask(id);
-        save();
+        if (task != null) {
+            save();
+        }
         return task;
     }
 
     @Override
     public Epic getEpic(int id) {
         Epic epic = super.getEpic(id);
-        save();
+        if (epic != null) {
+            save();
+        }
         return epic;
     }
 
     @Override
     public Subtask getSubtask(int id) {
         Subtask subtask = super.getSubtask(id);
-        save();
+        if (subtask != null) {
+            save();
+        }
         return subtask;
     }
 }
\ No newline at end of file
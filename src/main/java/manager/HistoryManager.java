@@ -12,5 +12,11 @@ public interface HistoryManager {
 
     List<Task> getHistory();
 
+    // Последние limit просмотров в том же порядке, что и getHistory(): копируются только они
+    List<Task> getHistory(int limit);
+
     void removeAll();
+
+    // Заменяет историю задачами в указанном порядке (от самого старого просмотра к последнему), без побочных эффектов
+    void restore(List<Task> history);
 }
\ No newline at end of file
@@ -0,0 +1,179 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Истории просмотров отдельных клиентов (сессий) поверх одного менеджера задач. У каждой сессии своя
+// ограниченная история (sessionCapacity записей). Сессия, к которой не обращались дольше idleTimeoutMillis,
+// удаляется. Если во всех сессиях вместе больше maxTotalEntries записей, удаляются сессии, к которым дольше
+// всего не обращались. Сессии хранятся в LinkedHashMap в порядке обращений, поэтому кандидаты на удаление
+// всегда в начале и проверка стоит O(1) на каждую удалённую сессию.
+// Удалённые из менеджера задачи убираются из истории сессии при её чтении.
+// Под монитором выполняется только учёт сессий и их историй; обращения к менеджеру задач в getHistory идут
+// без него, чтобы медленный менеджер не останавливал запись просмотров других клиентов
+public class HistorySessions {
+
+    public static final int DEFAULT_SESSION_CAPACITY = 100;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    public static final int DEFAULT_MAX_TOTAL_ENTRIES = 100_000;
+
+    private final int sessionCapacity;
+    private final long idleTimeoutMillis;
+    private final int maxTotalEntries;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    private int totalEntries;
+
+    private static class Session {
+        private final InMemoryHistoryManager history;
+        private long lastAccess;
+
+        Session(int capacity) {
+            this.history = new InMemoryHistoryManager(capacity);
+        }
+    }
+
+    public HistorySessions() {
+        this(DEFAULT_SESSION_CAPACITY, DEFAULT_IDLE_TIMEOUT_MILLIS, DEFAULT_MAX_TOTAL_ENTRIES);
+    }
+
+    public HistorySessions(int sessionCapacity, long idleTimeoutMillis, int maxTotalEntries) {
+        this(sessionCapacity, idleTimeoutMillis, maxTotalEntries, System::currentTimeMillis);
+    }
+
+    HistorySessions(int sessionCapacity, long idleTimeoutMillis, int maxTotalEntries, LongSupplier clock) {
+        if (sessionCapacity <= 0 || idleTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Размер истории сессии и время простоя должны быть положительными.");
+        }
+        if (maxTotalEntries < sessionCapacity) {
+            throw new IllegalArgumentException("Общий лимит записей (" + maxTotalEntries
+                    + ") не может быть меньше размера истории одной сессии (" + sessionCapacity + ").");
+        }
+        this.sessionCapacity = sessionCapacity;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxTotalEntries = maxTotalEntries;
+        this.clock = clock;
+    }
+
+    // Записывает просмотр задачи в историю сессии, при необходимости создавая её
+    public synchronized void record(String sessionKey, Task task) {
+        if (task == null) {
+            return;
+        }
+        long now = clock.getAsLong();
+        evictIdle(now);
+        Session session = sessions.get(sessionKey);
+        if (session == null) {
+            session = new Session(sessionCapacity);
+            sessions.put(sessionKey, session);
+        }
+        session.lastAccess = now;
+        int before = session.history.size();
+        session.history.add(task);
+        totalEntries += session.history.size() - before;
+        evictOverQuota();
+    }
+
+    // Последние limit просмотров сессии в актуальном виде: задачи перечитываются из менеджера без записи
+    // в его историю, удалённые выбрасываются. Чтение истории несуществующей сессии её не создаёт
+    public List<Task> getHistory(String sessionKey, TaskManager taskManager, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Количество записей истории не может быть отрицательным: " + limit);
+        }
+        Session session;
+        List<Task> viewed;
+        synchronized (this) {
+            long now = clock.getAsLong();
+            evictIdle(now);
+            session = sessions.get(sessionKey);
+            if (session == null) {
+                return new ArrayList<>();
+            }
+            session.lastAccess = now;
+            viewed = session.history.getHistory();
+        }
+
+        List<Task> current = new ArrayList<>(viewed.size());
+        List<Integer> deletedIds = new ArrayList<>();
+        for (Task task : viewed) {
+            Task latest = peek(taskManager, task);
+            if (latest == null) {
+                deletedIds.add(task.getId());
+            } else {
+                current.add(latest);
+            }
+        }
+        if (!deletedIds.isEmpty()) {
+            forget(sessionKey, session, deletedIds);
+        }
+        return current.size() > limit ? new ArrayList<>(current.subList(current.size() - limit, current.size())) : current;
+    }
+
+    // Сессию могли удалить или вытеснить, пока менеджер перечитывал задачи: её записи тогда уже сняты с учёта
+    private synchronized void forget(String sessionKey, Session session, List<Integer> deletedIds) {
+        if (sessions.get(sessionKey) != session) {
+            return;
+        }
+        int before = session.history.size();
+        for (int id : deletedIds) {
+            session.history.remove(id);
+        }
+        totalEntries -= before - session.history.size();
+    }
+
+    private static Task peek(TaskManager taskManager, Task viewed) {
+        if (viewed instanceof Epic) {
+            return taskManager.peekEpic(viewed.getId());
+        }
+        if (viewed instanceof Subtask) {
+            return taskManager.peekSubtask(viewed.getId());
+        }
+        return taskManager.peekTask(viewed.getId());
+    }
+
+    public synchronized void removeSession(String sessionKey) {
+        Session session = sessions.remove(sessionKey);
+        if (session != null) {
+            totalEntries -= session.history.size();
+        }
+    }
+
+    public synchronized int getSessionCount() {
+        return sessions.size();
+    }
+
+    public synchronized int getTotalEntries() {
+        return totalEntries;
+    }
+
+    private void evictIdle(long now) {
+        Iterator<Session> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            Session session = iterator.next();
+            if (now - session.lastAccess < idleTimeoutMillis) {
+                break;
+            }
+            totalEntries -= session.history.size();
+            iterator.remove();
+        }
+    }
+
+    // Текущая сессия всегда последняя в порядке обращений и одна в лимит укладывается, поэтому не удаляется
+    private void evictOverQuota() {
+        Iterator<Map.Entry<String, Session>> iterator = sessions.entrySet().iterator();
+        while (totalEntries > maxTotalEntries) {
+            Session session = iterator.next().getValue();
+            totalEntries -= session.history.size();
+            iterator.remove();
+        }
+    }
+}
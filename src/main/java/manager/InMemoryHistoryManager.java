@@ -2,89 +2,252 @@ package manager;
 
 import model.Task;
 
-import java.util.List;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
-
+import java.util.Arrays;
+import java.util.List;
 
+// История просмотров на массивах. Каждая задача занимает ячейку (slot): в tasks лежит сама задача, в prev/next -
+// номера соседних ячеек двусвязного списка (от самого старого просмотра к последнему), освободившиеся ячейки
+// собираются в список через next. Номер ячейки по id ищется в таблице с открытой адресацией (keys/slotsById,
+// линейное пробирование, удаление сдвигом без "надгробий"). Повторный просмотр только перецепляет ячейку в конец,
+// поэтому в установившемся режиме add и remove ничего не выделяют; память берётся только при росте массивов.
+// С ограничением capacity при добавлении сверх лимита за O(1) вытесняется самый старый просмотр,
+// и его ячейка сразу достаётся новой задаче
 public class InMemoryHistoryManager implements HistoryManager {
-    private final Map<Integer, Node> nodeMap = new HashMap<>();
-    private Node head;
-    private Node tail;
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private static final int INITIAL_SLOTS = 16;
+    private static final int NONE = -1;
 
-    private static class Node {
-        private Task task;
-        private Node prev;
-        private Node next;
+    private final int capacity;
 
-        Node(Task task) {
-            this.task = task;
-            this.prev = null;
-            this.next = null;
+    private Task[] tasks;
+    private int[] prev;
+    private int[] next;
+    private int usedSlots;
+    private int freeSlot;
+    private int head;
+    private int tail;
+    private int size;
+
+    private int[] keys;
+    private int[] slotsById;
+    private int mask;
+
+    public InMemoryHistoryManager() {
+        this(UNBOUNDED);
+    }
+
+    public InMemoryHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер истории должен быть положительным: " + capacity);
         }
+        this.capacity = capacity;
+        reset();
     }
 
-    private void linkLast(Node node) {
-        if (head == null) {
-            head = node;
-            tail = node;
-        } else {
-            tail.next = node;
-            node.prev = tail;
-            tail = node;
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void reset() {
+        int slotCount = Math.min(capacity, INITIAL_SLOTS);
+        tasks = new Task[slotCount];
+        prev = new int[slotCount];
+        next = new int[slotCount];
+        usedSlots = 0;
+        freeSlot = NONE;
+        head = NONE;
+        tail = NONE;
+        size = 0;
+        allocateTable(slotCount);
+    }
+
+    // Таблица заполнена не больше чем наполовину: её длина - степень двойки не меньше удвоенного числа ячеек
+    private void allocateTable(int slotCount) {
+        int length = Integer.highestOneBit(Math.max(2, slotCount * 2 - 1)) << 1;
+        keys = new int[length];
+        slotsById = new int[length];
+        Arrays.fill(slotsById, NONE);
+        mask = length - 1;
+    }
+
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int findSlot(int id) {
+        for (int i = hash(id) & mask; slotsById[i] != NONE; i = (i + 1) & mask) {
+            if (keys[i] == id) {
+                return slotsById[i];
+            }
+        }
+        return NONE;
+    }
+
+    private void putSlot(int id, int slot) {
+        int i = hash(id) & mask;
+        while (slotsById[i] != NONE) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = id;
+        slotsById[i] = slot;
+    }
+
+    // Удаляет id из таблицы, сдвигая назад следующие за ним записи той же цепочки пробирования
+    private int removeSlot(int id) {
+        int i = hash(id) & mask;
+        while (slotsById[i] != NONE && keys[i] != id) {
+            i = (i + 1) & mask;
         }
+        int slot = slotsById[i];
+        if (slot == NONE) {
+            return NONE;
+        }
+        slotsById[i] = NONE;
+        for (int j = (i + 1) & mask; slotsById[j] != NONE; j = (j + 1) & mask) {
+            int home = hash(keys[j]) & mask;
+            boolean staysInPlace = i <= j ? (home > i && home <= j) : (home > i || home <= j);
+            if (!staysInPlace) {
+                keys[i] = keys[j];
+                slotsById[i] = slotsById[j];
+                slotsById[j] = NONE;
+                i = j;
+            }
+        }
+        return slot;
     }
 
-    private void removeNode(Node node) {
-        if (node.prev != null) {
-            node.prev.next = node.next;
+    private void linkLast(int slot) {
+        prev[slot] = tail;
+        next[slot] = NONE;
+        if (tail == NONE) {
+            head = slot;
         } else {
-            head = node.next;
+            next[tail] = slot;
         }
+        tail = slot;
+    }
 
-        if (node.next != null) {
-            node.next.prev = node.prev;
+    private void unlink(int slot) {
+        if (prev[slot] != NONE) {
+            next[prev[slot]] = next[slot];
         } else {
-            tail = node.prev;
+            head = next[slot];
+        }
+        if (next[slot] != NONE) {
+            prev[next[slot]] = prev[slot];
+        } else {
+            tail = prev[slot];
+        }
+    }
+
+    // Свободная ячейка: из списка освободившихся, следующая неиспользованная или новая после роста массивов
+    private int takeFreeSlot() {
+        if (freeSlot != NONE) {
+            int slot = freeSlot;
+            freeSlot = next[slot];
+            return slot;
+        }
+        if (usedSlots == tasks.length) {
+            grow();
+        }
+        return usedSlots++;
+    }
+
+    private void grow() {
+        int slotCount = (int) Math.min((long) capacity, tasks.length * 2L);
+        tasks = Arrays.copyOf(tasks, slotCount);
+        prev = Arrays.copyOf(prev, slotCount);
+        next = Arrays.copyOf(next, slotCount);
+        allocateTable(slotCount);
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            putSlot(tasks[slot].getId(), slot);
         }
-        node.prev = null;
-        node.next = null;
     }
 
     @Override
     public void add(Task task) {
         if (task == null) return;
-        if (nodeMap.containsKey(task.getId())) {
-            removeNode(nodeMap.get(task.getId()));
+        int id = task.getId();
+        int slot = findSlot(id);
+        if (slot != NONE) {
+            tasks[slot] = task;
+            if (slot != tail) {
+                unlink(slot);
+                linkLast(slot);
+            }
+            return;
         }
-        Node node = new Node(task);
-        linkLast(node);
-        nodeMap.put(task.getId(), node);
+        if (size == capacity) {
+            slot = head;
+            removeSlot(tasks[slot].getId());
+            unlink(slot);
+        } else {
+            slot = takeFreeSlot();
+            size++;
+        }
+        tasks[slot] = task;
+        linkLast(slot);
+        putSlot(id, slot);
     }
 
     @Override
     public void remove(int id) {
-        if (nodeMap.containsKey(id)) {
-            removeNode(nodeMap.remove(id));
+        int slot = removeSlot(id);
+        if (slot == NONE) {
+            return;
         }
+        unlink(slot);
+        tasks[slot] = null;
+        next[slot] = freeSlot;
+        freeSlot = slot;
+        size--;
     }
 
     @Override
     public List<Task> getHistory() {
-        List<Task> historyList = new ArrayList<>();
-        Node current = head;
-        while (current != null) {
-            historyList.add(current.task);
-            current = current.next;
+        List<Task> historyList = new ArrayList<>(size);
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            historyList.add(tasks[slot]);
+        }
+        return historyList;
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Количество записей истории не может быть отрицательным: " + limit);
+        }
+        int count = Math.min(limit, size);
+        List<Task> historyList = new ArrayList<>(count);
+        int slot = tail;
+        for (int i = 1; i < count; i++) {
+            slot = prev[slot];
+        }
+        for (int i = 0; i < count; i++) {
+            historyList.add(tasks[slot]);
+            slot = next[slot];
         }
         return historyList;
     }
 
+    @Override
+    public void restore(List<Task> history) {
+        removeAll();
+        for (Task task : history) {
+            add(task);
+        }
+    }
+
+    // Массивы возвращаются к начальному размеру, чтобы очищенная история не держала память
     @Override
     public void removeAll() {
-        nodeMap.clear();
-        head = null;
-        tail = null;
+        reset();
     }
-}
\ No newline at end of file
+}
@@ -3,21 +3,22 @@ package manager;
 import model.Epic;
 import model.Subtask;
 import model.Task;
-import model.TaskStatus;
+import model.TaskType;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
 
 
 public class InMemoryTaskManager implements TaskManager {
 
-    protected final Map<Integer, Task> tasks;
-    protected final Map<Integer, Epic> epics;
-    protected final Map<Integer, Subtask> subtasks;
+    protected final IntTaskStore<Task> tasks;
+    protected final IntTaskStore<Epic> epics;
+    protected final IntTaskStore<Subtask> subtasks;
     protected int idCounter;
     protected final HistoryManager historyManager;
-    protected final Set<Task> prioritizedTasks;
+    protected final PrioritizedTasks prioritizedTasks;
+    protected final IntervalIndex intervalIndex;
 
 
     public HistoryManager getHistoryManager() {
@@ -25,14 +26,23 @@ public class InMemoryTaskManager implements TaskManager {
     }
 
     public InMemoryTaskManager() {
-        this.tasks = new HashMap<>();
-        this.epics = new HashMap<>();
-        this.subtasks = new HashMap<>();
+        this(new IntHashMap<>(), new IntHashMap<>(), new IntHashMap<>(), Managers.getDefaultHistory());
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager) {
+        this(new IntHashMap<>(), new IntHashMap<>(), new IntHashMap<>(), historyManager);
+    }
+
+    // Для наследников, которым нужны другие реализации хранилищ (например, потокобезопасные)
+    protected InMemoryTaskManager(IntTaskStore<Task> tasks, IntTaskStore<Epic> epics, IntTaskStore<Subtask> subtasks,
+                                  HistoryManager historyManager) {
+        this.tasks = tasks;
+        this.epics = epics;
+        this.subtasks = subtasks;
         this.idCounter = 0;
-        this.historyManager = Managers.getDefaultHistory();
-        this.prioritizedTasks = new TreeSet<>(
-                Comparator.comparing(Task::getStartTime, Comparator.nullsLast(LocalDateTime::compareTo))
-                        .thenComparingInt(Task::getId));
+        this.historyManager = historyManager;
+        this.prioritizedTasks = new PrioritizedTasks();
+        this.intervalIndex = new IntervalIndex();
     }
 
 
@@ -51,7 +61,7 @@ public class InMemoryTaskManager implements TaskManager {
         task.setId(id);
         tasks.put(id, task);
         if (task.getStartTime() != null && task.getDuration() != null) {
-            prioritizedTasks.add(task);
+            addPrioritized(task);
         }
         return id;
     }
@@ -89,10 +99,10 @@ public class InMemoryTaskManager implements TaskManager {
         Epic epic = epics.get(subtask.getEpicId());
         epic.addSubtaskId(id);
 
-        calculateEpicTimesAndStatus(epic);
+        trackEpicSubtask(epic, subtask);
 
         if (subtask.getStartTime() != null && subtask.getDuration() != null) {
-            prioritizedTasks.add(subtask);
+            addPrioritized(subtask);
         }
 
         return id;
@@ -107,20 +117,20 @@ public class InMemoryTaskManager implements TaskManager {
 
         boolean wasInPrioritized = false;
         if (existingTask.getStartTime() != null && existingTask.getDuration() != null) {
-            wasInPrioritized = prioritizedTasks.remove(existingTask);
+            wasInPrioritized = removePrioritized(existingTask);
         }
 
         if (task.getStartTime() != null && task.getDuration() != null) {
             if (hasIntersections(task)) {
                 if (wasInPrioritized) {
-                    prioritizedTasks.add(existingTask);
+                    addPrioritized(existingTask);
                 }
                 throw new ManagerSaveException("Обновление задачи приведет к пересечению интервалов выполнения.");
             }
         }
 
         if (task.getStartTime() != null && task.getDuration() != null) {
-            prioritizedTasks.add(task);
+            addPrioritized(task);
         }
 
         tasks.put(task.getId(), task);
@@ -149,42 +159,266 @@ public class InMemoryTaskManager implements TaskManager {
 
         boolean wasInPrioritized = false;
         if (existingSubtask.getStartTime() != null && existingSubtask.getDuration() != null) {
-            wasInPrioritized = prioritizedTasks.remove(existingSubtask);
+            wasInPrioritized = removePrioritized(existingSubtask);
         }
 
         if (subtask.getStartTime() != null && subtask.getDuration() != null) {
             if (hasIntersections(subtask)) {
                 if (wasInPrioritized) {
-                    prioritizedTasks.add(existingSubtask);
+                    addPrioritized(existingSubtask);
                 }
                 throw new ManagerSaveException("Обновление подзадачи приведет к пересечению интервалов выполнения.");
             }
         }
 
         if (subtask.getStartTime() != null && subtask.getDuration() != null) {
-            prioritizedTasks.add(subtask);
+            addPrioritized(subtask);
         }
 
         subtasks.put(subtask.getId(), subtask);
 
+        if (existingSubtask.getEpicId() != subtask.getEpicId()) {
+            Epic previousEpic = epics.get(existingSubtask.getEpicId());
+            if (previousEpic != null) {
+                previousEpic.removeSubtaskId(subtask.getId());
+                untrackEpicSubtask(previousEpic, subtask.getId());
+            }
+            epics.get(subtask.getEpicId()).addSubtaskId(subtask.getId());
+        }
+
         Epic epic = epics.get(subtask.getEpicId());
-        calculateEpicTimesAndStatus(epic);
+        trackEpicSubtask(epic, subtask);
     }
 
 
+    // Создаёт задачи, эпики и подзадачи одной операцией и возвращает их id в порядке пакета.
+    // Подзадача может ссылаться на эпик из того же пакета по его временному id (id, выставленный эпику
+    // до вызова; он важнее существующего эпика с тем же id), иначе - на уже существующий эпик.
+    // Сначала проверяется весь пакет, и при любой ошибке менеджер не меняется, а BatchException перечисляет
+    // ошибки по элементам. Затем элементы добавляются, а каждый затронутый эпик пересчитывается один раз
+    @Override
+    public List<Integer> createAll(Collection<? extends Task> items) {
+        List<Task> batch = batchOf(items);
+        List<BatchException.ItemError> errors = new ArrayList<>();
+        Map<Integer, Epic> batchEpics = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Task item = batch.get(i);
+            if (item instanceof Epic && item.getId() != 0 && batchEpics.putIfAbsent(item.getId(), (Epic) item) != null) {
+                errors.add(new BatchException.ItemError(i, item, "Временный id эпика " + item.getId() + " повторяется в пакете."));
+            }
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Task item = batch.get(i);
+            if (item == null) {
+                errors.add(new BatchException.ItemError(i, null, "Элемент пакета null."));
+            } else if (item instanceof Subtask) {
+                int epicId = ((Subtask) item).getEpicId();
+                if (!batchEpics.containsKey(epicId) && !epics.containsKey(epicId)) {
+                    errors.add(new BatchException.ItemError(i, item, "Эпик " + epicId + " не найден ни в пакете, ни в менеджере."));
+                }
+            }
+        }
+        // Правило то же, что в hasIntersections: подзадача не сравнивается со временем своего эпика
+        checkBatchIntervals(batch, i -> {
+            Task item = batch.get(i);
+            if (!(item instanceof Subtask) || batchEpics.containsKey(((Subtask) item).getEpicId())) {
+                return NOTHING_IGNORED;
+            }
+            int epicId = ((Subtask) item).getEpicId();
+            return ignoredForSubtask(0, epicId, epicId);
+        }, errors);
+        if (!errors.isEmpty()) {
+            throw new BatchException(errors);
+        }
+
+        List<Integer> ids = new ArrayList<>(batch.size());
+        for (Task item : batch) {
+            int id = generateId();
+            item.setId(id);
+            ids.add(id);
+        }
+        Map<Integer, Epic> affectedEpics = new LinkedHashMap<>();
+        for (Task item : batch) {
+            if (item instanceof Epic) {
+                epics.put(item.getId(), (Epic) item);
+            } else if (item instanceof Subtask) {
+                Subtask subtask = (Subtask) item;
+                Epic epic = batchEpics.getOrDefault(subtask.getEpicId(), epics.get(subtask.getEpicId()));
+                subtask.setEpicId(epic.getId());
+                subtasks.put(subtask.getId(), subtask);
+                epic.addSubtaskId(subtask.getId());
+                affectedEpics.put(epic.getId(), epic);
+                if (isTimed(subtask)) {
+                    addPrioritized(subtask);
+                }
+            } else {
+                tasks.put(item.getId(), item);
+                if (isTimed(item)) {
+                    addPrioritized(item);
+                }
+            }
+        }
+        for (Epic epic : affectedEpics.values()) {
+            calculateEpicTimesAndStatus(epic);
+        }
+        return ids;
+    }
+
+    // Обновляет задачи, эпики (имя и описание) и подзадачи одной операцией по тем же правилам, что и createAll.
+    // Старые интервалы элементов пакета на время проверки вынимаются из расписания и возвращаются при ошибке
+    @Override
+    public void updateAll(Collection<? extends Task> items) {
+        List<Task> batch = batchOf(items);
+        List<BatchException.ItemError> errors = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Task item = batch.get(i);
+            if (item == null) {
+                errors.add(new BatchException.ItemError(i, null, "Элемент пакета null."));
+            } else if (!seen.add(item.getId())) {
+                errors.add(new BatchException.ItemError(i, item, "Id " + item.getId() + " повторяется в пакете."));
+            } else if (storedVersionOf(item) == null) {
+                errors.add(new BatchException.ItemError(i, item, "Элемент с id " + item.getId() + " не найден."));
+            } else if (item instanceof Subtask && !epics.containsKey(((Subtask) item).getEpicId())) {
+                errors.add(new BatchException.ItemError(i, item, "Эпик " + ((Subtask) item).getEpicId() + " не найден."));
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new BatchException(errors);
+        }
+
+        List<Task> unscheduled = new ArrayList<>();
+        for (Task item : batch) {
+            if (item instanceof Epic) {
+                continue;
+            }
+            unschedule(storedVersionOf(item), unscheduled);
+        }
+        // Правило то же, что в hasIntersections: подзадача не сравнивается со временем своих эпиков (прежнего и нового)
+        checkBatchIntervals(batch, i -> {
+            Task item = batch.get(i);
+            if (!(item instanceof Subtask)) {
+                return NOTHING_IGNORED;
+            }
+            return ignoredForSubtask(item.getId(), ((Subtask) item).getEpicId(),
+                    ((Subtask) storedVersionOf(item)).getEpicId());
+        }, errors);
+        if (!errors.isEmpty()) {
+            unscheduled.forEach(this::addPrioritized);
+            throw new BatchException(errors);
+        }
+
+        Map<Integer, Epic> affectedEpics = new LinkedHashMap<>();
+        for (Task item : batch) {
+            if (item instanceof Epic) {
+                Epic existingEpic = epics.get(item.getId());
+                existingEpic.setName(item.getName());
+                existingEpic.setDescription(item.getDescription());
+            } else if (item instanceof Subtask) {
+                Subtask subtask = (Subtask) item;
+                Subtask existingSubtask = subtasks.put(subtask.getId(), subtask);
+                Epic epic = epics.get(subtask.getEpicId());
+                if (existingSubtask.getEpicId() != subtask.getEpicId()) {
+                    Epic previousEpic = epics.get(existingSubtask.getEpicId());
+                    if (previousEpic != null) {
+                        previousEpic.removeSubtaskId(subtask.getId());
+                        affectedEpics.put(previousEpic.getId(), previousEpic);
+                    }
+                    epic.addSubtaskId(subtask.getId());
+                }
+                affectedEpics.put(epic.getId(), epic);
+                if (isTimed(subtask)) {
+                    addPrioritized(subtask);
+                }
+            } else {
+                tasks.put(item.getId(), item);
+                if (isTimed(item)) {
+                    addPrioritized(item);
+                }
+            }
+        }
+        for (Epic epic : affectedEpics.values()) {
+            calculateEpicTimesAndStatus(epic);
+        }
+    }
+
+    private static List<Task> batchOf(Collection<? extends Task> items) {
+        if (items == null) {
+            throw new IllegalArgumentException("Ошибка: Пакет не может быть null.");
+        }
+        return new ArrayList<>(items);
+    }
+
+    private static boolean isTimed(Task task) {
+        return task != null && task.getStartTime() != null && task.getDuration() != null;
+    }
+
+    // Снимает задачу с расписания на время проверки пакета и запоминает её, чтобы вернуть при ошибке
+    private void unschedule(Task task, List<Task> unscheduled) {
+        if (isTimed(task) && removePrioritized(task)) {
+            unscheduled.add(task);
+        }
+    }
+
+    // Сохранённая версия элемента того же типа или null
+    private Task storedVersionOf(Task item) {
+        if (item instanceof Epic) {
+            return epics.get(item.getId());
+        }
+        if (item instanceof Subtask) {
+            return subtasks.get(item.getId());
+        }
+        return tasks.get(item.getId());
+    }
+
+    // Интервалы задач и подзадач пакета сортируются по началу и проверяются одним проходом друг с другом
+    // (пересечение с любым более ранним элементом видно по максимальному концу среди них), а с расписанием -
+    // запросом к intervalIndex без id, которые принимает ignoredIds(i). Время эпиков вычисляется из подзадач,
+    // поэтому эпики пакета не проверяются
+    private void checkBatchIntervals(List<Task> batch, IntFunction<IntPredicate> ignoredIds,
+                                     List<BatchException.ItemError> errors) {
+        List<Integer> timed = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Task item = batch.get(i);
+            if (!(item instanceof Epic) && isTimed(item)) {
+                timed.add(i);
+                if (intervalIndex.overlaps(item.getStartTime(), item.getEndTime(), ignoredIds.apply(i))) {
+                    errors.add(new BatchException.ItemError(i, item, "Интервал пересекается с уже запланированной задачей."));
+                }
+            }
+        }
+        timed.sort(Comparator.comparing((Integer i) -> batch.get(i).getStartTime()).thenComparingInt(i -> i));
+        int latest = -1;
+        for (int i : timed) {
+            Task item = batch.get(i);
+            if (latest >= 0 && item.getStartTime().isBefore(batch.get(latest).getEndTime())) {
+                errors.add(new BatchException.ItemError(i, item, "Интервал пересекается с элементом пакета #" + latest + "."));
+            }
+            if (latest < 0 || item.getEndTime().isAfter(batch.get(latest).getEndTime())) {
+                latest = i;
+            }
+        }
+    }
+
     @Override
     public List<Task> getTasks() {
-        return new ArrayList<>(tasks.values());
+        List<Task> result = new ArrayList<>(tasks.size());
+        tasks.forEachValue(result::add);
+        return result;
     }
 
     @Override
     public List<Epic> getEpics() {
-        return new ArrayList<>(epics.values());
+        List<Epic> result = new ArrayList<>(epics.size());
+        epics.forEachValue(result::add);
+        return result;
     }
 
     @Override
     public List<Subtask> getSubtasks() {
-        return new ArrayList<>(subtasks.values());
+        List<Subtask> result = new ArrayList<>(subtasks.size());
+        subtasks.forEachValue(result::add);
+        return result;
     }
 
     @Override
@@ -214,12 +448,42 @@ public class InMemoryTaskManager implements TaskManager {
         return subtask;
     }
 
+    @Override
+    public Task peekTask(int id) {
+        return tasks.get(id);
+    }
+
+    @Override
+    public Epic peekEpic(int id) {
+        return epics.get(id);
+    }
+
+    @Override
+    public Subtask peekSubtask(int id) {
+        return subtasks.get(id);
+    }
+
+    @Override
+    public boolean containsTask(int id) {
+        return tasks.containsKey(id);
+    }
+
+    @Override
+    public boolean containsEpic(int id) {
+        return epics.containsKey(id);
+    }
+
+    @Override
+    public boolean containsSubtask(int id) {
+        return subtasks.containsKey(id);
+    }
+
     @Override
     public void deleteTask(int id) {
         Task task = tasks.remove(id);
         if (task != null) {
             if (task.getStartTime() != null && task.getDuration() != null) {
-                prioritizedTasks.remove(task);
+                removePrioritized(task);
             }
             historyManager.remove(id);
         }
@@ -229,12 +493,23 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteEpic(int id) {
         Epic epic = epics.remove(id);
         if (epic != null) {
-            for (int subtaskId : new ArrayList<>(epic.getSubtaskIds())) {
-                deleteSubtask(subtaskId);
+            if (isTimed(epic)) {
+                removePrioritized(epic);
             }
-            if (epic.getStartTime() != null && epic.getDuration() != null) {
-                prioritizedTasks.remove(epic);
+            // Эпик удаляется целиком, поэтому его подзадачи снимаются одним проходом, без deleteSubtask
+            // и пересчёта эпика после каждой: O(k log n) для k подзадач
+            for (PrimitiveIterator.OfInt ids = epic.subtaskIdIterator(); ids.hasNext(); ) {
+                int subtaskId = ids.nextInt();
+                Subtask subtask = subtasks.remove(subtaskId);
+                if (subtask != null) {
+                    if (isTimed(subtask)) {
+                        removePrioritized(subtask);
+                    }
+                    historyManager.remove(subtaskId);
+                }
             }
+            // Удалённый эпик, который ещё держат вызывающие, не должен перечислять несуществующие подзадачи
+            epic.clearSubtaskIds();
             historyManager.remove(id);
         }
     }
@@ -244,156 +519,138 @@ public class InMemoryTaskManager implements TaskManager {
         Subtask subtask = subtasks.remove(id);
         if (subtask != null) {
             if (subtask.getStartTime() != null && subtask.getDuration() != null) {
-                prioritizedTasks.remove(subtask);
+                removePrioritized(subtask);
             }
             Epic epic = epics.get(subtask.getEpicId());
             if (epic != null) {
                 epic.removeSubtaskId(id);
-                calculateEpicTimesAndStatus(epic);
-                prioritizedTasks.remove(epic);
-                if (epic.getStartTime() != null && epic.getDuration() != null) {
-                    prioritizedTasks.add(epic);
-                }
+                untrackEpicSubtask(epic, id);
             }
             historyManager.remove(id);
         }
     }
 
 
+    // Как и в deleteTask, задачи снимаются из истории только после удаления из таблицы: просмотр, гонящийся
+    // с удалением, иначе мог бы вернуть задачу в историю
     @Override
     public void removeAllTasks() {
-        for (Integer taskId : new ArrayList<>(tasks.keySet())) {
+        int[] taskIds = keysOf(tasks);
+        tasks.clear();
+        prioritizedTasks.clear(TaskType.TASK);
+        for (int taskId : taskIds) {
+            intervalIndex.remove(taskId);
             historyManager.remove(taskId);
         }
-        tasks.clear();
-        prioritizedTasks.removeIf(task -> task instanceof Task && !(task instanceof Epic) && !(task instanceof Subtask));
     }
 
     @Override
     public void removeAllEpics() {
-        Set<Integer> idsToRemoveFromHistory = new HashSet<>();
-        for (Epic epic : epics.values()) {
-            idsToRemoveFromHistory.add(epic.getId());
-            for (int subtaskId : new ArrayList<>(epic.getSubtaskIds())) {
-                Subtask subtask = subtasks.get(subtaskId);
-                if (subtask != null) {
-                    if (subtask.getStartTime() != null && subtask.getDuration() != null) {
-                        prioritizedTasks.remove(subtask);
-                    }
-                    historyManager.remove(subtaskId);
-                    subtasks.remove(subtaskId);
-                }
-            }
-            if (epic.getStartTime() != null && epic.getDuration() != null) {
-                prioritizedTasks.remove(epic);
-            }
+        // Подзадачи без эпика не существуют, поэтому уходят все; расписание эпиков и подзадач очищается целиком
+        int[] subtaskIds = keysOf(subtasks);
+        int[] epicIds = keysOf(epics);
+        prioritizedTasks.clear(TaskType.SUBTASK);
+        prioritizedTasks.clear(TaskType.EPIC);
+        subtasks.clear();
+        epics.clear();
+        for (int subtaskId : subtaskIds) {
+            intervalIndex.remove(subtaskId);
+            historyManager.remove(subtaskId);
         }
-
-        for (Integer id : idsToRemoveFromHistory) {
-            historyManager.remove(id);
+        for (int epicId : epicIds) {
+            intervalIndex.remove(epicId);
+            historyManager.remove(epicId);
         }
-        epics.clear();
-        prioritizedTasks.removeIf(task -> task instanceof Subtask || task instanceof Epic);
-        subtasks.clear();
     }
 
     @Override
     public void removeAllSubtasks() {
-        Set<Integer> epicIdsToUpdate = new HashSet<>();
-        for (Subtask subtask : subtasks.values()) {
-            epicIdsToUpdate.add(subtask.getEpicId());
-        }
-
-        Set<Integer> subtaskIdsToRemoveFromHistory = new HashSet<>(subtasks.keySet());
+        // Список эпика очищается при первой встреченной подзадаче, поэтому каждый эпик попадает в affectedEpics один раз
+        List<Epic> affectedEpics = new ArrayList<>();
+        subtasks.forEachValue(subtask -> {
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic != null && epic.hasSubtaskId(subtask.getId())) {
+                epic.clearSubtaskIds();
+                affectedEpics.add(epic);
+            }
+        });
+        int[] subtaskIds = keysOf(subtasks);
 
         subtasks.clear();
-        prioritizedTasks.removeIf(task -> task instanceof Subtask);
-
-        for (int epicId : epicIdsToUpdate) {
-            Epic epic = epics.get(epicId);
-            if (epic != null) {
-                epic.getSubtaskIds().clear();
-                calculateEpicTimesAndStatus(epic);
-                prioritizedTasks.remove(epic);
-                if (epic.getStartTime() != null && epic.getDuration() != null) {
-                    prioritizedTasks.add(epic);
-                }
-            }
-        }
-        for (Integer subtaskId : subtaskIdsToRemoveFromHistory) {
+        prioritizedTasks.clear(TaskType.SUBTASK);
+        for (int subtaskId : subtaskIds) {
+            intervalIndex.remove(subtaskId);
             historyManager.remove(subtaskId);
         }
+
+        for (Epic epic : affectedEpics) {
+            calculateEpicTimesAndStatus(epic);
+        }
     }
 
 
+    // Ключи хранилища одним массивом; задачи, добавленные во время обхода, не попадают
+    private static int[] keysOf(IntTaskStore<?> store) {
+        int[] ids = new int[store.size()];
+        int[] count = new int[1];
+        store.forEachKey(id -> {
+            if (count[0] < ids.length) {
+                ids[count[0]++] = id;
+            }
+        });
+        return count[0] == ids.length ? ids : Arrays.copyOf(ids, count[0]);
+    }
+
     @Override
     public List<Task> getHistory() {
         return historyManager.getHistory();
     }
 
+    @Override
+    public List<Task> getHistory(int limit) {
+        return historyManager.getHistory(limit);
+    }
+
+    // Полный пересчёт эпика по всем его подзадачам. Нужен, когда агрегаты строятся с нуля (загрузка, массовое удаление),
+    // а при изменении одной подзадачи используются trackEpicSubtask и untrackEpicSubtask
     protected void calculateEpicTimesAndStatus(Epic epic) {
         if (epic == null) {
             return;
         }
 
-        List<Integer> subtaskIds = epic.getSubtaskIds();
-        if (subtaskIds.isEmpty()) {
-            epic.setStatus(TaskStatus.NEW);
-            epic.setCalculatedDuration(Duration.ZERO);
-            epic.setCalculatedStartTime(null);
-            epic.setEndTime(null);
-            prioritizedTasks.remove(epic);
-            return;
-        }
-
-        boolean allNew = true;
-        boolean allDone = true;
-        LocalDateTime earliestStartTime = null;
-        LocalDateTime latestEndTime = null;
-        Duration totalDuration = Duration.ZERO;
-
+        removePrioritized(epic);
+        rebuildEpicAggregates(epic);
+        addPrioritizedIfTimed(epic);
+    }
 
-        for (int subtaskId : subtaskIds) {
-            Subtask subtask = subtasks.get(subtaskId);
+    // Пересчёт статуса и времени эпика без изменения расписания. Читает только сам эпик и его подзадачи,
+    // поэтому для разных эпиков может выполняться параллельно
+    protected void rebuildEpicAggregates(Epic epic) {
+        epic.clearTrackedSubtasks();
+        for (PrimitiveIterator.OfInt ids = epic.subtaskIdIterator(); ids.hasNext(); ) {
+            Subtask subtask = subtasks.get(ids.nextInt());
             if (subtask != null) {
-                if (subtask.getStatus() != TaskStatus.NEW) {
-                    allNew = false;
-                }
-                if (subtask.getStatus() != TaskStatus.DONE) {
-                    allDone = false;
-                }
-
-                if (subtask.getStartTime() != null && subtask.getDuration() != null) {
-                    if (earliestStartTime == null || subtask.getStartTime().isBefore(earliestStartTime)) {
-                        earliestStartTime = subtask.getStartTime();
-                    }
-                    LocalDateTime subtaskEndTime = subtask.getEndTime();
-                    if (latestEndTime == null || subtaskEndTime.isAfter(latestEndTime)) {
-                        latestEndTime = subtaskEndTime;
-                    }
-                    totalDuration = totalDuration.plus(subtask.getDuration());
-                } else if (subtask.getDuration() != null) {
-                    totalDuration = totalDuration.plus(subtask.getDuration());
-                }
+                epic.trackSubtask(subtask);
             }
         }
+    }
 
-        if (allNew) {
-            epic.setStatus(TaskStatus.NEW);
-        } else if (allDone) {
-            epic.setStatus(TaskStatus.DONE);
-        } else {
-            epic.setStatus(TaskStatus.IN_PROGRESS);
-        }
-
-        epic.setCalculatedDuration(totalDuration);
-        epic.setCalculatedStartTime(earliestStartTime);
-        epic.setEndTime(latestEndTime);
+    // Эпик убирается из prioritizedTasks до изменения времени начала, иначе TreeSet не найдёт его по новому ключу
+    protected void trackEpicSubtask(Epic epic, Subtask subtask) {
+        removePrioritized(epic);
+        epic.trackSubtask(subtask);
+        addPrioritizedIfTimed(epic);
+    }
 
+    protected void untrackEpicSubtask(Epic epic, int subtaskId) {
+        removePrioritized(epic);
+        epic.untrackSubtask(subtaskId);
+        addPrioritizedIfTimed(epic);
+    }
 
-        prioritizedTasks.remove(epic);
+    protected void addPrioritizedIfTimed(Epic epic) {
         if (epic.getStartTime() != null && epic.getDuration() != null) {
-            prioritizedTasks.add(epic);
+            addPrioritized(epic);
         }
     }
 
@@ -402,34 +659,39 @@ public class InMemoryTaskManager implements TaskManager {
         return ++idCounter;
     }
 
+    // Подзадача не пересекается со временем своего эпика (и прежнего эпика при переносе): оно вычисляется
+    // из её же подзадач и будет пересчитано. Задача сравнивается со всем расписанием, кроме себя самой
     protected boolean hasIntersections(Task newTask) {
 
         if (newTask.getStartTime() == null || newTask.getDuration() == null) {
             return false;
         }
 
-        LocalDateTime newStart = newTask.getStartTime();
-        LocalDateTime newEnd = newTask.getEndTime();
-
-        for (Task existingTask : prioritizedTasks) {
-
-            if (newTask.getId() != 0 && newTask.getId() == existingTask.getId()) {
-                continue;
-            }
+        if (newTask instanceof Subtask) {
+            Subtask subtask = (Subtask) newTask;
+            Subtask stored = subtask.getId() != 0 ? subtasks.get(subtask.getId()) : null;
+            int previousEpicId = stored != null ? stored.getEpicId() : subtask.getEpicId();
+            return intervalIndex.overlaps(newTask.getStartTime(), newTask.getEndTime(),
+                    ignoredForSubtask(subtask.getId(), subtask.getEpicId(), previousEpicId));
+        }
+        return intervalIndex.overlaps(newTask.getStartTime(), newTask.getEndTime(), newTask.getId());
+    }
 
-            if (existingTask.getStartTime() == null || existingTask.getDuration() == null) {
-                continue;
-            }
+    private static final IntPredicate NOTHING_IGNORED = id -> false;
 
-            LocalDateTime existingStart = existingTask.getStartTime();
-            LocalDateTime existingEnd = existingTask.getEndTime();
+    private static IntPredicate ignoredForSubtask(int subtaskId, int epicId, int previousEpicId) {
+        return id -> (subtaskId != 0 && id == subtaskId) || id == epicId || id == previousEpicId;
+    }
 
-            if (newStart.isBefore(existingEnd) && existingStart.isBefore(newEnd)) {
-                return true;
-            }
-        }
+    // prioritizedTasks и intervalIndex всегда меняются вместе, поэтому все вставки и удаления идут через эти методы
+    protected void addPrioritized(Task task) {
+        prioritizedTasks.add(task);
+        intervalIndex.add(task);
+    }
 
-        return false;
+    protected boolean removePrioritized(Task task) {
+        intervalIndex.remove(task.getId());
+        return prioritizedTasks.remove(task);
     }
 
     @Override
@@ -444,9 +706,9 @@ public class InMemoryTaskManager implements TaskManager {
             return new ArrayList<>();
         }
 
-        List<Subtask> epicSubtasks = new ArrayList<>();
-        for (int subtaskId : epic.getSubtaskIds()) {
-            Subtask subtask = subtasks.get(subtaskId);
+        List<Subtask> epicSubtasks = new ArrayList<>(epic.getSubtaskIds().size());
+        for (PrimitiveIterator.OfInt ids = epic.subtaskIdIterator(); ids.hasNext(); ) {
+            Subtask subtask = subtasks.get(ids.nextInt());
             if (subtask != null) {
                 epicSubtasks.add(subtask);
             }
@@ -0,0 +1,373 @@
+package manager;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+// Таблица int -> объект с открытой адресацией для хранилищ задач. Ключи лежат в int[], значения - в Object[],
+// поэтому на запись не приходится ни узла, ни Integer. Пустая ячейка - null в values (значения null не хранятся),
+// поиск - линейное пробирование, удаление - сдвиг следующих записей цепочки назад, как в InMemoryHistoryManager.
+// get/put/remove/containsKey с int и forEachValue не выделяют память; методы Map с Integer распаковывают ключ.
+// Итераторы представлений не поддерживают remove: удалять нужно через саму таблицу
+class IntHashMap<V> extends AbstractMap<Integer, V> implements IntTaskStore<V> {
+
+    static final int DEFAULT_INITIAL_CAPACITY = 16;
+    static final float DEFAULT_LOAD_FACTOR = 0.5f;
+
+    private final float loadFactor;
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int threshold;
+    private int size;
+    private int modCount;
+
+    private Set<Integer> keySet;
+    private Collection<V> valuesView;
+    private Set<Entry<Integer, V>> entrySet;
+
+    IntHashMap() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    IntHashMap(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    // initialCapacity - сколько записей поместится без роста таблицы
+    IntHashMap(int initialCapacity, float loadFactor) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Начальная ёмкость не может быть отрицательной: " + initialCapacity);
+        }
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("Коэффициент заполнения должен быть в интервале (0, 1): " + loadFactor);
+        }
+        this.loadFactor = loadFactor;
+        allocate(tableLength(initialCapacity));
+    }
+
+    private int tableLength(int capacity) {
+        long needed = Math.max(2L, (long) Math.ceil(capacity / (double) loadFactor) + 1);
+        if (needed > 1 << 30) {
+            throw new IllegalArgumentException("Слишком большая ёмкость таблицы: " + capacity);
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    private void allocate(int length) {
+        keys = new int[length];
+        values = new Object[length];
+        mask = length - 1;
+        threshold = Math.min(length - 1, (int) (length * loadFactor));
+    }
+
+    // Как у HashMap для Integer: id задач выдаются подряд, поэтому попадают в соседние ячейки без коллизий,
+    // а пока таблица длиннее наибольшего id, обход идёт в порядке id
+    private static int hash(int key) {
+        return key ^ (key >>> 16);
+    }
+
+    private int indexOf(int key) {
+        for (int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int i = indexOf(key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("IntHashMap не хранит значения null.");
+        }
+        int i = hash(key) & mask;
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        modCount++;
+        if (++size > threshold) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        V previous = (V) values[i];
+        values[i] = null;
+        for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+            int home = hash(keys[j]) & mask;
+            boolean staysInPlace = i <= j ? (home > i && home <= j) : (home > i || home <= j);
+            if (!staysInPlace) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                values[j] = null;
+                i = j;
+            }
+        }
+        size--;
+        modCount++;
+        return previous;
+    }
+
+    private void rehash(int length) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(length);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int j = hash(oldKeys[i]) & mask;
+                while (values[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    @Override
+    public void forEachKey(IntConsumer action) {
+        int expected = modCount;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                action.accept(keys[i]);
+            }
+        }
+        if (modCount != expected) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    // Обход значений без итератора и упаковки ключей
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        int expected = modCount;
+        for (Object value : values) {
+            if (value != null) {
+                action.accept((V) value);
+            }
+        }
+        if (modCount != expected) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer ? get((int) (Integer) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && containsKey((int) (Integer) key);
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        return put((int) key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Integer ? remove((int) (Integer) key) : null;
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(values, null);
+            size = 0;
+            modCount++;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super Integer, ? super V> action) {
+        int expected = modCount;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                action.accept(keys[i], (V) values[i]);
+            }
+        }
+        if (modCount != expected) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    // Обходит занятые ячейки по порядку
+    private abstract class SlotIterator<T> implements Iterator<T> {
+        private final int expected = modCount;
+        private int next = advance(0);
+
+        private int advance(int from) {
+            while (from < values.length && values[from] == null) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expected) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int slot = next;
+            next = advance(slot + 1);
+            return at(slot);
+        }
+
+        abstract T at(int slot);
+    }
+
+    @Override
+    public Set<Integer> keySet() {
+        if (keySet == null) {
+            keySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Integer> iterator() {
+                    return new SlotIterator<>() {
+                        @Override
+                        Integer at(int slot) {
+                            return keys[slot];
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return containsKey(o);
+                }
+
+                @Override
+                public boolean remove(Object o) {
+                    return IntHashMap.this.remove(o) != null;
+                }
+
+                @Override
+                public void clear() {
+                    IntHashMap.this.clear();
+                }
+            };
+        }
+        return keySet;
+    }
+
+    @Override
+    public Collection<V> values() {
+        if (valuesView == null) {
+            valuesView = new AbstractCollection<>() {
+                @Override
+                public Iterator<V> iterator() {
+                    return new SlotIterator<>() {
+                        @Override
+                        @SuppressWarnings("unchecked")
+                        V at(int slot) {
+                            return (V) values[slot];
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public void forEach(Consumer<? super V> action) {
+                    forEachValue(action);
+                }
+
+                @Override
+                public void clear() {
+                    IntHashMap.this.clear();
+                }
+            };
+        }
+        return valuesView;
+    }
+
+    @Override
+    public Set<Entry<Integer, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Integer, V>> iterator() {
+                    return new SlotIterator<>() {
+                        @Override
+                        @SuppressWarnings("unchecked")
+                        Entry<Integer, V> at(int slot) {
+                            return new SimpleImmutableEntry<>(keys[slot], (V) values[slot]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public void clear() {
+                    IntHashMap.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+}
@@ -0,0 +1,24 @@
+package manager;
+
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+// Хранилище задач одного типа для InMemoryTaskManager: Map<Integer, V> плюс методы с ключом int.
+// Менеджер вызывает только методы с int и обходы forEachKey/forEachValue, поэтому реализации на примитивных
+// массивах (IntHashMap, DenseTaskMap) работают без упаковки id и без итераторов. Значения null не хранятся
+interface IntTaskStore<V> extends Map<Integer, V> {
+
+    V get(int id);
+
+    V put(int id, V value);
+
+    V remove(int id);
+
+    boolean containsKey(int id);
+
+    // Обходы не допускают изменения хранилища из action
+    void forEachKey(IntConsumer action);
+
+    void forEachValue(Consumer<? super V> action);
+}
@@ -0,0 +1,197 @@
+package manager;
+
+import model.Task;
+
+import java.time.LocalDateTime;
+import java.util.function.IntPredicate;
+
+// Индекс интервалов выполнения [startTime, endTime) для проверки пересечений.
+// Это AVL-дерево по (startTime, id), где каждый узел помнит максимальный endTime своего поддерева,
+// поэтому вопрос "пересекается ли интервал с чем-нибудь, кроме задачи X" решается за O(log n), а не перебором.
+class IntervalIndex {
+    private final IntHashMap<Node> nodesById = new IntHashMap<>();
+    private Node root;
+
+    private static class Node {
+        private final int id;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private LocalDateTime maxEnd;
+        private int height;
+        private Node left;
+        private Node right;
+
+        Node(int id, LocalDateTime start, LocalDateTime end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+            this.height = 1;
+        }
+    }
+
+    // Добавляет (или переиндексирует) задачу. Задачи без времени начала или окончания в индекс не попадают.
+    void add(Task task) {
+        remove(task.getId());
+        LocalDateTime start = task.getStartTime();
+        LocalDateTime end = task.getEndTime();
+        if (start == null || end == null) {
+            return;
+        }
+        Node node = new Node(task.getId(), start, end);
+        root = insert(root, node);
+        nodesById.put(node.id, node);
+    }
+
+    void remove(int id) {
+        Node node = nodesById.remove(id);
+        if (node != null) {
+            root = delete(root, node);
+        }
+    }
+
+    // Есть ли в индексе интервал, пересекающийся с [start, end), кроме задачи excludeId (0 - не исключать ничего)
+    boolean overlaps(LocalDateTime start, LocalDateTime end, int excludeId) {
+        return overlaps(root, start, end, excludeId, null);
+    }
+
+    // То же, но пропускаются все интервалы, id которых принимает excluded
+    boolean overlaps(LocalDateTime start, LocalDateTime end, IntPredicate excluded) {
+        return overlaps(root, start, end, 0, excluded);
+    }
+
+    boolean contains(int id) {
+        return nodesById.containsKey(id);
+    }
+
+    int size() {
+        return nodesById.size();
+    }
+
+    void clear() {
+        nodesById.clear();
+        root = null;
+    }
+
+    private boolean overlaps(Node node, LocalDateTime start, LocalDateTime end, int excludeId, IntPredicate excluded) {
+        if (node == null || !node.maxEnd.isAfter(start)) {
+            return false;
+        }
+        if (overlaps(node.left, start, end, excludeId, excluded)) {
+            return true;
+        }
+        if (!node.start.isBefore(end)) {
+            // Справа только интервалы, которые начинаются не раньше node.start, а значит не раньше end
+            return false;
+        }
+        if (start.isBefore(node.end) && (excludeId == 0 || node.id != excludeId)
+                && (excluded == null || !excluded.test(node.id))) {
+            return true;
+        }
+        return overlaps(node.right, start, end, excludeId, excluded);
+    }
+
+    private static int compare(Node a, Node b) {
+        int byStart = a.start.compareTo(b.start);
+        return byStart != 0 ? byStart : Integer.compare(a.id, b.id);
+    }
+
+    private Node insert(Node current, Node node) {
+        if (current == null) {
+            return node;
+        }
+        if (compare(node, current) < 0) {
+            current.left = insert(current.left, node);
+        } else {
+            current.right = insert(current.right, node);
+        }
+        return rebalance(current);
+    }
+
+    private Node delete(Node current, Node node) {
+        if (current == null) {
+            return null;
+        }
+        int cmp = compare(node, current);
+        if (cmp < 0) {
+            current.left = delete(current.left, node);
+        } else if (cmp > 0) {
+            current.right = delete(current.right, node);
+        } else {
+            if (current.left == null) {
+                return current.right;
+            }
+            if (current.right == null) {
+                return current.left;
+            }
+            Node successor = current.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(current.right);
+            successor.left = current.left;
+            current = successor;
+        }
+        return rebalance(current);
+    }
+
+    private Node deleteMin(Node current) {
+        if (current.left == null) {
+            return current.right;
+        }
+        current.left = deleteMin(current.left);
+        return rebalance(current);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(Node node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        LocalDateTime maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private Node rebalance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+}
@@ -0,0 +1,457 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Менеджер с журналом операций: каждое изменение дописывает в конец журнала одну короткую строку,
+// поэтому стоимость записи не зависит от количества задач. Раз в compactionThreshold записей
+// состояние целиком сбрасывается в CSV-снимок (тот же формат, что у FileBackedTaskManager), а журнал очищается.
+// При запуске загружается снимок, а затем поверх него проигрывается хвост журнала.
+// Каждая операция сбрасывает запись в файл (flush), но не ждёт записи на диск: журнал переживает падение процесса,
+// а при сбое питания или ОС могут потеряться последние записи. На диск (fsync) журнал сбрасывается в close()
+// и перед очисткой в compact().
+public class LogBackedTaskManager extends FileBackedTaskManager implements AutoCloseable {
+
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+
+    private static final String CREATE = "CREATE";
+    private static final String UPDATE = "UPDATE";
+    private static final String DELETE = "DELETE";
+    private static final String REMOVE_ALL = "REMOVE_ALL";
+    private static final String VIEW = "VIEW";
+
+    private final File snapshotFile;
+    private final File logFile;
+    private final int compactionThreshold;
+    private FileOutputStream logStream;
+    private Writer logWriter;
+    private int recordsSinceSnapshot;
+    private boolean replaying;
+    // Эпики, которых коснулось проигрывание журнала; пересчитываются один раз после него
+    private final Set<Integer> replayedEpicIds = new LinkedHashSet<>();
+
+    public LogBackedTaskManager(File snapshotFile, File logFile, int compactionThreshold) {
+        super(snapshotFile);
+        if (compactionThreshold <= 0) {
+            throw new IllegalArgumentException("Порог сжатия журнала должен быть положительным: " + compactionThreshold);
+        }
+        this.snapshotFile = snapshotFile;
+        this.logFile = logFile;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    public LogBackedTaskManager(File snapshotFile, File logFile) {
+        this(snapshotFile, logFile, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    public static LogBackedTaskManager loadFromFiles(File snapshotFile, File logFile) throws ManagerSaveException {
+        return loadFromFiles(snapshotFile, logFile, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    public static LogBackedTaskManager loadFromFiles(File snapshotFile, File logFile, int compactionThreshold)
+            throws ManagerSaveException {
+        return loadFromFiles(snapshotFile, logFile, compactionThreshold, CsvErrorHandler.PRINT);
+    }
+
+    // Некорректные строки снимка и записи журнала передаются в errors и пропускаются
+    public static LogBackedTaskManager loadFromFiles(File snapshotFile, File logFile, int compactionThreshold,
+                                                     CsvErrorHandler errors) throws ManagerSaveException {
+        LogBackedTaskManager manager = new LogBackedTaskManager(snapshotFile, logFile, compactionThreshold);
+        manager.replaying = true;
+        try {
+            manager.load(errors);
+            manager.replayLog(errors);
+        } finally {
+            manager.replaying = false;
+        }
+        return manager;
+    }
+
+    // Полная перезапись файла больше не нужна: изменения уже лежат в журнале
+    @Override
+    protected void save() {
+    }
+
+    // Сбрасывает текущее состояние в снимок и очищает журнал
+    public void compact() {
+        File tempFile = new File(snapshotFile.getPath() + ".tmp");
+        writeSnapshot(tempFile);
+        try {
+            try {
+                Files.move(tempFile.toPath(), snapshotFile.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            closeLogWriter();
+            new FileWriter(logFile).close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сжатия журнала в снимок: " + snapshotFile.getName(), e);
+        }
+        recordsSinceSnapshot = 0;
+    }
+
+    @Override
+    public void close() {
+        try {
+            closeLogWriter();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка закрытия журнала: " + logFile.getName(), e);
+        }
+    }
+
+    private void closeLogWriter() throws IOException {
+        if (logWriter != null) {
+            try {
+                logWriter.flush();
+                logStream.getFD().sync();
+            } finally {
+                logWriter.close();
+                logWriter = null;
+                logStream = null;
+            }
+        }
+    }
+
+    private void append(String record) {
+        appendAll(List.of(record));
+    }
+
+    // Записи пакета дописываются подряд с одним flush
+    private void appendAll(List<String> records) {
+        if (replaying || records.isEmpty()) {
+            return;
+        }
+        try {
+            if (logWriter == null) {
+                logStream = new FileOutputStream(logFile, true);
+                logWriter = new BufferedWriter(new OutputStreamWriter(logStream));
+            }
+            for (String record : records) {
+                logWriter.write(record);
+                logWriter.write('\n');
+            }
+            logWriter.flush();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка записи в журнал: " + logFile.getName(), e);
+        }
+        recordsSinceSnapshot += records.size();
+        if (recordsSinceSnapshot >= compactionThreshold) {
+            compact();
+        }
+    }
+
+    // Записи журнала идемпотентны (создание и обновление - это "записать задачу целиком", удаление отсутствующей
+    // задачи ничего не делает), поэтому повторное проигрывание уже попавших в снимок записей не портит состояние.
+    // Журнал хранит уже принятые изменения, поэтому записи не проходят проверки create*/update* (пересечения
+    // интервалов, существование задачи), а кладутся прямо в таблицы и расписание. Некорректные записи передаются
+    // в errors. Запись читается как CSV: название или описание задачи в кавычках может занимать несколько строк
+    private void replayLog(CsvErrorHandler errors) {
+        if (!logFile.exists()) {
+            return;
+        }
+        try (CsvReader csv = new CsvReader(new FileReader(logFile))) {
+            while (csv.next()) {
+                if (csv.isBlankRecord()) {
+                    continue;
+                }
+                try {
+                    replay(csv);
+                } catch (IllegalArgumentException e) {
+                    errors.onMalformedLine(csv.lineNumber(), csv.recordText(), e.getMessage());
+                }
+                recordsSinceSnapshot++;
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения журнала: " + logFile.getName(), e);
+        }
+        for (int epicId : replayedEpicIds) {
+            calculateEpicTimesAndStatus(epics.get(epicId));
+        }
+        replayedEpicIds.clear();
+    }
+
+    private void replay(CsvReader record) {
+        if (record.fieldCount() < 2) {
+            throw new IllegalArgumentException("нет разделителя");
+        }
+        if (record.isTruncated()) {
+            throw new IllegalArgumentException("запись оборвана");
+        }
+        String operation = record.field(0);
+
+        switch (operation) {
+            case CREATE:
+            case UPDATE:
+                replayPut(readTask(record, 1));
+                break;
+            case DELETE:
+                replayDelete(record.intField(1));
+                break;
+            case REMOVE_ALL:
+                replayRemoveAll(record.enumField(1, TaskType.values()));
+                break;
+            case VIEW:
+                replayView(record.intField(1));
+                break;
+            default:
+                throw new IllegalArgumentException("неизвестная операция " + operation);
+        }
+    }
+
+    // Время и статус эпика здесь не пересчитываются: эпик попадает в replayedEpicIds и пересчитывается после журнала
+    private void replayPut(Task task) {
+        int id = task.getId();
+        if (task instanceof Epic) {
+            Epic existingEpic = epics.get(id);
+            if (existingEpic != null) {
+                existingEpic.setName(task.getName());
+                existingEpic.setDescription(task.getDescription());
+            } else {
+                epics.put(id, (Epic) task);
+            }
+            replayedEpicIds.add(id);
+        } else if (task instanceof Subtask) {
+            Subtask subtask = (Subtask) task;
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic == null) {
+                throw new IllegalArgumentException("подзадача ссылается на несуществующий эпик " + subtask.getEpicId());
+            }
+            Subtask existingSubtask = subtasks.put(id, subtask);
+            if (existingSubtask != null) {
+                unscheduleReplaced(existingSubtask);
+                Epic previousEpic = epics.get(existingSubtask.getEpicId());
+                if (previousEpic != null && existingSubtask.getEpicId() != subtask.getEpicId()) {
+                    previousEpic.removeSubtaskId(id);
+                    replayedEpicIds.add(previousEpic.getId());
+                }
+            }
+            epic.addSubtaskId(id);
+            replayedEpicIds.add(epic.getId());
+            scheduleReplayed(subtask);
+        } else {
+            Task existingTask = tasks.put(id, task);
+            if (existingTask != null) {
+                unscheduleReplaced(existingTask);
+            }
+            scheduleReplayed(task);
+        }
+        idCounter = Math.max(idCounter, id);
+    }
+
+    private void unscheduleReplaced(Task task) {
+        if (task.getStartTime() != null && task.getDuration() != null) {
+            removePrioritized(task);
+        }
+    }
+
+    private void scheduleReplayed(Task task) {
+        if (task.getStartTime() != null && task.getDuration() != null) {
+            addPrioritized(task);
+        }
+    }
+
+    private void replayDelete(int id) {
+        if (tasks.containsKey(id)) {
+            super.deleteTask(id);
+        } else if (epics.containsKey(id)) {
+            super.deleteEpic(id);
+        } else if (subtasks.containsKey(id)) {
+            Subtask subtask = subtasks.remove(id);
+            unscheduleReplaced(subtask);
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic != null) {
+                epic.removeSubtaskId(id);
+                replayedEpicIds.add(epic.getId());
+            }
+            historyManager.remove(id);
+        }
+    }
+
+    private void replayRemoveAll(TaskType type) {
+        switch (type) {
+            case TASK:
+                super.removeAllTasks();
+                break;
+            case EPIC:
+                super.removeAllEpics();
+                break;
+            case SUBTASK:
+                super.removeAllSubtasks();
+                break;
+        }
+    }
+
+    private void replayView(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = epics.get(id);
+        }
+        if (task == null) {
+            task = subtasks.get(id);
+        }
+        if (task != null) {
+            historyManager.add(task);
+        }
+    }
+
+    @Override
+    public int createTask(Task task) {
+        int id = super.createTask(task);
+        append(CREATE + "," + taskToString(task));
+        return id;
+    }
+
+    @Override
+    public int createEpic(Epic epic) {
+        int id = super.createEpic(epic);
+        append(CREATE + "," + taskToString(epic));
+        return id;
+    }
+
+    @Override
+    public int createSubtask(Subtask subtask) {
+        int id = super.createSubtask(subtask);
+        append(CREATE + "," + taskToString(subtask));
+        return id;
+    }
+
+    // Эпики пакета пишутся первыми, чтобы при проигрывании подзадачи нашли свой эпик
+    @Override
+    public List<Integer> createAll(Collection<? extends Task> items) {
+        List<Integer> ids = super.createAll(items);
+        List<String> records = new ArrayList<>(items.size());
+        for (Task item : items) {
+            if (item instanceof Epic) {
+                records.add(CREATE + "," + taskToString(item));
+            }
+        }
+        for (Task item : items) {
+            if (!(item instanceof Epic)) {
+                records.add(CREATE + "," + taskToString(item));
+            }
+        }
+        appendAll(records);
+        return ids;
+    }
+
+    @Override
+    public void updateAll(Collection<? extends Task> items) {
+        super.updateAll(items);
+        List<String> records = new ArrayList<>(items.size());
+        for (Task item : items) {
+            Task stored = item instanceof Epic ? epics.get(item.getId()) : item;
+            records.add(UPDATE + "," + taskToString(stored));
+        }
+        appendAll(records);
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        super.updateTask(task);
+        append(UPDATE + "," + taskToString(task));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        super.updateEpic(epic);
+        append(UPDATE + "," + taskToString(epics.get(epic.getId())));
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        super.updateSubtask(subtask);
+        append(UPDATE + "," + taskToString(subtask));
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        boolean existed = tasks.containsKey(id);
+        super.deleteTask(id);
+        if (existed) {
+            append(DELETE + "," + id);
+        }
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        boolean existed = epics.containsKey(id);
+        super.deleteEpic(id);
+        if (existed) {
+            append(DELETE + "," + id);
+        }
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        boolean existed = subtasks.containsKey(id);
+        super.deleteSubtask(id);
+        if (existed) {
+            append(DELETE + "," + id);
+        }
+    }
+
+    @Override
+    public void removeAllTasks() {
+        super.removeAllTasks();
+        append(REMOVE_ALL + "," + TaskType.TASK);
+    }
+
+    @Override
+    public void removeAllEpics() {
+        super.removeAllEpics();
+        append(REMOVE_ALL + "," + TaskType.EPIC);
+    }
+
+    @Override
+    public void removeAllSubtasks() {
+        super.removeAllSubtasks();
+        append(REMOVE_ALL + "," + TaskType.SUBTASK);
+    }
+
+    @Override
+    public Task getTask(int id) {
+        Task task = super.getTask(id);
+        if (task != null) {
+            append(VIEW + "," + id);
+        }
+        return task;
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        Epic epic = super.getEpic(id);
+        if (epic != null) {
+            append(VIEW + "," + id);
+        }
+        return epic;
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        Subtask subtask = super.getSubtask(id);
+        if (subtask != null) {
+            append(VIEW + "," + id);
+        }
+        return subtask;
+    }
+}
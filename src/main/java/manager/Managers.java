@@ -6,7 +6,27 @@ public class Managers {
         return new manager.InMemoryTaskManager();
     }
 
+    // Менеджер, история которого хранит не больше historyCapacity последних просмотров
+    public static manager.TaskManager getDefault(int historyCapacity) {
+        return new manager.InMemoryTaskManager(getDefaultHistory(historyCapacity));
+    }
+
+    // Возвращает менеджер, которым можно пользоваться из нескольких потоков.
+    // Уже потокобезопасные реализации возвращаются как есть, остальные оборачиваются в SynchronizedTaskManager
+    public static manager.TaskManager getThreadSafe(manager.TaskManager taskManager) {
+        if (taskManager instanceof SynchronizedTaskManager || taskManager instanceof ConcurrentTaskManager
+                || taskManager instanceof WriteBehindTaskManager) {
+            return taskManager;
+        }
+        return new SynchronizedTaskManager(taskManager);
+    }
+
     public static manager.HistoryManager getDefaultHistory() {
         return new manager.InMemoryHistoryManager();
     }
+
+    // История, которая хранит не больше capacity последних просмотров
+    public static manager.HistoryManager getDefaultHistory(int capacity) {
+        return new manager.InMemoryHistoryManager(capacity);
+    }
 }
\ No newline at end of file
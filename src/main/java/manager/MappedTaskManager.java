@@ -0,0 +1,299 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Менеджер поверх отображённого в память хранилища (MappedTaskStore): запуск не зависит от количества задач,
+// объекты создаются при первом обращении, а каждое изменение сразу пишется в запись задачи.
+// Ленивыми остаются и производные структуры:
+// - подзадачи и агрегаты эпика восстанавливаются, когда эпик впервые запрошен;
+// - prioritizedTasks и intervalIndex строятся при первой операции с задачей, у которой есть время.
+// Пока расписание не построено, в памяти нет ни одной задачи со временем, поэтому построить его можно в любой момент
+// прямо по записям. История хранится в <file>.history и записывается в flush() и close().
+public class MappedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+
+    private final MappedTaskStore store;
+    private final File historyFile;
+    private boolean scheduleLoaded;
+
+    public MappedTaskManager(File file) {
+        this(new MappedTaskStore(file), new File(file.getPath() + ".history"));
+    }
+
+    private MappedTaskManager(MappedTaskStore store, File historyFile) {
+        super(new MappedTaskMap<>(store, TaskType.TASK, Task.class),
+                new MappedTaskMap<>(store, TaskType.EPIC, Epic.class),
+                new MappedTaskMap<>(store, TaskType.SUBTASK, Subtask.class),
+                Managers.getDefaultHistory());
+        this.store = store;
+        this.historyFile = historyFile;
+        this.idCounter = store.maxId();
+        epicMap().setOnLoad(this::restoreEpic);
+        restoreHistory();
+    }
+
+    public static MappedTaskManager loadFromFile(File file) throws ManagerSaveException {
+        return new MappedTaskManager(file);
+    }
+
+    private MappedTaskMap<Epic> epicMap() {
+        return (MappedTaskMap<Epic>) epics;
+    }
+
+    // Эпик из записи получает список подзадач из хранилища и пересчитывает по ним статус и время
+    private void restoreEpic(Epic epic) {
+        for (int subtaskId : store.subtaskIdsOf(epic.getId())) {
+            epic.addSubtaskId(subtaskId);
+        }
+        calculateEpicTimesAndStatus(epic);
+    }
+
+    private void ensureScheduleLoaded() {
+        if (scheduleLoaded) {
+            return;
+        }
+        scheduleLoaded = true;
+        for (int id : store.ids(TaskType.TASK)) {
+            if (store.isTimed(id)) {
+                super.addPrioritized(tasks.get(id));
+            }
+        }
+        List<Epic> loadedEpics = new ArrayList<>(epicMap().loadedValues());
+        for (int id : store.ids(TaskType.SUBTASK)) {
+            if (store.isTimed(id)) {
+                Subtask subtask = subtasks.get(id);
+                super.addPrioritized(subtask);
+                // Ещё не загруженный эпик сам попадёт в расписание при пересчёте
+                epics.get(subtask.getEpicId());
+            }
+        }
+        for (Epic epic : loadedEpics) {
+            if (epic.getStartTime() != null && epic.getDuration() != null) {
+                super.addPrioritized(epic);
+            }
+        }
+    }
+
+    private static boolean isTimed(Task task) {
+        return task != null && task.getStartTime() != null && task.getDuration() != null;
+    }
+
+    private boolean hasTimedSubtasks(int epicId) {
+        if (store.typeOf(epicId) != TaskType.EPIC) {
+            return false;
+        }
+        for (int subtaskId : store.subtaskIdsOf(epicId)) {
+            if (store.isTimed(subtaskId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void addPrioritized(Task task) {
+        if (scheduleLoaded) {
+            super.addPrioritized(task);
+        }
+    }
+
+    @Override
+    protected boolean removePrioritized(Task task) {
+        return scheduleLoaded && super.removePrioritized(task);
+    }
+
+    @Override
+    protected boolean hasIntersections(Task newTask) {
+        if (!isTimed(newTask)) {
+            return false;
+        }
+        ensureScheduleLoaded();
+        return super.hasIntersections(newTask);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        ensureScheduleLoaded();
+        return super.getPrioritizedTasks();
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        if (task != null && (isTimed(task) || store.isTimed(task.getId()))) {
+            ensureScheduleLoaded();
+        }
+        super.updateTask(task);
+    }
+
+    // Имя и описание эпика меняются в уже загруженном объекте, поэтому запись обновляется отдельно
+    @Override
+    public void updateEpic(Epic epic) {
+        super.updateEpic(epic);
+        store.write(epics.get(epic.getId()));
+    }
+
+    // Эпик загружается до изменения подзадачи, иначе он прочитал бы из хранилища уже добавленную подзадачу
+    // и получил её id второй раз
+    @Override
+    public int createSubtask(Subtask subtask) {
+        if (subtask != null) {
+            epics.get(subtask.getEpicId());
+        }
+        return super.createSubtask(subtask);
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        if (subtask != null) {
+            Subtask existing = subtasks.get(subtask.getId());
+            if (existing != null) {
+                epics.get(existing.getEpicId());
+            }
+            epics.get(subtask.getEpicId());
+            if (isTimed(subtask) || isTimed(existing)) {
+                ensureScheduleLoaded();
+            }
+        }
+        super.updateSubtask(subtask);
+    }
+
+    // Как и в createSubtask/updateSubtask, эпики подзадач пакета загружаются до изменений,
+    // а расписание строится, если в пакете есть задачи со временем
+    @Override
+    public List<Integer> createAll(Collection<? extends Task> items) {
+        prepareBatch(items);
+        return super.createAll(items);
+    }
+
+    @Override
+    public void updateAll(Collection<? extends Task> items) {
+        prepareBatch(items);
+        super.updateAll(items);
+        for (Task item : items) {
+            if (item instanceof Epic && store.typeOf(item.getId()) == TaskType.EPIC) {
+                store.write(epics.get(item.getId()));
+            }
+        }
+    }
+
+    private void prepareBatch(Collection<? extends Task> items) {
+        if (items == null) {
+            return;
+        }
+        for (Task item : items) {
+            if (item == null || item instanceof Epic) {
+                continue;
+            }
+            if (item instanceof Subtask) {
+                Subtask existing = store.typeOf(item.getId()) == TaskType.SUBTASK ? subtasks.get(item.getId()) : null;
+                if (existing != null) {
+                    epics.get(existing.getEpicId());
+                }
+                epics.get(((Subtask) item).getEpicId());
+            }
+            if (isTimed(item) || (item.getId() > 0 && store.isTimed(item.getId()))) {
+                ensureScheduleLoaded();
+            }
+        }
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        if (store.isTimed(id)) {
+            ensureScheduleLoaded();
+        }
+        super.deleteTask(id);
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        if (hasTimedSubtasks(id)) {
+            ensureScheduleLoaded();
+        }
+        super.deleteEpic(id);
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        Subtask subtask = subtasks.get(id);
+        if (subtask != null) {
+            epics.get(subtask.getEpicId());
+            if (isTimed(subtask)) {
+                ensureScheduleLoaded();
+            }
+        }
+        super.deleteSubtask(id);
+    }
+
+    // Сбрасывает записи на диск и сохраняет историю
+    public void flush() {
+        store.force();
+        saveHistory();
+    }
+
+    @Override
+    public void close() {
+        saveHistory();
+        store.close();
+    }
+
+    private void saveHistory() {
+        List<Task> history = getHistory();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(historyFile)))) {
+            out.writeInt(history.size());
+            for (Task task : history) {
+                out.writeInt(task.getId());
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения истории: " + historyFile.getName(), e);
+        }
+    }
+
+    private void restoreHistory() {
+        if (!historyFile.exists() || historyFile.length() == 0) {
+            return;
+        }
+        List<Task> history = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(historyFile)))) {
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                Task task = peek(in.readInt());
+                if (task != null) {
+                    history.add(task);
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка загрузки истории: " + historyFile.getName(), e);
+        }
+        historyManager.restore(history);
+    }
+
+    private Task peek(int id) {
+        TaskType type = store.typeOf(id);
+        if (type == null) {
+            return null;
+        }
+        switch (type) {
+            case EPIC:
+                return epics.get(id);
+            case SUBTASK:
+                return subtasks.get(id);
+            default:
+                return tasks.get(id);
+        }
+    }
+}
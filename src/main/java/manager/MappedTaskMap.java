@@ -0,0 +1,276 @@
+package manager;
+
+import model.Task;
+import model.TaskType;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+// Таблица задач одного типа поверх MappedTaskStore для InMemoryTaskManager.
+// get() создаёт объект из записи при первом обращении и дальше отдаёт его из кэша. Эпики кэш держит сильно:
+// подзадачи и агрегаты, которые менеджер достраивает в объекте эпика, в записи не хранятся. Задача и подзадача
+// целиком восстанавливаются из записи, поэтому кэшируются через WeakReference и уходят из памяти, когда на них
+// не ссылаются расписание, история или вызывающий код. containsKey, size и keySet отвечают по записям и объекты
+// не создают. put и remove сразу пишут в хранилище.
+class MappedTaskMap<T extends Task> extends AbstractMap<Integer, T> implements IntTaskStore<T> {
+
+    private final MappedTaskStore store;
+    private final TaskType type;
+    private final Class<T> valueClass;
+    private final Map<Integer, T> loaded = new HashMap<>();
+    // Кэш задач и подзадач; собранные сборщиком ссылки убираются из таблицы по очереди collected
+    private final Map<Integer, IdReference<T>> weaklyLoaded = new HashMap<>();
+    private final ReferenceQueue<T> collected = new ReferenceQueue<>();
+    private final boolean weak;
+    private Consumer<T> onLoad = value -> {
+    };
+
+    MappedTaskMap(MappedTaskStore store, TaskType type, Class<T> valueClass) {
+        this.store = store;
+        this.type = type;
+        this.valueClass = valueClass;
+        this.weak = type != TaskType.EPIC;
+    }
+
+    private static final class IdReference<T> extends WeakReference<T> {
+        private final int id;
+
+        IdReference(int id, T value, ReferenceQueue<T> queue) {
+            super(value, queue);
+            this.id = id;
+        }
+    }
+
+    // Вызывается для каждого объекта, только что созданного из записи (эпику так достраиваются подзадачи)
+    void setOnLoad(Consumer<T> onLoad) {
+        this.onLoad = onLoad;
+    }
+
+    // Объекты, уже созданные из записей или записанные через put и ещё не собранные сборщиком
+    Collection<T> loadedValues() {
+        if (!weak) {
+            return loaded.values();
+        }
+        List<T> values = new ArrayList<>(weaklyLoaded.size());
+        for (IdReference<T> reference : weaklyLoaded.values()) {
+            T value = reference.get();
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    private T cached(int id) {
+        if (!weak) {
+            return loaded.get(id);
+        }
+        expungeCollected();
+        IdReference<T> reference = weaklyLoaded.get(id);
+        return reference != null ? reference.get() : null;
+    }
+
+    private void cache(int id, T value) {
+        if (!weak) {
+            loaded.put(id, value);
+            return;
+        }
+        expungeCollected();
+        weaklyLoaded.put(id, new IdReference<>(id, value, collected));
+    }
+
+    private void uncache(int id) {
+        loaded.remove(id);
+        weaklyLoaded.remove(id);
+    }
+
+    // Ссылка убирается, только если в таблице всё ещё она, а не новая ссылка на тот же id
+    private void expungeCollected() {
+        for (Object reference; (reference = collected.poll()) != null; ) {
+            weaklyLoaded.remove(((IdReference<?>) reference).id, reference);
+        }
+    }
+
+    @Override
+    public int size() {
+        return store.count(type);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && containsKey((int) (Integer) key);
+    }
+
+    @Override
+    public boolean containsKey(int id) {
+        return store.typeOf(id) == type;
+    }
+
+    @Override
+    public T get(Object key) {
+        return key instanceof Integer ? get((int) (Integer) key) : null;
+    }
+
+    @Override
+    public T get(int id) {
+        T value = cached(id);
+        if (value != null || store.typeOf(id) != type) {
+            return value;
+        }
+        value = valueClass.cast(store.read(id));
+        cache(id, value);
+        onLoad.accept(value);
+        return value;
+    }
+
+    @Override
+    public T put(Integer key, T value) {
+        return put((int) key, value);
+    }
+
+    @Override
+    public T put(int id, T value) {
+        T previous = get(id);
+        cache(id, value);
+        store.write(value);
+        return previous;
+    }
+
+    @Override
+    public T remove(Object key) {
+        return key instanceof Integer ? remove((int) (Integer) key) : null;
+    }
+
+    @Override
+    public T remove(int id) {
+        T previous = get(id);
+        if (previous != null) {
+            uncache(id);
+            store.delete(id);
+        }
+        return previous;
+    }
+
+    // Обход по записям: ключи - без создания объектов, значения - с загрузкой, как get
+    @Override
+    public void forEachKey(IntConsumer action) {
+        for (int id : store.ids(type)) {
+            action.accept(id);
+        }
+    }
+
+    @Override
+    public void forEachValue(Consumer<? super T> action) {
+        for (int id : store.ids(type)) {
+            action.accept(get(id));
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int id : store.ids(type)) {
+            store.delete(id);
+        }
+        loaded.clear();
+        weaklyLoaded.clear();
+    }
+
+    // Обход по id без создания объектов
+    @Override
+    public Set<Integer> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Integer> iterator() {
+                return new IdIterator();
+            }
+
+            @Override
+            public int size() {
+                return MappedTaskMap.this.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<Integer, T>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Integer, T>> iterator() {
+                IdIterator ids = new IdIterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return ids.hasNext();
+                    }
+
+                    @Override
+                    public Entry<Integer, T> next() {
+                        int id = ids.next();
+                        return new SimpleEntry<>(id, get(id));
+                    }
+
+                    @Override
+                    public void remove() {
+                        ids.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return MappedTaskMap.this.size();
+            }
+        };
+    }
+
+    // Снимок id на момент начала обхода, чтобы изменения во время обхода не ломали итерацию.
+    // Удалённые за время обхода id пропускаются
+    private class IdIterator implements Iterator<Integer> {
+        private final List<Integer> ids = store.ids(type);
+        private int position;
+        private Integer current;
+
+        @Override
+        public boolean hasNext() {
+            while (position < ids.size() && !containsKey(ids.get(position))) {
+                position++;
+            }
+            return position < ids.size();
+        }
+
+        @Override
+        public Integer next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            current = ids.get(position++);
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            if (current == null) {
+                throw new IllegalStateException();
+            }
+            MappedTaskMap.this.remove(current);
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Хранилище задач в двух отображённых в память файлах (FileChannel.map).
+// Файл записей: заголовок HEADER_SIZE байт и записи фиксированного размера RECORD_SIZE, запись задачи с id
+// лежит по смещению HEADER_SIZE + id * RECORD_SIZE, поэтому поиск по id не требует индекса.
+// Файл строк (<file>.heap): заголовок и дописываемые в конец UTF-8 строки, на которые ссылаются записи.
+// Изменённые и удалённые строки остаются в куче мусором; close() уплотняет кучу, когда мусора больше, чем живых
+// строк, а следующее открытие обрезает файл до занятой части.
+// Открытие не читает записи вовсе: объекты Task/Epic/Subtask создаются методом read() по запросу,
+// а кэшированием страниц занимается ОС.
+class MappedTaskStore implements AutoCloseable {
+
+    static final int MAGIC = 0x4B4D4150; // "KMAP"
+    static final int VERSION = 1;
+
+    // Заголовок файла записей
+    static final int HEADER_SIZE = 64;
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_CAPACITY = 8;
+    private static final int H_MAX_ID = 12;
+    private static final int H_TASK_COUNT = 16;
+    private static final int H_EPIC_COUNT = 20;
+    private static final int H_SUBTASK_COUNT = 24;
+
+    // Запись задачи
+    static final int RECORD_SIZE = 64;
+    private static final int R_TYPE = 0;         // byte: 0 - пусто, иначе TaskType.ordinal() + 1
+    private static final int R_STATUS = 1;       // byte: 0 - null, иначе TaskStatus.ordinal() + 1
+    private static final int R_FLAGS = 2;        // byte: HAS_START | HAS_DURATION
+    private static final int R_ID = 4;           // int
+    private static final int R_EPIC_ID = 8;      // int, только у подзадач
+    private static final int R_START_NANOS = 12; // int
+    private static final int R_START = 16;       // long, секунды эпохи UTC
+    private static final int R_DURATION = 24;    // long, минуты
+    private static final int R_NAME = 32;        // int смещение в куче, int длина (-1 - null)
+    private static final int R_DESCRIPTION = 40; // int смещение в куче, int длина (-1 - null)
+
+    private static final int HAS_START = 1;
+    private static final int HAS_DURATION = 2;
+
+    // Заголовок кучи строк
+    private static final int HEAP_HEADER_SIZE = 16;
+    private static final int HEAP_USED = 8;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int INITIAL_HEAP_SIZE = 1 << 16;
+
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private final File file;
+    private final FileChannel recordChannel;
+    private final FileChannel heapChannel;
+    private MappedByteBuffer records;
+    private MappedByteBuffer heap;
+
+    // id подзадач по эпикам. Строится одним проходом по записям при первом обращении и дальше поддерживается при записи
+    private Map<Integer, List<Integer>> subtasksByEpic;
+
+    MappedTaskStore(File file) {
+        this.file = file;
+        try {
+            boolean exists = file.exists() && file.length() >= HEADER_SIZE;
+            this.recordChannel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.heapChannel = FileChannel.open(heapFile(file).toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (exists) {
+                records = recordChannel.map(FileChannel.MapMode.READ_WRITE, 0, recordChannel.size());
+                if (records.getInt(H_MAGIC) != MAGIC || records.getInt(H_VERSION) != VERSION) {
+                    throw new ManagerSaveException("Файл не является хранилищем задач: " + file.getName());
+                }
+                long expected = HEADER_SIZE + (long) records.getInt(H_CAPACITY) * RECORD_SIZE;
+                if (recordChannel.size() < expected || heapChannel.size() < HEAP_HEADER_SIZE) {
+                    throw new ManagerSaveException("Хранилище задач повреждено: " + file.getName());
+                }
+                truncateHeap();
+                heap = heapChannel.map(FileChannel.MapMode.READ_WRITE, 0, heapChannel.size());
+            } else {
+                records = recordChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                        HEADER_SIZE + (long) INITIAL_CAPACITY * RECORD_SIZE);
+                records.putInt(H_MAGIC, MAGIC);
+                records.putInt(H_VERSION, VERSION);
+                records.putInt(H_CAPACITY, INITIAL_CAPACITY);
+                heap = heapChannel.map(FileChannel.MapMode.READ_WRITE, 0, INITIAL_HEAP_SIZE);
+                heap.putInt(H_MAGIC, MAGIC);
+                heap.putInt(H_VERSION, VERSION);
+                heap.putInt(HEAP_USED, HEAP_HEADER_SIZE);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка открытия хранилища задач: " + file.getName(), e);
+        }
+    }
+
+    static File heapFile(File file) {
+        return new File(file.getPath() + ".heap");
+    }
+
+    int maxId() {
+        return records.getInt(H_MAX_ID);
+    }
+
+    int count(TaskType type) {
+        return records.getInt(countOffset(type));
+    }
+
+    // Тип записи или null, если задачи с таким id нет
+    TaskType typeOf(int id) {
+        if (id <= 0 || id > maxId()) {
+            return null;
+        }
+        int type = records.get(recordOffset(id) + R_TYPE);
+        return type == 0 ? null : TYPES[type - 1];
+    }
+
+    boolean isTimed(int id) {
+        if (typeOf(id) == null) {
+            return false;
+        }
+        return (records.get(recordOffset(id) + R_FLAGS) & (HAS_START | HAS_DURATION)) == (HAS_START | HAS_DURATION);
+    }
+
+    int epicIdOf(int id) {
+        return records.getInt(recordOffset(id) + R_EPIC_ID);
+    }
+
+    // Создаёт объект по записи. Эпик возвращается без подзадач и агрегатов, их восстанавливает менеджер
+    Task read(int id) {
+        TaskType type = typeOf(id);
+        if (type == null) {
+            return null;
+        }
+        int offset = recordOffset(id);
+        int status = records.get(offset + R_STATUS);
+        TaskStatus taskStatus = status == 0 ? null : STATUSES[status - 1];
+        String name = readString(offset + R_NAME);
+        String description = readString(offset + R_DESCRIPTION);
+        if (type == TaskType.EPIC) {
+            return new Epic(name, description, id, taskStatus);
+        }
+        int flags = records.get(offset + R_FLAGS);
+        LocalDateTime startTime = null;
+        if ((flags & HAS_START) != 0) {
+            startTime = LocalDateTime.ofEpochSecond(records.getLong(offset + R_START),
+                    records.getInt(offset + R_START_NANOS), ZoneOffset.UTC);
+        }
+        Duration duration = null;
+        if ((flags & HAS_DURATION) != 0) {
+            duration = Duration.ofMinutes(records.getLong(offset + R_DURATION));
+        }
+        if (type == TaskType.SUBTASK) {
+            return new Subtask(name, description, id, taskStatus, records.getInt(offset + R_EPIC_ID), duration,
+                    startTime);
+        }
+        return new Task(name, description, id, taskStatus, duration, startTime);
+    }
+
+    void write(Task task) {
+        int id = task.getId();
+        if (id <= 0) {
+            throw new IllegalArgumentException("Некорректный id задачи для хранилища: " + id);
+        }
+        ensureCapacity(id);
+        TaskType type = task instanceof Epic ? TaskType.EPIC : task instanceof Subtask ? TaskType.SUBTASK : TaskType.TASK;
+        TaskType previousType = typeOf(id);
+        int offset = recordOffset(id);
+        int previousEpicId = previousType == TaskType.SUBTASK ? records.getInt(offset + R_EPIC_ID) : 0;
+
+        writeString(offset + R_NAME, previousType != null, task.getName());
+        writeString(offset + R_DESCRIPTION, previousType != null, task.getDescription());
+        records.put(offset + R_STATUS, (byte) (task.getStatus() == null ? 0 : task.getStatus().ordinal() + 1));
+        records.putInt(offset + R_ID, id);
+        int flags = 0;
+        if (type != TaskType.EPIC) {
+            LocalDateTime startTime = task.getStartTime();
+            Duration duration = task.getDuration();
+            if (startTime != null) {
+                flags |= HAS_START;
+                records.putLong(offset + R_START, startTime.toEpochSecond(ZoneOffset.UTC));
+                records.putInt(offset + R_START_NANOS, startTime.getNano());
+            }
+            if (duration != null) {
+                flags |= HAS_DURATION;
+                records.putLong(offset + R_DURATION, duration.toMinutes());
+            }
+        }
+        records.put(offset + R_FLAGS, (byte) flags);
+        int epicId = type == TaskType.SUBTASK ? ((Subtask) task).getEpicId() : 0;
+        records.putInt(offset + R_EPIC_ID, epicId);
+        records.put(offset + R_TYPE, (byte) (type.ordinal() + 1));
+
+        if (previousType != type) {
+            if (previousType != null) {
+                adjustCount(previousType, -1);
+            }
+            adjustCount(type, 1);
+        }
+        if (id > maxId()) {
+            records.putInt(H_MAX_ID, id);
+        }
+        if (subtasksByEpic != null && (previousType == TaskType.SUBTASK || type == TaskType.SUBTASK)
+                && (previousType != type || previousEpicId != epicId)) {
+            if (previousType == TaskType.SUBTASK) {
+                unindexSubtask(previousEpicId, id);
+            }
+            if (type == TaskType.SUBTASK) {
+                subtasksByEpic.computeIfAbsent(epicId, key -> new ArrayList<>()).add(id);
+            }
+        }
+    }
+
+    void delete(int id) {
+        TaskType type = typeOf(id);
+        if (type == null) {
+            return;
+        }
+        int offset = recordOffset(id);
+        if (type == TaskType.SUBTASK && subtasksByEpic != null) {
+            unindexSubtask(records.getInt(offset + R_EPIC_ID), id);
+        }
+        records.put(offset + R_TYPE, (byte) 0);
+        adjustCount(type, -1);
+    }
+
+    // id записей данного типа по возрастанию; строки при этом не читаются
+    List<Integer> ids(TaskType type) {
+        List<Integer> ids = new ArrayList<>(count(type));
+        int maxId = maxId();
+        byte code = (byte) (type.ordinal() + 1);
+        for (int id = 1; id <= maxId; id++) {
+            if (records.get(recordOffset(id) + R_TYPE) == code) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    List<Integer> subtaskIdsOf(int epicId) {
+        if (subtasksByEpic == null) {
+            subtasksByEpic = new HashMap<>();
+            for (int id : ids(TaskType.SUBTASK)) {
+                subtasksByEpic.computeIfAbsent(epicIdOf(id), key -> new ArrayList<>()).add(id);
+            }
+        }
+        return subtasksByEpic.getOrDefault(epicId, Collections.emptyList());
+    }
+
+    // Сбрасывает изменённые страницы на диск
+    void force() {
+        records.force();
+        heap.force();
+    }
+
+    @Override
+    public void close() {
+        try {
+            compactHeapIfWasteful();
+            force();
+            recordChannel.close();
+            heapChannel.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка закрытия хранилища задач: " + file.getName(), e);
+        }
+    }
+
+    private void unindexSubtask(int epicId, int id) {
+        List<Integer> ids = subtasksByEpic.get(epicId);
+        if (ids != null) {
+            ids.remove((Integer) id);
+        }
+    }
+
+    private static int countOffset(TaskType type) {
+        switch (type) {
+            case EPIC:
+                return H_EPIC_COUNT;
+            case SUBTASK:
+                return H_SUBTASK_COUNT;
+            default:
+                return H_TASK_COUNT;
+        }
+    }
+
+    private void adjustCount(TaskType type, int delta) {
+        int offset = countOffset(type);
+        records.putInt(offset, records.getInt(offset) + delta);
+    }
+
+    private static int recordOffset(int id) {
+        return HEADER_SIZE + id * RECORD_SIZE;
+    }
+
+    // Отображение файла расширяется вдвое; MappedByteBuffer адресуется int, поэтому предел - 2 ГБ на файл
+    private void ensureCapacity(int id) {
+        int capacity = records.getInt(H_CAPACITY);
+        if (id < capacity) {
+            return;
+        }
+        long newCapacity = Math.max((long) capacity * 2, (long) id + 1);
+        long size = HEADER_SIZE + newCapacity * RECORD_SIZE;
+        if (size > Integer.MAX_VALUE) {
+            throw new ManagerSaveException("Превышен размер хранилища задач: " + file.getName());
+        }
+        try {
+            records.force();
+            records = recordChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка расширения хранилища задач: " + file.getName(), e);
+        }
+        records.putInt(H_CAPACITY, (int) newCapacity);
+    }
+
+    private String readString(int fieldOffset) {
+        int length = records.getInt(fieldOffset + 4);
+        if (length < 0) {
+            return null;
+        }
+        int heapOffset = records.getInt(fieldOffset);
+        byte[] bytes = new byte[length];
+        heap.get(heapOffset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Если строка не изменилась, запись продолжает ссылаться на старые байты, иначе строка дописывается в кучу
+    private void writeString(int fieldOffset, boolean hasPrevious, String value) {
+        if (value == null) {
+            records.putInt(fieldOffset + 4, -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (hasPrevious && records.getInt(fieldOffset + 4) == bytes.length
+                && sameBytes(records.getInt(fieldOffset), bytes)) {
+            return;
+        }
+        int used = heap.getInt(HEAP_USED);
+        ensureHeapCapacity((long) used + bytes.length);
+        heap.put(used, bytes);
+        heap.putInt(HEAP_USED, used + bytes.length);
+        records.putInt(fieldOffset, used);
+        records.putInt(fieldOffset + 4, bytes.length);
+    }
+
+    private boolean sameBytes(int heapOffset, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (heap.get(heapOffset + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Сдвигает живые строки к началу кучи в порядке их смещений, поэтому каждая строка переезжает только ниже
+    // и не затирает ещё не перенесённые. Выполняется, если мусора больше, чем живых строк, и он больше начального
+    // размера кучи
+    private void compactHeapIfWasteful() {
+        int maxId = maxId();
+        long[] fields = new long[2 * maxId];
+        int count = 0;
+        long live = 0;
+        for (int id = 1; id <= maxId; id++) {
+            int offset = recordOffset(id);
+            if (records.get(offset + R_TYPE) == 0) {
+                continue;
+            }
+            for (int field : new int[]{offset + R_NAME, offset + R_DESCRIPTION}) {
+                int length = records.getInt(field + 4);
+                if (length >= 0) {
+                    // Старшие 32 бита - смещение строки в куче, младшие - смещение поля в файле записей
+                    fields[count++] = ((long) records.getInt(field) << 32) | field;
+                    live += length;
+                }
+            }
+        }
+        long garbage = heap.getInt(HEAP_USED) - HEAP_HEADER_SIZE - live;
+        if (garbage <= live || garbage < INITIAL_HEAP_SIZE) {
+            return;
+        }
+        Arrays.sort(fields, 0, count);
+        int cursor = HEAP_HEADER_SIZE;
+        for (int i = 0; i < count; i++) {
+            int field = (int) fields[i];
+            int from = records.getInt(field);
+            int length = records.getInt(field + 4);
+            if (from != cursor) {
+                byte[] bytes = new byte[length];
+                heap.get(from, bytes);
+                heap.put(cursor, bytes);
+                records.putInt(field, cursor);
+            }
+            cursor += length;
+        }
+        heap.putInt(HEAP_USED, cursor);
+    }
+
+    // Обрезает файл кучи до занятой части (но не меньше начального размера). Вызывается до отображения файла:
+    // отображённый файл обрезать нельзя
+    private void truncateHeap() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEAP_HEADER_SIZE);
+        heapChannel.read(header, 0);
+        long size = Math.max(header.getInt(HEAP_USED), INITIAL_HEAP_SIZE);
+        if (heapChannel.size() > size) {
+            heapChannel.truncate(size);
+        }
+    }
+
+    private void ensureHeapCapacity(long required) {
+        if (required <= heap.capacity()) {
+            return;
+        }
+        long size = Math.max((long) heap.capacity() * 2, required);
+        if (size > Integer.MAX_VALUE) {
+            throw new ManagerSaveException("Превышен размер хранилища строк: " + heapFile(file).getName());
+        }
+        try {
+            heap.force();
+            heap = heapChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка расширения хранилища строк: " + heapFile(file).getName(), e);
+        }
+    }
+}
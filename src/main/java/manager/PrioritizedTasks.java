@@ -0,0 +1,132 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.time.LocalDateTime;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+
+// prioritizedTasks менеджера: по отдельному TreeSet на задачи, эпики и подзадачи с общим порядком
+// (время начала, затем id). Вставка и удаление идут в множество своего типа, а clear(type) при удалении
+// всех задач одного типа просто заменяет множество - без фильтрации остальных. Обход сливает три множества
+// в общий порядок за линейное время; remove итератора не поддерживается
+class PrioritizedTasks extends AbstractSet<Task> {
+
+    static final Comparator<Task> ORDER =
+            Comparator.comparing(Task::getStartTime, Comparator.nullsLast(LocalDateTime::compareTo))
+                    .thenComparingInt(Task::getId);
+
+    private final List<TreeSet<Task>> byType = new ArrayList<>();
+
+    PrioritizedTasks() {
+        for (int i = 0; i < TaskType.values().length; i++) {
+            byType.add(new TreeSet<>(ORDER));
+        }
+    }
+
+    private static TaskType typeOf(Task task) {
+        if (task instanceof Epic) {
+            return TaskType.EPIC;
+        }
+        if (task instanceof Subtask) {
+            return TaskType.SUBTASK;
+        }
+        return TaskType.TASK;
+    }
+
+    private TreeSet<Task> setOf(Task task) {
+        return byType.get(typeOf(task).ordinal());
+    }
+
+    @Override
+    public boolean add(Task task) {
+        return setOf(task).add(task);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Task && setOf((Task) o).remove(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Task && setOf((Task) o).contains(o);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (TreeSet<Task> set : byType) {
+            size += set.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (TaskType type : TaskType.values()) {
+            clear(type);
+        }
+    }
+
+    // Убирает все задачи одного типа за O(1)
+    void clear(TaskType type) {
+        if (!byType.get(type.ordinal()).isEmpty()) {
+            byType.set(type.ordinal(), new TreeSet<>(ORDER));
+        }
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        return new Merge();
+    }
+
+    // Слияние отсортированных множеств: на каждом шаге берётся меньшая из текущих голов
+    private final class Merge implements Iterator<Task> {
+        private final List<Iterator<Task>> sources = new ArrayList<>();
+        private final Task[] heads = new Task[byType.size()];
+
+        Merge() {
+            for (int i = 0; i < heads.length; i++) {
+                Iterator<Task> source = byType.get(i).iterator();
+                sources.add(source);
+                heads[i] = source.hasNext() ? source.next() : null;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            for (Task head : heads) {
+                if (head != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Task next() {
+            int min = -1;
+            for (int i = 0; i < heads.length; i++) {
+                if (heads[i] != null && (min < 0 || ORDER.compare(heads[i], heads[min]) < 0)) {
+                    min = i;
+                }
+            }
+            if (min < 0) {
+                throw new NoSuchElementException();
+            }
+            Task next = heads[min];
+            Iterator<Task> source = sources.get(min);
+            heads[min] = source.hasNext() ? source.next() : null;
+            return next;
+        }
+    }
+}
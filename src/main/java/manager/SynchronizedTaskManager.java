@@ -0,0 +1,256 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Потокобезопасная обёртка над любым TaskManager: все вызовы выполняются под одной блокировкой.
+// Нужна, когда один менеджер обслуживает несколько потоков HttpTaskServer. Эпик меняется при каждом изменении
+// его подзадач, поэтому наружу выдаются копии эпиков, снятые под блокировкой
+public class SynchronizedTaskManager implements TaskManager {
+
+    private final TaskManager delegate;
+    private final Object lock = new Object();
+
+    public SynchronizedTaskManager(TaskManager delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Ошибка: Нельзя обернуть null менеджер.");
+        }
+        this.delegate = delegate;
+    }
+
+    public TaskManager getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        synchronized (lock) {
+            return delegate.getTasks();
+        }
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        synchronized (lock) {
+            return withEpicCopies(delegate.getEpics());
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasks() {
+        synchronized (lock) {
+            return delegate.getSubtasks();
+        }
+    }
+
+    @Override
+    public Task getTask(int id) {
+        synchronized (lock) {
+            return delegate.getTask(id);
+        }
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        synchronized (lock) {
+            return copyOf(delegate.getEpic(id));
+        }
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        synchronized (lock) {
+            return delegate.getSubtask(id);
+        }
+    }
+
+    @Override
+    public Task peekTask(int id) {
+        synchronized (lock) {
+            return delegate.peekTask(id);
+        }
+    }
+
+    @Override
+    public Epic peekEpic(int id) {
+        synchronized (lock) {
+            return copyOf(delegate.peekEpic(id));
+        }
+    }
+
+    @Override
+    public Subtask peekSubtask(int id) {
+        synchronized (lock) {
+            return delegate.peekSubtask(id);
+        }
+    }
+
+    @Override
+    public boolean containsTask(int id) {
+        synchronized (lock) {
+            return delegate.containsTask(id);
+        }
+    }
+
+    @Override
+    public boolean containsEpic(int id) {
+        synchronized (lock) {
+            return delegate.containsEpic(id);
+        }
+    }
+
+    @Override
+    public boolean containsSubtask(int id) {
+        synchronized (lock) {
+            return delegate.containsSubtask(id);
+        }
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        synchronized (lock) {
+            delegate.deleteTask(id);
+        }
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        synchronized (lock) {
+            delegate.deleteEpic(id);
+        }
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        synchronized (lock) {
+            delegate.deleteSubtask(id);
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        synchronized (lock) {
+            delegate.updateTask(task);
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        synchronized (lock) {
+            delegate.updateEpic(epic);
+        }
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        synchronized (lock) {
+            delegate.updateSubtask(subtask);
+        }
+    }
+
+    @Override
+    public int createTask(Task task) {
+        synchronized (lock) {
+            return delegate.createTask(task);
+        }
+    }
+
+    @Override
+    public int createEpic(Epic epic) {
+        synchronized (lock) {
+            return delegate.createEpic(epic);
+        }
+    }
+
+    @Override
+    public int createSubtask(Subtask subtask) {
+        synchronized (lock) {
+            return delegate.createSubtask(subtask);
+        }
+    }
+
+    @Override
+    public List<Integer> createAll(Collection<? extends Task> items) {
+        synchronized (lock) {
+            return delegate.createAll(items);
+        }
+    }
+
+    @Override
+    public void updateAll(Collection<? extends Task> items) {
+        synchronized (lock) {
+            delegate.updateAll(items);
+        }
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int epicId) {
+        synchronized (lock) {
+            return delegate.getEpicSubtasks(epicId);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        synchronized (lock) {
+            return withEpicCopies(delegate.getHistory());
+        }
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        synchronized (lock) {
+            return withEpicCopies(delegate.getHistory(limit));
+        }
+    }
+
+    @Override
+    public void removeAllTasks() {
+        synchronized (lock) {
+            delegate.removeAllTasks();
+        }
+    }
+
+    @Override
+    public void removeAllEpics() {
+        synchronized (lock) {
+            delegate.removeAllEpics();
+        }
+    }
+
+    @Override
+    public void removeAllSubtasks() {
+        synchronized (lock) {
+            delegate.removeAllSubtasks();
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        synchronized (lock) {
+            return withEpicCopies(delegate.getPrioritizedTasks());
+        }
+    }
+
+    static Epic copyOf(Epic epic) {
+        return epic != null ? epic.copy() : null;
+    }
+
+    // Копия списка, в которой эпики заменены копиями. Вызывается под блокировкой менеджера
+    static <T extends Task> List<T> withEpicCopies(List<T> list) {
+        List<T> copies = new ArrayList<>(list);
+        for (int i = 0; i < copies.size(); i++) {
+            if (copies.get(i) instanceof Epic) {
+                @SuppressWarnings("unchecked")
+                T copy = (T) ((Epic) copies.get(i)).copy();
+                copies.set(i, copy);
+            }
+        }
+        return copies;
+    }
+}
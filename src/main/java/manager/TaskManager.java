@@ -4,6 +4,7 @@ import model.Epic;
 import model.Subtask;
 import model.Task;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface TaskManager {
@@ -19,6 +20,19 @@ public interface TaskManager {
 
     Subtask getSubtask(int id);
 
+    // Поиск без добавления в историю и без сохранения: для проверок существования и сравнения полей
+    Task peekTask(int id);
+
+    Epic peekEpic(int id);
+
+    Subtask peekSubtask(int id);
+
+    boolean containsTask(int id);
+
+    boolean containsEpic(int id);
+
+    boolean containsSubtask(int id);
+
     void deleteTask(int id);
 
     void deleteEpic(int id);
@@ -37,10 +51,18 @@ public interface TaskManager {
 
     int createSubtask(Subtask subtask);
 
+    // Пакетные операции: весь пакет проверяется и применяется целиком или не применяется вовсе (BatchException)
+    List<Integer> createAll(Collection<? extends Task> items);
+
+    void updateAll(Collection<? extends Task> items);
+
     List<Subtask> getEpicSubtasks(int epicId);
 
     List<Task> getHistory();
 
+    // Последние limit просмотров, от более старого к последнему
+    List<Task> getHistory(int limit);
+
     void removeAllTasks();
 
     void removeAllEpics();
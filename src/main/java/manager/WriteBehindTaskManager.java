@@ -0,0 +1,305 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Менеджер с отложенной записью: изменения и просмотры только помечают состояние "грязным",
+// а файл перезаписывается фоновым потоком раз в flushIntervalMillis или после flushEveryOperations операций.
+// flush() сохраняет немедленно, close() (и завершение JVM) сохраняет последние изменения.
+// Все методы работают под монитором менеджера, а запись снимка - нет: flush() под монитором только сериализует
+// состояние в память и снимает пометку, а файл пишет уже без блокировки, так что операции не ждут диска.
+// Порядок захвата: flushLock -> монитор менеджера; изменения сбрасывают файл по порогу после выхода из монитора.
+public class WriteBehindTaskManager extends FileBackedTaskManager implements AutoCloseable {
+
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+    public static final int DEFAULT_FLUSH_EVERY_OPERATIONS = 1000;
+
+    private final int flushEveryOperations;
+    private final ScheduledExecutorService flusher;
+    private final Thread shutdownHook;
+    // Сериализует записи файла, чтобы более старый снимок не перезаписал более новый
+    private final Object flushLock = new Object();
+    private boolean dirty;
+    private int operationsSinceFlush;
+    private boolean closed;
+
+    public WriteBehindTaskManager(File file, long flushIntervalMillis, int flushEveryOperations) {
+        super(file);
+        if (flushIntervalMillis <= 0 || flushEveryOperations <= 0) {
+            throw new IllegalArgumentException("Интервал и порог сброса должны быть положительными.");
+        }
+        this.flushEveryOperations = flushEveryOperations;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-manager-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        this.shutdownHook = new Thread(this::flushQuietly, "task-manager-shutdown-flush");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    public WriteBehindTaskManager(File file) {
+        this(file, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_FLUSH_EVERY_OPERATIONS);
+    }
+
+    public static WriteBehindTaskManager loadFromFile(File file, long flushIntervalMillis, int flushEveryOperations)
+            throws ManagerSaveException {
+        WriteBehindTaskManager manager = new WriteBehindTaskManager(file, flushIntervalMillis, flushEveryOperations);
+        synchronized (manager) {
+            manager.load();
+            manager.dirty = false;
+            manager.operationsSinceFlush = 0;
+        }
+        return manager;
+    }
+
+    // Вместо перезаписи файла только отмечаем, что есть несохранённые изменения. Порог проверяет writing
+    // уже после выхода из монитора
+    @Override
+    protected synchronized void save() {
+        dirty = true;
+        operationsSinceFlush++;
+    }
+
+    public void flush() {
+        synchronized (flushLock) {
+            String snapshot;
+            synchronized (this) {
+                if (!dirty) {
+                    return;
+                }
+                StringWriter buffer = new StringWriter();
+                try {
+                    writeSnapshot(buffer);
+                } catch (IOException e) {
+                    throw new ManagerSaveException("Ошибка сохранения задач в файл: " + getFile().getName(), e);
+                }
+                snapshot = buffer.toString();
+                dirty = false;
+                operationsSinceFlush = 0;
+            }
+            try (FileWriter writer = new FileWriter(getFile())) {
+                writer.write(snapshot);
+            } catch (IOException e) {
+                synchronized (this) {
+                    dirty = true;
+                }
+                throw new ManagerSaveException("Ошибка сохранения задач в файл: " + getFile().getName(), e);
+            }
+        }
+    }
+
+    // Операция под монитором, затем сброс файла, если набралось flushEveryOperations изменений
+    private <T> T writing(Supplier<T> action) {
+        T result;
+        boolean due;
+        synchronized (this) {
+            result = action.get();
+            due = operationsSinceFlush >= flushEveryOperations;
+        }
+        if (due) {
+            flush();
+        }
+        return result;
+    }
+
+    private void writing(Runnable action) {
+        writing(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public synchronized boolean isDirty() {
+        return dirty;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (ManagerSaveException e) {
+            System.err.println("Ошибка фонового сохранения: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        flusher.shutdown();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // JVM уже завершается, хук сохранит сам
+        }
+        flush();
+    }
+
+    @Override
+    public int createTask(Task task) {
+        return writing(() -> super.createTask(task));
+    }
+
+    @Override
+    public int createEpic(Epic epic) {
+        return writing(() -> super.createEpic(epic));
+    }
+
+    @Override
+    public int createSubtask(Subtask subtask) {
+        return writing(() -> super.createSubtask(subtask));
+    }
+
+    @Override
+    public List<Integer> createAll(Collection<? extends Task> items) {
+        return writing(() -> super.createAll(items));
+    }
+
+    @Override
+    public void updateAll(Collection<? extends Task> items) {
+        writing(() -> super.updateAll(items));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        writing(() -> super.updateTask(task));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        writing(() -> super.updateEpic(epic));
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        writing(() -> super.updateSubtask(subtask));
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        writing(() -> super.deleteTask(id));
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        writing(() -> super.deleteEpic(id));
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        writing(() -> super.deleteSubtask(id));
+    }
+
+    @Override
+    public void removeAllTasks() {
+        writing(() -> super.removeAllTasks());
+    }
+
+    @Override
+    public void removeAllEpics() {
+        writing(() -> super.removeAllEpics());
+    }
+
+    @Override
+    public void removeAllSubtasks() {
+        writing(() -> super.removeAllSubtasks());
+    }
+
+    @Override
+    public Task getTask(int id) {
+        return writing(() -> super.getTask(id));
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        return writing(() -> SynchronizedTaskManager.copyOf(super.getEpic(id)));
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        return writing(() -> super.getSubtask(id));
+    }
+
+    @Override
+    public synchronized Task peekTask(int id) {
+        return super.peekTask(id);
+    }
+
+    @Override
+    public synchronized Epic peekEpic(int id) {
+        return SynchronizedTaskManager.copyOf(super.peekEpic(id));
+    }
+
+    @Override
+    public synchronized Subtask peekSubtask(int id) {
+        return super.peekSubtask(id);
+    }
+
+    @Override
+    public synchronized boolean containsTask(int id) {
+        return super.containsTask(id);
+    }
+
+    @Override
+    public synchronized boolean containsEpic(int id) {
+        return super.containsEpic(id);
+    }
+
+    @Override
+    public synchronized boolean containsSubtask(int id) {
+        return super.containsSubtask(id);
+    }
+
+    @Override
+    public synchronized List<Task> getTasks() {
+        return super.getTasks();
+    }
+
+    @Override
+    public synchronized List<Epic> getEpics() {
+        return SynchronizedTaskManager.withEpicCopies(super.getEpics());
+    }
+
+    @Override
+    public synchronized List<Subtask> getSubtasks() {
+        return super.getSubtasks();
+    }
+
+    @Override
+    public synchronized List<Subtask> getEpicSubtasks(int epicId) {
+        return super.getEpicSubtasks(epicId);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return SynchronizedTaskManager.withEpicCopies(super.getHistory());
+    }
+
+    @Override
+    public synchronized List<Task> getHistory(int limit) {
+        return SynchronizedTaskManager.withEpicCopies(super.getHistory(limit));
+    }
+
+    @Override
+    public synchronized List<Task> getPrioritizedTasks() {
+        return SynchronizedTaskManager.withEpicCopies(super.getPrioritizedTasks());
+    }
+}
@@ -2,13 +2,47 @@ package model;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PrimitiveIterator;
+import java.util.TreeMap;
 
 public class Epic extends Task {
-    private List<Integer> subtaskIds = new ArrayList<>();
+    private OrderedIntSet subtaskIds = new OrderedIntSet();
     private LocalDateTime endTime = null;
 
+    // Агрегаты по подзадачам, чтобы пересчитывать статус и время эпика за O(log k), а не обходом всех подзадач.
+    // Поля transient, поэтому Gson их не сериализует
+    private transient Map<Integer, SubtaskSnapshot> trackedSubtasks = new HashMap<>();
+    private transient int newCount = 0;
+    private transient int doneCount = 0;
+    private transient Duration totalDuration = Duration.ZERO;
+    private transient NavigableMap<LocalDateTime, Integer> startTimes = new TreeMap<>();
+    private transient NavigableMap<LocalDateTime, Integer> endTimes = new TreeMap<>();
+
+    // Запоминаем, с какими значениями подзадача вошла в агрегаты, чтобы вычесть ровно их,
+    // даже если объект подзадачи потом изменили снаружи
+    private static class SubtaskSnapshot {
+        private final TaskStatus status;
+        private final Duration duration;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+
+        SubtaskSnapshot(Subtask subtask) {
+            this.status = subtask.getStatus();
+            this.duration = subtask.getDuration();
+            if (subtask.getStartTime() != null && subtask.getDuration() != null) {
+                this.startTime = subtask.getStartTime();
+                this.endTime = subtask.getEndTime();
+            } else {
+                this.startTime = null;
+                this.endTime = null;
+            }
+        }
+    }
+
     public Epic(String name, String description) {
         super(name, description);
         this.status = TaskStatus.NEW;
@@ -31,8 +65,31 @@ public class Epic extends Task {
     }
 
 
+    // Копия полей и id подзадач на момент вызова, без агрегатов. Её можно отдавать наружу, пока сам эпик
+    // продолжают менять другие потоки
+    public Epic copy() {
+        Epic copy = new Epic(name, description, id, status);
+        copy.duration = duration;
+        copy.startTime = startTime;
+        copy.endTime = endTime;
+        for (PrimitiveIterator.OfInt ids = subtaskIds.iterator(); ids.hasNext(); ) {
+            copy.subtaskIds.add(ids.nextInt());
+        }
+        return copy;
+    }
+
+    // Id подзадач в порядке добавления: представление только для чтения, без копирования
     public List<Integer> getSubtaskIds() {
-        return subtaskIds;
+        return subtaskIds.asList();
+    }
+
+    // Обход id подзадач без упаковки
+    public PrimitiveIterator.OfInt subtaskIdIterator() {
+        return subtaskIds.iterator();
+    }
+
+    public boolean hasSubtaskId(int subtaskId) {
+        return subtaskIds.contains(subtaskId);
     }
 
     public void addSubtaskId(int subtaskId) {
@@ -40,7 +97,11 @@ public class Epic extends Task {
     }
 
     public void removeSubtaskId(int subtaskId) {
-        subtaskIds.remove((Integer) subtaskId);
+        subtaskIds.remove(subtaskId);
+    }
+
+    public void clearSubtaskIds() {
+        subtaskIds.clear();
     }
 
     @Override
@@ -70,6 +131,80 @@ public class Epic extends Task {
         this.startTime = startTime;
     }
 
+    // Учитывает подзадачу в статусе и времени эпика. Если подзадача с таким id уже учтена, её старые значения заменяются
+    public void trackSubtask(Subtask subtask) {
+        SubtaskSnapshot previous = trackedSubtasks.remove(subtask.getId());
+        if (previous != null) {
+            subtract(previous);
+        }
+        SubtaskSnapshot snapshot = new SubtaskSnapshot(subtask);
+        trackedSubtasks.put(subtask.getId(), snapshot);
+        add(snapshot);
+        applyAggregates();
+    }
+
+    public void untrackSubtask(int subtaskId) {
+        SubtaskSnapshot previous = trackedSubtasks.remove(subtaskId);
+        if (previous != null) {
+            subtract(previous);
+            applyAggregates();
+        }
+    }
+
+    public void clearTrackedSubtasks() {
+        trackedSubtasks.clear();
+        newCount = 0;
+        doneCount = 0;
+        totalDuration = Duration.ZERO;
+        startTimes.clear();
+        endTimes.clear();
+        applyAggregates();
+    }
+
+    private void add(SubtaskSnapshot snapshot) {
+        if (snapshot.status == TaskStatus.NEW) {
+            newCount++;
+        } else if (snapshot.status == TaskStatus.DONE) {
+            doneCount++;
+        }
+        if (snapshot.duration != null) {
+            totalDuration = totalDuration.plus(snapshot.duration);
+        }
+        if (snapshot.startTime != null) {
+            startTimes.merge(snapshot.startTime, 1, Integer::sum);
+            endTimes.merge(snapshot.endTime, 1, Integer::sum);
+        }
+    }
+
+    private void subtract(SubtaskSnapshot snapshot) {
+        if (snapshot.status == TaskStatus.NEW) {
+            newCount--;
+        } else if (snapshot.status == TaskStatus.DONE) {
+            doneCount--;
+        }
+        if (snapshot.duration != null) {
+            totalDuration = totalDuration.minus(snapshot.duration);
+        }
+        if (snapshot.startTime != null) {
+            startTimes.computeIfPresent(snapshot.startTime, (time, count) -> count > 1 ? count - 1 : null);
+            endTimes.computeIfPresent(snapshot.endTime, (time, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private void applyAggregates() {
+        int total = trackedSubtasks.size();
+        if (newCount == total) {
+            this.status = TaskStatus.NEW;
+        } else if (doneCount == total) {
+            this.status = TaskStatus.DONE;
+        } else {
+            this.status = TaskStatus.IN_PROGRESS;
+        }
+        this.duration = totalDuration;
+        this.startTime = startTimes.isEmpty() ? null : startTimes.firstKey();
+        this.endTime = endTimes.isEmpty() ? null : endTimes.lastKey();
+    }
+
     @Override
     public String toString() {
         return "Epic{" +
@@ -77,7 +212,7 @@ public class Epic extends Task {
                 ", name='" + name + '\'' +
                 ", description='" + description + '\'' +
                 ", status=" + status +
-                ", subtaskIds=" + subtaskIds +
+                ", subtaskIds=" + subtaskIds.asList() +
                 ", duration=" + duration +
                 ", startTime=" + startTime +
                 ", endTime=" + endTime +
@@ -0,0 +1,274 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+// Множество int в порядке добавления для id подзадач эпика. Значения лежат подряд в elements, позиция значения
+// ищется в таблице с открытой адресацией (keys/positions, линейное пробирование, удаление сдвигом), поэтому
+// contains, add и remove - O(1) без упаковки. Удалённое значение оставляет дыру (бит в removed), дыры
+// схлопываются, когда их становится больше половины, так что обход остаётся линейным по числу значений.
+// asList() - представление только для чтения без копирования. Класс - Set<Integer>, поэтому Gson и без адаптера
+// пишет и читает его как массив чисел; методы с int не упаковывают значения
+public final class OrderedIntSet extends AbstractSet<Integer> {
+
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int NONE = -1;
+    private static final int[] EMPTY = new int[0];
+
+    private int[] elements = EMPTY;
+    private long[] removed = new long[0];
+    private int end;
+    private int size;
+    private int modCount;
+
+    private int[] keys;
+    private int[] positions;
+    private int mask;
+
+    private List<Integer> view;
+
+    public OrderedIntSet() {
+        allocateTable(INITIAL_CAPACITY);
+    }
+
+    private void allocateTable(int capacity) {
+        int length = Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+        keys = new int[length];
+        positions = new int[length];
+        Arrays.fill(positions, NONE);
+        mask = length - 1;
+    }
+
+    private static int hash(int value) {
+        return value ^ (value >>> 16);
+    }
+
+    private int find(int value) {
+        for (int i = hash(value) & mask; positions[i] != NONE; i = (i + 1) & mask) {
+            if (keys[i] == value) {
+                return i;
+            }
+        }
+        return NONE;
+    }
+
+    private void putPosition(int value, int position) {
+        int i = hash(value) & mask;
+        while (positions[i] != NONE) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = value;
+        positions[i] = position;
+    }
+
+    private void removeEntry(int i) {
+        positions[i] = NONE;
+        for (int j = (i + 1) & mask; positions[j] != NONE; j = (j + 1) & mask) {
+            int home = hash(keys[j]) & mask;
+            boolean staysInPlace = i <= j ? (home > i && home <= j) : (home > i || home <= j);
+            if (!staysInPlace) {
+                keys[i] = keys[j];
+                positions[i] = positions[j];
+                positions[j] = NONE;
+                i = j;
+            }
+        }
+    }
+
+    private boolean isRemoved(int position) {
+        return (removed[position >>> 6] & (1L << position)) != 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int value) {
+        return find(value) != NONE;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer && contains((int) (Integer) o);
+    }
+
+    @Override
+    public boolean add(Integer value) {
+        return add((int) value);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Integer && remove((int) (Integer) o);
+    }
+
+    // Добавляет значение в конец; повторное добавление ничего не меняет
+    public boolean add(int value) {
+        if (find(value) != NONE) {
+            return false;
+        }
+        if (end == elements.length) {
+            if (end - size > 0) {
+                compact();
+            } else {
+                grow();
+            }
+        }
+        elements[end] = value;
+        putPosition(value, end);
+        end++;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    public boolean remove(int value) {
+        int entry = find(value);
+        if (entry == NONE) {
+            return false;
+        }
+        int position = positions[entry];
+        removeEntry(entry);
+        size--;
+        modCount++;
+        if (position == end - 1) {
+            end--;
+            while (end > size && isRemoved(end - 1)) {
+                end--;
+                removed[end >>> 6] &= ~(1L << end);
+            }
+        } else {
+            removed[position >>> 6] |= 1L << position;
+            if ((end - size) * 2 > end) {
+                compact();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        if (end > 0) {
+            Arrays.fill(positions, NONE);
+            Arrays.fill(removed, 0L);
+            end = 0;
+            size = 0;
+            modCount++;
+        }
+    }
+
+    // Сдвигает значения к началу, убирая дыры, и обновляет их позиции в таблице
+    private void compact() {
+        int to = 0;
+        for (int from = 0; from < end; from++) {
+            if (!isRemoved(from)) {
+                if (to != from) {
+                    int value = elements[from];
+                    elements[to] = value;
+                    positions[find(value)] = to;
+                }
+                to++;
+            }
+        }
+        Arrays.fill(removed, 0L);
+        end = to;
+    }
+
+    private void grow() {
+        int capacity = Math.max(INITIAL_CAPACITY, elements.length * 2);
+        elements = Arrays.copyOf(elements, capacity);
+        removed = Arrays.copyOf(removed, (capacity + 63) >>> 6);
+        if (capacity * 2 > mask + 1) {
+            allocateTable(capacity);
+            for (int position = 0; position < end; position++) {
+                putPosition(elements[position], position);
+            }
+        }
+    }
+
+    // Обход без упаковки через nextInt
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new Values();
+    }
+
+    private final class Values implements PrimitiveIterator.OfInt {
+        private final int expected = modCount;
+        private int position = skipRemoved(0);
+
+        private int skipRemoved(int from) {
+            while (from < end && isRemoved(from)) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < end;
+        }
+
+        @Override
+        public int nextInt() {
+            if (modCount != expected) {
+                throw new ConcurrentModificationException();
+            }
+            if (position >= end) {
+                throw new NoSuchElementException();
+            }
+            int value = elements[position];
+            position = skipRemoved(position + 1);
+            return value;
+        }
+    }
+
+    // Представление только для чтения; при дырах get(i) проходит значения с начала
+    public List<Integer> asList() {
+        if (view == null) {
+            view = new AbstractList<>() {
+                @Override
+                public Integer get(int index) {
+                    if (index < 0 || index >= size) {
+                        throw new IndexOutOfBoundsException("Индекс " + index + " при размере " + size);
+                    }
+                    if (end == size) {
+                        return elements[index];
+                    }
+                    PrimitiveIterator.OfInt values = OrderedIntSet.this.iterator();
+                    for (int i = 0; i < index; i++) {
+                        values.nextInt();
+                    }
+                    return values.nextInt();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return o instanceof Integer && OrderedIntSet.this.contains((Integer) o);
+                }
+
+                @Override
+                public Iterator<Integer> iterator() {
+                    return OrderedIntSet.this.iterator();
+                }
+            };
+        }
+        return view;
+    }
+}
@@ -0,0 +1,75 @@
+package http;
+
+import com.google.gson.Gson;
+import manager.InMemoryTaskManager;
+import manager.SynchronizedTaskManager;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTaskServerConcurrencyTest {
+
+    private HttpTaskServer taskServer;
+
+    @AfterEach
+    public void shutDown() {
+        if (taskServer != null) {
+            taskServer.stop();
+        }
+    }
+
+    @Test
+    void testThreadPoolHandlesConcurrentRequests() throws IOException {
+        taskServer = new HttpTaskServer(new InMemoryTaskManager(), ExecutionMode.THREAD_POOL, 4, 64);
+        taskServer.start();
+        assertTrue(taskServer.getTaskManager() instanceof SynchronizedTaskManager,
+                "В многопоточном режиме менеджер должен быть потокобезопасным.");
+
+        Gson gson = HttpTaskServer.getGson();
+        HttpClient client = HttpClient.newHttpClient();
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String json = gson.toJson(new Task("Task " + i, "Desc"));
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/tasks"))
+                    .POST(HttpRequest.BodyPublishers.ofString(json))
+                    .build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.join().statusCode(), "Expected 200 OK for every concurrent creation.");
+        }
+        assertEquals(50, taskServer.getTaskManager().getTasks().size(), "All tasks should be created.");
+    }
+
+    @Test
+    void testSingleThreadedModeKeepsManagerAsIs() throws IOException {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        taskServer = new HttpTaskServer(manager);
+        taskServer.start();
+        assertSame(manager, taskServer.getTaskManager());
+    }
+
+    @Test
+    void testUnavailableModeCannotBeSelected() throws IOException {
+        if (ExecutionMode.VIRTUAL_THREADS.isAvailable()) {
+            taskServer = new HttpTaskServer(new InMemoryTaskManager(), ExecutionMode.VIRTUAL_THREADS, 1, 0);
+            assertTrue(taskServer.getTaskManager() instanceof SynchronizedTaskManager);
+        } else {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new HttpTaskServer(new InMemoryTaskManager(), ExecutionMode.VIRTUAL_THREADS, 1, 0));
+        }
+    }
+}
@@ -186,4 +186,81 @@ public class HttpTaskServerHistoryTest {
         assertNotNull(history, "History list should not be null.");
         assertTrue(history.isEmpty(), "History should be empty after deleting epic and its subtasks.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testHistoryIsStreamedWithSameJsonAsBefore() throws IOException, InterruptedException {
+        int taskId = taskManager.createTask(new Task("Task 1", "Desc 1", Duration.ofMinutes(30), LocalDateTime.now()));
+        int epicId = taskManager.createEpic(new Epic("Epic 1", "Epic Desc 1"));
+        taskManager.getTask(taskId);
+        taskManager.getEpic(epicId);
+
+        URI url = URI.create("http://localhost:8080/history");
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(url)
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode(), "Expected 200 OK for history endpoint.");
+        assertEquals("chunked", response.headers().firstValue("Transfer-Encoding").orElse(null),
+                "List responses should be streamed without Content-Length.");
+        assertEquals(gson.toJson(taskManager.getHistory()), response.body(),
+                "Streamed JSON should match the previous serialization.");
+    }
+
+    @Test
+    void testGetHistoryWithLimit() throws IOException, InterruptedException {
+        int taskId1 = taskManager.createTask(new Task("Task 1", "Desc 1"));
+        int taskId2 = taskManager.createTask(new Task("Task 2", "Desc 2"));
+        int taskId3 = taskManager.createTask(new Task("Task 3", "Desc 3"));
+        taskManager.getTask(taskId1);
+        taskManager.getTask(taskId2);
+        taskManager.getTask(taskId3);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/history?limit=2"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        List<Task> history = gson.fromJson(response.body(), new com.google.gson.reflect.TypeToken<List<Task>>(){}.getType());
+        assertEquals(2, history.size(), "Only the two most recent views should be returned.");
+        assertEquals(taskId2, history.get(0).getId());
+        assertEquals(taskId3, history.get(1).getId());
+
+        HttpRequest badRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/history?limit=abc"))
+                .GET()
+                .build();
+        assertEquals(400, client.send(badRequest, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    void testHistoryIsScopedByClientId() throws IOException, InterruptedException {
+        int taskId = taskManager.createTask(new Task("Task 1", "Desc 1"));
+        int epicId = taskManager.createEpic(new Epic("Epic 1", "Epic Desc 1"));
+
+        client.send(HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/tasks?id=" + taskId))
+                .header("X-Client-Id", "alice").GET().build(), HttpResponse.BodyHandlers.ofString());
+        client.send(HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/epics?id=" + epicId))
+                .header("X-Client-Id", "bob").GET().build(), HttpResponse.BodyHandlers.ofString());
+
+        HttpResponse<String> alice = client.send(HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/history"))
+                .header("X-Client-Id", "alice").GET().build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> bob = client.send(HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/history"))
+                .header("X-Client-Id", "bob").GET().build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> shared = client.send(HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/history"))
+                .GET().build(), HttpResponse.BodyHandlers.ofString());
+
+        List<Task> aliceHistory = gson.fromJson(alice.body(), new com.google.gson.reflect.TypeToken<List<Task>>(){}.getType());
+        List<Task> bobHistory = gson.fromJson(bob.body(), new com.google.gson.reflect.TypeToken<List<Task>>(){}.getType());
+        assertEquals(1, aliceHistory.size());
+        assertEquals(taskId, aliceHistory.get(0).getId());
+        assertEquals(1, bobHistory.size());
+        assertEquals(epicId, bobHistory.get(0).getId());
+        assertEquals("[]", shared.body(), "Client views should not leak into the shared history.");
+        assertEquals(2, taskServer.getSessions().getSessionCount());
+    }
+}
@@ -10,13 +10,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -257,4 +260,64 @@ public class HttpTaskServerTasksTest {
         HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
         assertEquals(400, response.statusCode(), "Expected 400 Bad Request for invalid ID format");
     }
+
+    // Тесты формата ответа: компактный JSON, ?pretty и gzip
+    @Test
+    void testTasksAreCompactByDefaultAndPrettyOnRequest() throws IOException, InterruptedException {
+        int taskId = manager.createTask(testTask);
+        HttpClient client = HttpClient.newHttpClient();
+
+        HttpRequest compactRequest = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/tasks?id=" + taskId)).GET().build();
+        HttpResponse<String> compact = client.send(compactRequest, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, compact.statusCode());
+        assertFalse(compact.body().contains("\n"), "Default response should be compact");
+
+        HttpRequest prettyRequest = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/tasks?id=" + taskId + "&pretty")).GET().build();
+        HttpResponse<String> pretty = client.send(prettyRequest, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, pretty.statusCode());
+        assertTrue(pretty.body().contains("\n  "), "?pretty should return formatted JSON");
+        assertEquals(taskId, gson.fromJson(pretty.body(), Task.class).getId());
+
+        HttpRequest prettyListRequest = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/tasks?pretty=true")).GET().build();
+        HttpResponse<String> prettyList = client.send(prettyListRequest, HttpResponse.BodyHandlers.ofString());
+        assertTrue(prettyList.body().contains("\n  "), "?pretty should apply to lists as well");
+    }
+
+    @Test
+    void testLargeTaskListIsGzippedWhenAccepted() throws IOException, InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            manager.createTask(new Task("Task " + i, "Description " + i));
+        }
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create("http://localhost:8080/tasks");
+
+        HttpRequest gzipRequest = HttpRequest.newBuilder().uri(url).header("Accept-Encoding", "gzip").GET().build();
+        HttpResponse<InputStream> gzipped = client.send(gzipRequest, HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, gzipped.statusCode());
+        assertEquals("gzip", gzipped.headers().firstValue("Content-Encoding").orElse(null));
+        String body;
+        try (InputStream in = new GZIPInputStream(gzipped.body())) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<Task> tasks = gson.fromJson(body, new com.google.gson.reflect.TypeToken<List<Task>>() {}.getType());
+        assertEquals(100, tasks.size(), "Decompressed body should contain all tasks");
+
+        HttpRequest plainRequest = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> plain = client.send(plainRequest, HttpResponse.BodyHandlers.ofString());
+        assertTrue(plain.headers().firstValue("Content-Encoding").isEmpty(), "Without Accept-Encoding response should not be compressed");
+        assertEquals(body, plain.body());
+    }
+
+    @Test
+    void testSmallResponseIsNotGzipped() throws IOException, InterruptedException {
+        int taskId = manager.createTask(testTask);
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/tasks?id=" + taskId))
+                .header("Accept-Encoding", "gzip").GET().build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty(), "Responses below threshold should not be compressed");
+        assertEquals(taskId, gson.fromJson(response.body(), Task.class).getId());
+    }
 }
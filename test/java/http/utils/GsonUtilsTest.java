@@ -0,0 +1,92 @@
+package http.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GsonUtilsTest {
+
+    private final Gson gson = GsonUtils.getGson();
+
+    // Прежний вариант: рефлексия Gson и только адаптеры времени
+    private final Gson reflectiveGson = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new GsonUtils.LocalDateTimeAdapter())
+            .registerTypeAdapter(Duration.class, new GsonUtils.DurationAdapter())
+            .create();
+
+    private void assertSameJson(Object value) {
+        assertEquals(JsonParser.parseString(reflectiveGson.toJson(value)), JsonParser.parseString(gson.toJson(value)),
+                "Adapter output should contain the same fields as reflective serialization");
+    }
+
+    @Test
+    void testAdaptersWriteSameFieldsAsReflection() {
+        Task task = new Task("Task", "Description", 1, TaskStatus.IN_PROGRESS, Duration.ofMinutes(30), LocalDateTime.of(2024, 1, 1, 10, 0));
+        Task untimed = new Task("Task", null, 2, TaskStatus.NEW);
+        Subtask subtask = new Subtask("Subtask", "Description", 4, TaskStatus.DONE, 3, Duration.ofMinutes(15), LocalDateTime.of(2024, 1, 1, 12, 0));
+        Epic epic = new Epic("Epic", "Description", 3, TaskStatus.DONE);
+        epic.addSubtaskId(4);
+        epic.setCalculatedDuration(Duration.ofMinutes(15));
+        epic.setCalculatedStartTime(subtask.getStartTime());
+        epic.setEndTime(subtask.getEndTime());
+
+        assertSameJson(task);
+        assertSameJson(untimed);
+        assertSameJson(subtask);
+        assertSameJson(epic);
+        assertSameJson(new Epic("Empty epic", "Description"));
+    }
+
+    @Test
+    void testListOfTasksKeepsRuntimeTypeFields() {
+        Epic epic = new Epic("Epic", "Description", 1, TaskStatus.NEW);
+        epic.addSubtaskId(2);
+        Subtask subtask = new Subtask("Subtask", "Description", 2, TaskStatus.NEW, 1, null, null);
+        List<Task> history = List.of(epic, subtask);
+
+        String json = gson.toJson(history, new TypeToken<List<Task>>() {}.getType());
+
+        assertEquals(JsonParser.parseString(reflectiveGson.toJson(history)), JsonParser.parseString(json));
+    }
+
+    @Test
+    void testReadUsesModelDefaults() {
+        Subtask subtask = gson.fromJson("{\"name\":\"Subtask\",\"epicId\":7,\"unknown\":{\"a\":[1]}}", Subtask.class);
+        assertEquals("Subtask", subtask.getName());
+        assertEquals(7, subtask.getEpicId());
+        assertEquals(TaskStatus.NEW, subtask.getStatus());
+        assertEquals(Duration.ZERO, subtask.getDuration());
+
+        Epic epic = gson.fromJson("{\"id\":5,\"name\":\"Epic\",\"subtaskIds\":[6,7],\"endTime\":\"2024-01-01T10:00:00\"}", Epic.class);
+        assertEquals(5, epic.getId());
+        assertEquals(List.of(6, 7), epic.getSubtaskIds());
+        assertEquals(TaskStatus.NEW, epic.getStatus());
+        assertEquals(Duration.ZERO, epic.getDuration());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 10, 0), epic.getEndTime());
+
+        Task task = gson.fromJson("{\"id\":\"9\",\"name\":\"Task\",\"status\":\"DONE\",\"duration\":\"45\",\"startTime\":null}", Task.class);
+        assertEquals(9, task.getId());
+        assertEquals(TaskStatus.DONE, task.getStatus());
+        assertEquals(Duration.ofMinutes(45), task.getDuration());
+        assertNull(task.getStartTime());
+    }
+
+    @Test
+    void testRoundTrip() {
+        Subtask subtask = new Subtask("Subtask", "Description", 4, TaskStatus.DONE, 3, Duration.ofMinutes(15), LocalDateTime.of(2024, 1, 1, 12, 0));
+        Subtask restored = gson.fromJson(gson.toJson(subtask), Subtask.class);
+        assertEquals(subtask.toString(), restored.toString());
+    }
+}
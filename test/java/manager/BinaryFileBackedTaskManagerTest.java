@@ -0,0 +1,102 @@
+package manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BinaryFileBackedTaskManagerTest extends TaskManagerTest<BinaryFileBackedTaskManager> {
+    private File tempFile;
+
+    protected TaskManager createTaskManager() {
+        return BinaryFileBackedTaskManager.loadFromFile(this.tempFile);
+    }
+
+    @BeforeEach
+    protected void setUp() {
+        try {
+            this.tempFile = File.createTempFile("test", ".bin");
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        super.setUp();
+    }
+
+    @AfterEach
+    protected void tearDown() {
+        this.tempFile.delete();
+    }
+
+    @Test
+    void saveAndLoadRestoresTasksEpicsSubtasksAndHistory() {
+        Task task = new Task("Task, with comma", "Line\nbreak", Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 10, 0, 15, 123_456_789));
+        int taskId = this.taskManager.createTask(task);
+        int untimedId = this.taskManager.createTask(new Task("Untimed", null));
+        int epicId = this.taskManager.createEpic(new Epic("Эпик", "Описание"));
+        Subtask subtask = new Subtask("Subtask", "Description", TaskStatus.DONE, epicId, Duration.ofMinutes(15L), LocalDateTime.of(1960, 1, 1, 11, 0));
+        int subtaskId = this.taskManager.createSubtask(subtask);
+        this.taskManager.getSubtask(subtaskId);
+        this.taskManager.getTask(taskId);
+
+        BinaryFileBackedTaskManager loadedManager = BinaryFileBackedTaskManager.loadFromFile(this.tempFile);
+
+        Assertions.assertEquals(this.taskManager.getTasks().toString(), loadedManager.getTasks().toString());
+        Assertions.assertEquals(this.taskManager.getSubtasks().toString(), loadedManager.getSubtasks().toString());
+        Assertions.assertEquals(this.taskManager.getEpics().toString(), loadedManager.getEpics().toString());
+        Assertions.assertNull(loadedManager.getTasks().stream().filter(t -> t.getId() == untimedId).findFirst().orElseThrow().getDescription());
+        Assertions.assertEquals(List.of(subtaskId), loadedManager.getEpics().get(0).getSubtaskIds());
+        Assertions.assertEquals(TaskStatus.DONE, loadedManager.getEpics().get(0).getStatus());
+        List<Task> history = loadedManager.getHistory();
+        Assertions.assertEquals(2, history.size());
+        Assertions.assertEquals(subtaskId, history.get(0).getId());
+        Assertions.assertEquals(taskId, history.get(1).getId());
+        Assertions.assertEquals(3, loadedManager.getPrioritizedTasks().size());
+        Assertions.assertTrue(loadedManager.createTask(new Task("Next", "Description")) > subtaskId, "Новые id не должны совпадать с загруженными.");
+    }
+
+    @Test
+    void corruptedSnapshotIsRejected() throws IOException {
+        this.taskManager.createTask(new Task("Task", "Description"));
+        try (RandomAccessFile file = new RandomAccessFile(this.tempFile, "rw")) {
+            file.seek(file.length() - 6);
+            int b = file.read();
+            file.seek(file.length() - 6);
+            file.write(b ^ 0x01);
+        }
+
+        Assertions.assertThrows(ManagerSaveException.class, () -> BinaryFileBackedTaskManager.loadFromFile(this.tempFile));
+    }
+
+    @Test
+    void convertFromCsvKeepsState() throws IOException {
+        File csvFile = File.createTempFile("test", ".csv");
+        try {
+            FileBackedTaskManager csvManager = FileBackedTaskManager.loadFromFile(csvFile);
+            int taskId = csvManager.createTask(new Task("Task", "Description", Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 10, 0)));
+            int epicId = csvManager.createEpic(new Epic("Epic", "Description"));
+            csvManager.createSubtask(new Subtask("Subtask", "Description", TaskStatus.IN_PROGRESS, epicId, null, null));
+            csvManager.getTask(taskId);
+
+            BinaryFileBackedTaskManager.convertFromCsv(csvFile, this.tempFile);
+            BinaryFileBackedTaskManager loadedManager = BinaryFileBackedTaskManager.loadFromFile(this.tempFile);
+
+            Assertions.assertEquals(csvManager.getTasks().toString(), loadedManager.getTasks().toString());
+            Assertions.assertEquals(csvManager.getEpics().toString(), loadedManager.getEpics().toString());
+            Assertions.assertEquals(csvManager.getSubtasks().toString(), loadedManager.getSubtasks().toString());
+            Assertions.assertEquals(csvManager.getHistory(), loadedManager.getHistory());
+        } finally {
+            csvFile.delete();
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package manager;
+
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BufferedHistoryManagerTest implements HistoryManagerTest<BufferedHistoryManager> {
+
+    // Перенос в фоне никогда не запускается: всё, что видно в истории, перенесено при чтении
+    @Override
+    public BufferedHistoryManager createHistoryManager() {
+        return new BufferedHistoryManager(new InMemoryHistoryManager(), task -> {
+        });
+    }
+
+    @Test
+    public void add_shouldAddTasksToHistory() {
+        HistoryManager historyManager = createHistoryManager();
+        Task task1 = new Task("Task 1", "Description 1", 1, TaskStatus.NEW);
+        Task task2 = new Task("Task 2", "Description 2", 2, TaskStatus.NEW);
+
+        historyManager.add(task1);
+        historyManager.add(task2);
+
+        List<Task> history = historyManager.getHistory();
+        assertNotNull(history);
+        assertEquals(2, history.size());
+        assertEquals(task1, history.get(0));
+        assertEquals(task2, history.get(1));
+    }
+
+    @Test
+    public void add_shouldNotAddDuplicates_onlyKeepLatest() {
+        HistoryManager historyManager = createHistoryManager();
+        Task task1 = new Task("Task 1", "Description 1", 1, TaskStatus.NEW);
+        Task task2 = new Task("Task 2", "Description 2", 2, TaskStatus.NEW);
+
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task1);
+
+        List<Task> history = historyManager.getHistory();
+        assertNotNull(history);
+        assertEquals(2, history.size());
+        assertEquals(task2, history.get(0));
+        assertEquals(task1, history.get(1));
+    }
+
+    @Test
+    public void remove_shouldRemoveTaskFromHistory() {
+        HistoryManager historyManager = createHistoryManager();
+        Task task1 = new Task("Task 1", "Description 1", 1, TaskStatus.NEW);
+        Task task2 = new Task("Task 2", "Description 2", 2, TaskStatus.NEW);
+
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.remove(1);
+
+        List<Task> history = historyManager.getHistory();
+        assertNotNull(history);
+        assertEquals(1, history.size());
+        assertEquals(task2, history.get(0));
+    }
+
+    @Test
+    public void remove_shouldHandleRemovingNonExistingTask() {
+        HistoryManager historyManager = createHistoryManager();
+        Task task1 = new Task("Task 1", "Description 1", 1, TaskStatus.NEW);
+        historyManager.add(task1);
+        historyManager.remove(2);
+
+        List<Task> history = historyManager.getHistory();
+        assertNotNull(history);
+        assertEquals(1, history.size());
+        assertEquals(task1, history.get(0));
+    }
+
+    @Test
+    public void getHistory_shouldReturnEmptyListWhenHistoryIsEmpty() {
+        HistoryManager historyManager = createHistoryManager();
+        List<Task> history = historyManager.getHistory();
+        assertNotNull(history);
+        assertTrue(history.isEmpty());
+    }
+
+    @Test
+    public void remove_shouldRemoveFromBeginning() {
+        HistoryManager historyManager = createHistoryManager();
+        Task task1 = new Task("Task 1", "Desc 1", 1, TaskStatus.NEW);
+        Task task2 = new Task("Task 2", "Desc 2", 2, TaskStatus.NEW);
+        Task task3 = new Task("Task 3", "Desc 3", 3, TaskStatus.NEW);
+
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+
+        historyManager.remove(1);
+
+        List<Task> history = historyManager.getHistory();
+        assertNotNull(history);
+        assertEquals(2, history.size());
+        assertEquals(task2, history.get(0));
+        assertEquals(task3, history.get(1));
+    }
+
+    @Test
+    public void remove_shouldRemoveFromMiddle() {
+        HistoryManager historyManager = createHistoryManager();
+        Task task1 = new Task("Task 1", "Desc 1", 1, TaskStatus.NEW);
+        Task task2 = new Task("Task 2", "Desc 2", 2, TaskStatus.NEW);
+        Task task3 = new Task("Task 3", "Desc 3", 3, TaskStatus.NEW);
+
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+
+        historyManager.remove(2);
+
+        List<Task> history = historyManager.getHistory();
+        assertNotNull(history);
+        assertEquals(2, history.size());
+        assertEquals(task1, history.get(0));
+        assertEquals(task3, history.get(1));
+    }
+
+    @Test
+    public void remove_shouldRemoveFromEnd() {
+        HistoryManager historyManager = createHistoryManager();
+        Task task1 = new Task("Task 1", "Desc 1", 1, TaskStatus.NEW);
+        Task task2 = new Task("Task 2", "Desc 2", 2, TaskStatus.NEW);
+        Task task3 = new Task("Task 3", "Desc 3", 3, TaskStatus.NEW);
+
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+
+        historyManager.remove(3);
+
+        List<Task> history = historyManager.getHistory();
+        assertNotNull(history);
+        assertEquals(2, history.size());
+        assertEquals(task1, history.get(0));
+        assertEquals(task2, history.get(1));
+    }
+
+    @Test
+    public void removeAll_shouldClearHistory() {
+        HistoryManager historyManager = createHistoryManager();
+        Task task1 = new Task("Task 1", "Desc 1", 1, TaskStatus.NEW);
+        Task task2 = new Task("Task 2", "Desc 2", 2, TaskStatus.NEW);
+
+        historyManager.add(task1);
+        historyManager.add(task2);
+
+        historyManager.removeAll();
+
+        List<Task> history = historyManager.getHistory();
+        assertNotNull(history);
+        assertTrue(history.isEmpty());
+    }
+
+    @Test
+    public void restore_shouldReplaceHistoryInGivenOrder() {
+        HistoryManager historyManager = createHistoryManager();
+        Task task1 = new Task("Task 1", "Desc 1", 1, TaskStatus.NEW);
+        Task task2 = new Task("Task 2", "Desc 2", 2, TaskStatus.NEW);
+        Task task3 = new Task("Task 3", "Desc 3", 3, TaskStatus.NEW);
+
+        historyManager.add(task3);
+        historyManager.restore(List.of(task1, task2, task1));
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(2, history.size());
+        assertEquals(task2, history.get(0));
+        assertEquals(task1, history.get(1));
+    }
+
+    @Test
+    public void getHistory_withLimit_shouldReturnMostRecentEntries() {
+        HistoryManager historyManager = createHistoryManager();
+        Task task1 = new Task("Task 1", "Desc 1", 1, TaskStatus.NEW);
+        Task task2 = new Task("Task 2", "Desc 2", 2, TaskStatus.NEW);
+        Task task3 = new Task("Task 3", "Desc 3", 3, TaskStatus.NEW);
+
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+
+        assertEquals(List.of(task2, task3), historyManager.getHistory(2));
+        assertEquals(List.of(task1, task2, task3), historyManager.getHistory(5));
+        assertTrue(historyManager.getHistory(0).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> historyManager.getHistory(-1));
+    }
+
+    @Test
+    public void add_shouldDrainFullBufferInPlaceWhenNoDrainRuns() {
+        HistoryManager historyManager = createHistoryManager();
+        List<Task> expected = new ArrayList<>();
+        for (int id = 1; id <= 100; id++) {
+            Task task = new Task("Task " + id, "Desc", id, TaskStatus.NEW);
+            historyManager.add(task);
+            expected.add(task);
+        }
+
+        assertEquals(expected, historyManager.getHistory(), "Из одного потока просмотры не должны теряться.");
+    }
+
+    @Test
+    public void add_fromManyThreadsShouldKeepHistoryConsistent() throws Exception {
+        ExecutorService drainer = Executors.newSingleThreadExecutor();
+        HistoryManager historyManager = new BufferedHistoryManager(new InMemoryHistoryManager(), drainer);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            int base = thread * 1000;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    historyManager.add(new Task("Task", "Desc", base + i % 50 + 1, TaskStatus.NEW));
+                    if (i % 100 == 0) {
+                        historyManager.getHistory(10);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10L, TimeUnit.SECONDS));
+        drainer.shutdown();
+        assertTrue(drainer.awaitTermination(10L, TimeUnit.SECONDS));
+
+        List<Task> history = historyManager.getHistory();
+        Set<Integer> ids = new HashSet<>();
+        for (Task task : history) {
+            assertTrue(ids.add(task.getId()), "В истории не должно быть повторов.");
+            assertTrue(task.getId() % 1000 >= 1 && task.getId() % 1000 <= 50);
+        }
+        assertFalse(history.isEmpty());
+    }
+
+    @Test
+    public void add_afterRemoveShouldNotReturnDeletedTaskToHistory() {
+        Set<Integer> live = new HashSet<>(List.of(1, 2));
+        HistoryManager historyManager = new BufferedHistoryManager(new InMemoryHistoryManager(), Runnable::run, live::contains);
+        Task task1 = new Task("Task 1", "Desc", 1, TaskStatus.NEW);
+        Task task2 = new Task("Task 2", "Desc", 2, TaskStatus.NEW);
+        historyManager.add(task1);
+        historyManager.add(task2);
+
+        // getTask прочитал задачу до удаления, а записал просмотр уже после него
+        live.remove(1);
+        historyManager.remove(1);
+        historyManager.add(task1);
+
+        assertEquals(List.of(task2), historyManager.getHistory());
+    }
+}
@@ -0,0 +1,205 @@
+package manager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Override
+    protected TaskManager createTaskManager() {
+        return new ConcurrentTaskManager();
+    }
+
+    @Test
+    void concurrentCreationNeverProducesOverlappingIntervals() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            futures.add(pool.submit(() -> {
+                for (int slot = 0; slot < 200; slot++) {
+                    try {
+                        this.taskManager.createTask(new Task("Task", "Desc", Duration.ofMinutes(30L), BASE.plusMinutes(slot * 20L)));
+                    } catch (ManagerSaveException e) {
+                        // Слот уже занят другим потоком
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        Assertions.assertTrue(pool.awaitTermination(10L, TimeUnit.SECONDS));
+
+        List<Task> prioritized = this.taskManager.getPrioritizedTasks();
+        Assertions.assertEquals(this.taskManager.getTasks().size(), prioritized.size());
+        for (int i = 1; i < prioritized.size(); i++) {
+            Assertions.assertFalse(prioritized.get(i).getStartTime().isBefore(prioritized.get(i - 1).getEndTime()),
+                    "Интервалы задач не должны пересекаться.");
+        }
+    }
+
+    @Test
+    void concurrentSubtaskWritesKeepEpicAggregatesCorrect() throws Exception {
+        List<Integer> epicIds = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            epicIds.add(this.taskManager.createEpic(new Epic("Epic " + i, "Desc")));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            int epicId = epicIds.get(thread);
+            int offset = thread;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    LocalDateTime start = BASE.plusDays(offset).plusMinutes(i * 5L);
+                    this.taskManager.createSubtask(new Subtask("Subtask", "Desc", TaskStatus.DONE, epicId, Duration.ofMinutes(5L), start));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        Assertions.assertTrue(pool.awaitTermination(10L, TimeUnit.SECONDS));
+
+        for (int epicId : epicIds) {
+            Epic epic = this.taskManager.getEpic(epicId);
+            List<Subtask> epicSubtasks = this.taskManager.getEpicSubtasks(epicId);
+            Assertions.assertEquals(200, epicSubtasks.size());
+            Assertions.assertEquals(TaskStatus.DONE, epic.getStatus());
+            Assertions.assertEquals(Duration.ofMinutes(5L * 200), epic.getDuration());
+            LocalDateTime earliest = epicSubtasks.stream().map(Subtask::getStartTime).min(LocalDateTime::compareTo).orElseThrow();
+            LocalDateTime latest = epicSubtasks.stream().map(Subtask::getEndTime).max(LocalDateTime::compareTo).orElseThrow();
+            Assertions.assertEquals(earliest, epic.getStartTime());
+            Assertions.assertEquals(latest, epic.getEndTime());
+        }
+    }
+
+    @Test
+    void concurrentMovesAndDeletesBetweenEpicsDoNotDeadlock() throws Exception {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager(4);
+        List<Integer> epicIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            epicIds.add(manager.createEpic(new Epic("Epic " + i, "Desc")));
+        }
+        List<Integer> subtaskIds = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            subtaskIds.add(manager.createSubtask(new Subtask("Subtask", "Desc", TaskStatus.NEW, epicIds.get(i % 4), null, null)));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            int seed = thread;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    int subtaskId = subtaskIds.get((seed * 7 + i) % subtaskIds.size());
+                    if (seed == 0 && i % 100 == 99) {
+                        manager.deleteSubtask(subtaskId);
+                        continue;
+                    }
+                    int epicId = epicIds.get((seed + i) % epicIds.size());
+                    try {
+                        manager.updateSubtask(new Subtask("Moved", "Desc", subtaskId, TaskStatus.DONE, epicId, null, null));
+                    } catch (IllegalArgumentException e) {
+                        // Подзадачу уже удалили
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30L, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        Assertions.assertTrue(pool.awaitTermination(10L, TimeUnit.SECONDS));
+
+        int listed = 0;
+        for (int epicId : epicIds) {
+            for (Subtask subtask : manager.getEpicSubtasks(epicId)) {
+                Assertions.assertEquals(epicId, subtask.getEpicId(), "Подзадача должна числиться только в своём эпике.");
+                listed++;
+            }
+        }
+        Assertions.assertEquals(manager.getSubtasks().size(), listed);
+    }
+
+    @Test
+    void epicsAreReturnedAsCopiesConsistentWithConcurrentWriters() throws Exception {
+        int epicId = this.taskManager.createEpic(new Epic("Epic", "Desc"));
+        Epic before = this.taskManager.getEpic(epicId);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Future<?> writer = pool.submit(() -> {
+            for (int i = 0; i < 2000; i++) {
+                int id = this.taskManager.createSubtask(new Subtask("Subtask", "Desc", TaskStatus.DONE, epicId, Duration.ofMinutes(1L), BASE.plusMinutes(i * 2L)));
+                if (i % 3 == 0) {
+                    this.taskManager.deleteSubtask(id);
+                }
+            }
+        });
+        Future<?> reader = pool.submit(() -> {
+            while (!writer.isDone()) {
+                for (Epic epic : this.taskManager.getEpics()) {
+                    Assertions.assertEquals(epic.getSubtaskIds().size(), epic.getSubtaskIds().stream().distinct().count());
+                    Assertions.assertNotNull(epic.toString());
+                }
+                Epic epic = this.taskManager.peekEpic(epicId);
+                if (epic.getStartTime() != null) {
+                    Assertions.assertFalse(epic.getEndTime().isBefore(epic.getStartTime()));
+                }
+            }
+        });
+        writer.get(30L, TimeUnit.SECONDS);
+        reader.get(30L, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        Assertions.assertTrue(before.getSubtaskIds().isEmpty(), "Выданная копия не должна меняться вместе с эпиком.");
+        Assertions.assertEquals(this.taskManager.getEpicSubtasks(epicId).size(), this.taskManager.getEpic(epicId).getSubtaskIds().size());
+    }
+
+    @Test
+    void viewsRacingWithDeletesDoNotReturnDeletedTasksToHistory() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int round = 0; round < 50; round++) {
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                ids.add(this.taskManager.createTask(new Task("Task", "Desc")));
+            }
+            Future<?> deleter = pool.submit(() -> {
+                for (int id : ids) {
+                    this.taskManager.deleteTask(id);
+                }
+            });
+            List<Future<?>> readers = new ArrayList<>();
+            for (int thread = 0; thread < 3; thread++) {
+                readers.add(pool.submit(() -> {
+                    while (!deleter.isDone()) {
+                        for (int id : ids) {
+                            this.taskManager.getTask(id);
+                        }
+                    }
+                }));
+            }
+            deleter.get(30L, TimeUnit.SECONDS);
+            for (Future<?> reader : readers) {
+                reader.get(30L, TimeUnit.SECONDS);
+            }
+        }
+        pool.shutdown();
+
+        Assertions.assertTrue(this.taskManager.getHistory().isEmpty(), "Удалённые задачи не должны возвращаться в историю.");
+    }
+}
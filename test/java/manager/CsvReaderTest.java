@@ -0,0 +1,92 @@
+package manager;
+
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvReaderTest {
+
+    private CsvReader reader(String text) {
+        return new CsvReader(new StringReader(text));
+    }
+
+    @Test
+    public void next_shouldSplitRecordsAndFields() throws IOException {
+        CsvReader csv = reader("1,TASK,Name\r\n2,EPIC,\n");
+
+        assertTrue(csv.next());
+        assertEquals(3, csv.fieldCount());
+        assertEquals(1, csv.intField(0));
+        assertEquals("Name", csv.field(2));
+        assertTrue(csv.next());
+        assertEquals(2, csv.lineNumber());
+        assertTrue(csv.isEmpty(2), "Пустое последнее поле сохраняется.");
+        assertFalse(csv.next());
+    }
+
+    @Test
+    public void next_shouldReadQuotedFieldsWithCommasQuotesAndNewlines() throws IOException {
+        CsvReader csv = reader("\"a,b\",\"say \"\"hi\"\"\",\"line1\nline2\"\nnext\n");
+
+        assertTrue(csv.next());
+        assertEquals(3, csv.fieldCount());
+        assertEquals("a,b", csv.field(0));
+        assertEquals("say \"hi\"", csv.field(1));
+        assertEquals("line1\nline2", csv.field(2));
+        assertFalse(csv.isTruncated());
+        assertTrue(csv.next());
+        assertEquals(3, csv.lineNumber(), "Перевод строки внутри кавычек тоже считается строкой файла.");
+        assertEquals("next", csv.field(0));
+    }
+
+    @Test
+    public void isBlankRecord_shouldDistinguishBlankLineFromQuotedEmptyField() throws IOException {
+        CsvReader csv = reader("\n  \n\"\"\n");
+
+        assertTrue(csv.next());
+        assertTrue(csv.isBlankRecord());
+        assertTrue(csv.next());
+        assertTrue(csv.isBlankRecord());
+        assertTrue(csv.next());
+        assertFalse(csv.isBlankRecord());
+    }
+
+    @Test
+    public void isTruncated_shouldReportUnterminatedQuote() throws IOException {
+        CsvReader csv = reader("1,\"unfinished");
+
+        assertTrue(csv.next());
+        assertTrue(csv.isTruncated());
+        assertEquals("unfinished", csv.field(1));
+    }
+
+    @Test
+    public void typedFields_shouldParseInPlace() throws IOException {
+        CsvReader csv = reader("-42, 7 ,IN_PROGRESS,2024-03-05T09:30,2024-03-05T09:30:15,2024-03-05T09:30:15.5\n");
+
+        assertTrue(csv.next());
+        assertEquals(-42, csv.intField(0));
+        assertEquals(7, csv.intField(1));
+        assertEquals(TaskStatus.IN_PROGRESS, csv.enumField(2, TaskStatus.values()));
+        assertEquals(LocalDateTime.of(2024, 3, 5, 9, 30), csv.dateTimeField(3));
+        assertEquals(LocalDateTime.of(2024, 3, 5, 9, 30, 15), csv.dateTimeField(4));
+        assertEquals(LocalDateTime.of(2024, 3, 5, 9, 30, 15, 500_000_000), csv.dateTimeField(5));
+    }
+
+    @Test
+    public void typedFields_shouldRejectMalformedValues() throws IOException {
+        CsvReader csv = reader("12x,99999999999,DONE_,\n");
+
+        assertTrue(csv.next());
+        assertThrows(NumberFormatException.class, () -> csv.intField(0));
+        assertThrows(NumberFormatException.class, () -> csv.intField(1));
+        assertThrows(IllegalArgumentException.class, () -> csv.enumField(2, TaskStatus.values()));
+        assertThrows(NumberFormatException.class, () -> csv.intField(3));
+        assertThrows(IllegalArgumentException.class, () -> csv.field(4));
+    }
+}
@@ -0,0 +1,59 @@
+package manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DenseTaskManagerTest extends TaskManagerTest<DenseTaskManager> {
+
+    @Override
+    protected TaskManager createTaskManager() {
+        return new DenseTaskManager();
+    }
+
+    @Test
+    void getTasksReturnsTasksInIdOrderAcrossChunks() {
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 3 * DenseTaskStore.CHUNK_SIZE; i++) {
+            int id = this.taskManager.createTask(new Task("Task " + i, "Desc"));
+            if (i % 3 != 0) {
+                expected.add(id);
+            } else {
+                this.taskManager.createEpic(new Epic("Epic " + i, "Desc"));
+            }
+        }
+        for (Task task : this.taskManager.getTasks()) {
+            if (!expected.contains(task.getId())) {
+                this.taskManager.deleteTask(task.getId());
+            }
+        }
+
+        List<Integer> ids = new ArrayList<>();
+        for (Task task : this.taskManager.getTasks()) {
+            ids.add(task.getId());
+        }
+        Assertions.assertEquals(expected, ids);
+        Assertions.assertEquals(DenseTaskStore.CHUNK_SIZE, this.taskManager.getEpics().size());
+    }
+
+    @Test
+    void lookupsDoNotMixTaskTypes() {
+        int taskId = this.taskManager.createTask(new Task("Task", "Desc"));
+        int epicId = this.taskManager.createEpic(new Epic("Epic", "Desc"));
+        int subtaskId = this.taskManager.createSubtask(new Subtask("Subtask", "Desc", TaskStatus.NEW, epicId, null, null));
+
+        Assertions.assertNull(this.taskManager.getEpic(taskId));
+        Assertions.assertNull(this.taskManager.getSubtask(epicId));
+        Assertions.assertNull(this.taskManager.getTask(subtaskId));
+
+        this.taskManager.deleteEpic(epicId);
+        Assertions.assertTrue(this.taskManager.getSubtasks().isEmpty());
+        Assertions.assertEquals(1, this.taskManager.getTasks().size());
+        Assertions.assertNull(this.taskManager.getTask(-1));
+    }
+}
@@ -1,10 +1,13 @@
 package manager;
 
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import model.Epic;
 import model.Subtask;
 import model.Task;
@@ -83,6 +86,22 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         Assertions.assertEquals(4, loadedManager.getHistory().size(), "В истории должно быть 4 элемента.");
     }
 
+    @Test
+    void saveAndLoadBatch() {
+        Epic epic = new Epic("Epic", "Description");
+        epic.setId(-1);
+        Task task = new Task("Task", "Description", Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 9, 0));
+        Subtask subtask = new Subtask("Subtask", "Description", TaskStatus.IN_PROGRESS, -1, Duration.ofMinutes(15L), LocalDateTime.of(2023, 1, 1, 10, 0));
+        this.taskManager.createAll(List.of(epic, task, subtask));
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(this.tempFile);
+
+        Assertions.assertEquals(List.of(task), loadedManager.getTasks());
+        Assertions.assertEquals(List.of(subtask), loadedManager.getSubtasks());
+        Assertions.assertEquals(TaskStatus.IN_PROGRESS, loadedManager.getEpics().get(0).getStatus());
+        Assertions.assertEquals(3, loadedManager.getPrioritizedTasks().size());
+    }
+
     @Test
     void saveAndLoadWithEmptyHistory() {
         Task task = new Task("Task with no history", "Description", Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 10, 0));
@@ -108,4 +127,156 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         Assertions.assertEquals(1, loadedManager.getSubtasks().size());
         Assertions.assertNull(((Subtask)loadedManager.getSubtasks().get(0)).getStartTime());
     }
-}
\ No newline at end of file
+
+    @Test
+    void loadRestoresHistoryOrderWithoutRewritingFile() {
+        Task task1 = new Task("Task 1", "Desc 1");
+        int taskId1 = this.taskManager.createTask(task1);
+        Task task2 = new Task("Task 2", "Desc 2");
+        int taskId2 = this.taskManager.createTask(task2);
+        this.taskManager.getTask(taskId2);
+        this.taskManager.getTask(taskId1);
+        long lastModified = this.tempFile.lastModified();
+        this.tempFile.setLastModified(lastModified - 10_000L);
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(this.tempFile);
+
+        Assertions.assertEquals(lastModified - 10_000L, this.tempFile.lastModified(), "Загрузка не должна перезаписывать файл.");
+        List<Task> history = loadedManager.getHistory();
+        Assertions.assertEquals(2, history.size());
+        Assertions.assertEquals(taskId2, history.get(0).getId());
+        Assertions.assertEquals(taskId1, history.get(1).getId());
+    }
+
+    @Test
+    void parallelLoadMatchesSequentialLoad() throws IOException {
+        // Файл в несколько сотен килобайт, чтобы разбор действительно делился на куски
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        StringBuilder history = new StringBuilder();
+        try (FileWriter writer = new FileWriter(this.tempFile)) {
+            writer.write("id,type,name,status,description,startTime,duration,epic\n");
+            int id = 1;
+            for (int i = 0; i < 1000; i++, id++) {
+                String time = i % 2 == 0 ? start.plusHours(id) + ",30" : ",";
+                writer.write(id + ",TASK,Task " + i + "," + TaskStatus.values()[i % 3] + ",Desc," + time + ",\n");
+            }
+            for (int e = 0; e < 300; e++) {
+                int epicId = id++;
+                writer.write(epicId + ",EPIC,Epic " + e + ",NEW,Desc,,,\n");
+                for (int s = 0; s < 5; s++, id++) {
+                    String time = s % 2 == 0 ? start.plusHours(id) + ",45" : ",";
+                    writer.write(id + ",SUBTASK,Sub " + s + "," + TaskStatus.values()[(e + s) % 3] + ",Desc,"
+                            + time + "," + epicId + "\n");
+                }
+                history.append(epicId).append(',').append(epicId + 1).append(',');
+            }
+            writer.write("\n");
+            writer.write(history.append(1).toString());
+        }
+
+        FileBackedTaskManager sequential = FileBackedTaskManager.loadFromFile(this.tempFile);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            FileBackedTaskManager parallel = FileBackedTaskManager.loadFromFile(this.tempFile, pool);
+
+            Assertions.assertEquals(1000, parallel.getTasks().size());
+            Assertions.assertEquals(300, parallel.getEpics().size());
+            Assertions.assertEquals(1500, parallel.getSubtasks().size());
+            Assertions.assertEquals(sequential.getTasks().toString(), parallel.getTasks().toString());
+            Assertions.assertEquals(sequential.getEpics().toString(), parallel.getEpics().toString(),
+                    "Статус, время и подзадачи эпиков должны совпадать с последовательной загрузкой.");
+            Assertions.assertEquals(sequential.getSubtasks().toString(), parallel.getSubtasks().toString());
+            Assertions.assertEquals(sequential.getPrioritizedTasks(), parallel.getPrioritizedTasks());
+            Assertions.assertEquals(sequential.getHistory(), parallel.getHistory());
+            Assertions.assertEquals(601, parallel.getHistory().size());
+
+            Task next = new Task("Next", "Desc");
+            Assertions.assertEquals(sequential.createTask(new Task("Next", "Desc")), parallel.createTask(next),
+                    "Счётчик id должен продолжаться с того же значения.");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void parallelLoadOfMissingOrEmptyHistoryFile() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            Task task = new Task("Task", "Desc");
+            this.taskManager.createTask(task);
+            FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(this.tempFile, pool);
+            Assertions.assertEquals(List.of(task), loaded.getTasks());
+            Assertions.assertTrue(loaded.getHistory().isEmpty());
+
+            File missing = new File(this.tempFile.getPath() + ".missing");
+            Assertions.assertTrue(FileBackedTaskManager.loadFromFile(missing, pool).getTasks().isEmpty());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void namesWithCommasQuotesAndNewlinesSurviveSaveAndLoad() {
+        Task task = new Task("Buy milk, bread", "Said \"urgent\"\nand left", Duration.ofMinutes(30L),
+                LocalDateTime.of(2023, 1, 1, 10, 0));
+        int taskId = this.taskManager.createTask(task);
+        int epicId = this.taskManager.createEpic(new Epic("Epic, first", "Description\r\non two lines"));
+        this.taskManager.createSubtask(new Subtask("\"Subtask\"", ",", TaskStatus.DONE, epicId, null, null));
+        this.taskManager.getTask(taskId);
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            for (FileBackedTaskManager loaded : List.of(FileBackedTaskManager.loadFromFile(this.tempFile),
+                    FileBackedTaskManager.loadFromFile(this.tempFile, pool))) {
+                Task loadedTask = loaded.getTasks().get(0);
+                Assertions.assertEquals("Buy milk, bread", loadedTask.getName());
+                Assertions.assertEquals("Said \"urgent\"\nand left", loadedTask.getDescription());
+                Assertions.assertEquals(task.getStartTime(), loadedTask.getStartTime());
+                Assertions.assertEquals("Epic, first", loaded.getEpics().get(0).getName());
+                Assertions.assertEquals("Description\r\non two lines", loaded.getEpics().get(0).getDescription());
+                Assertions.assertEquals(TaskStatus.DONE, loaded.getEpics().get(0).getStatus());
+                Assertions.assertEquals("\"Subtask\"", loaded.getSubtasks().get(0).getName());
+                Assertions.assertEquals(",", loaded.getSubtasks().get(0).getDescription());
+                Assertions.assertEquals(List.of(task), loaded.getHistory());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void malformedLinesAreReportedToCallbackAndSkipped() throws IOException {
+        try (FileWriter writer = new FileWriter(this.tempFile)) {
+            writer.write("id,type,name,status,description,startTime,duration,epic\n");
+            writer.write("1,TASK,Good,NEW,Desc,,,\n");
+            writer.write("x,TASK,Bad id,NEW,Desc,,,\n");
+            writer.write("3,TASK,\"Multi\nline\",NEW,Desc,,,\n");
+            writer.write("4,TASK,Bad status,FINISHED,Desc,,,\n");
+            writer.write("5,SUBTASK,No epic,NEW,Desc,,,\n");
+            writer.write("6,TASK,Bad time,NEW,Desc,2024-13-01T10:00,30,\n");
+            writer.write("\n");
+            writer.write("1,3,oops");
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            List<Long> serialLines = new ArrayList<>();
+            FileBackedTaskManager serial = FileBackedTaskManager.loadFromFile(this.tempFile,
+                    (lineNumber, line, reason) -> serialLines.add(lineNumber));
+            List<Long> parallelLines = new ArrayList<>();
+            FileBackedTaskManager parallel = FileBackedTaskManager.loadFromFile(this.tempFile, pool,
+                    (lineNumber, line, reason) -> parallelLines.add(lineNumber));
+
+            Assertions.assertEquals(List.of(3L, 6L, 7L, 8L, 10L), serialLines,
+                    "Номера строк учитывают перевод строки внутри кавычек.");
+            Assertions.assertEquals(serialLines, parallelLines);
+            for (FileBackedTaskManager loaded : List.of(serial, parallel)) {
+                Assertions.assertEquals(2, loaded.getTasks().size());
+                Assertions.assertEquals("Multi\nline", loaded.getTasks().get(1).getName());
+                Assertions.assertEquals(2, loaded.getHistory().size());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
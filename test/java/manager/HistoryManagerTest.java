@@ -33,4 +33,10 @@ public interface HistoryManagerTest<T extends HistoryManager> {
 
     @Test
     void removeAll_shouldClearHistory();
+
+    @Test
+    void restore_shouldReplaceHistoryInGivenOrder();
+
+    @Test
+    void getHistory_withLimit_shouldReturnMostRecentEntries();
 }
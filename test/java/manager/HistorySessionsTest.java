@@ -0,0 +1,144 @@
+package manager;
+
+import model.Epic;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistorySessionsTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final TaskManager taskManager = new InMemoryTaskManager();
+
+    private HistorySessions sessions(int sessionCapacity, long idleTimeoutMillis, int maxTotalEntries) {
+        return new HistorySessions(sessionCapacity, idleTimeoutMillis, maxTotalEntries, now::get);
+    }
+
+    private Task createTask(String name) {
+        int id = taskManager.createTask(new Task(name, "Description"));
+        return taskManager.peekTask(id);
+    }
+
+    @Test
+    public void record_shouldKeepSeparateBoundedHistoryPerSession() {
+        HistorySessions sessions = sessions(2, 1000, 10);
+        Task task1 = createTask("Task 1");
+        Task task2 = createTask("Task 2");
+        Task task3 = createTask("Task 3");
+
+        sessions.record("alice", task1);
+        sessions.record("alice", task2);
+        sessions.record("alice", task3);
+        sessions.record("bob", task1);
+
+        assertEquals(List.of(task2, task3), sessions.getHistory("alice", taskManager, Integer.MAX_VALUE));
+        assertEquals(List.of(task1), sessions.getHistory("bob", taskManager, Integer.MAX_VALUE));
+        assertEquals(List.of(task3), sessions.getHistory("alice", taskManager, 1));
+        assertEquals(3, sessions.getTotalEntries());
+        assertTrue(taskManager.getHistory().isEmpty(), "Просмотры сессий не должны попадать в общую историю.");
+    }
+
+    @Test
+    public void getHistory_shouldReturnCurrentVersionsAndDropDeletedTasks() {
+        HistorySessions sessions = sessions(10, 1000, 10);
+        Task task = createTask("Task");
+        int epicId = taskManager.createEpic(new Epic("Epic", "Description"));
+        sessions.record("alice", task);
+        sessions.record("alice", taskManager.peekEpic(epicId));
+
+        taskManager.updateTask(new Task("Renamed", "Description", task.getId(), TaskStatus.DONE));
+        taskManager.deleteEpic(epicId);
+
+        List<Task> history = sessions.getHistory("alice", taskManager, Integer.MAX_VALUE);
+        assertEquals(1, history.size());
+        assertEquals("Renamed", history.get(0).getName());
+        assertEquals(1, sessions.getTotalEntries(), "Удалённая задача должна освобождать место в квоте.");
+        assertTrue(sessions.getHistory("unknown", taskManager, 10).isEmpty());
+        assertEquals(1, sessions.getSessionCount(), "Чтение не должно создавать сессию.");
+    }
+
+    @Test
+    public void idleSessions_shouldBeEvicted() {
+        HistorySessions sessions = sessions(10, 1000, 100);
+        Task task = createTask("Task");
+        sessions.record("alice", task);
+        now.set(600);
+        sessions.record("bob", task);
+        now.set(1200);
+
+        assertTrue(sessions.getHistory("alice", taskManager, 10).isEmpty(), "Сессия после простоя должна удаляться.");
+        assertEquals(List.of(task), sessions.getHistory("bob", taskManager, 10));
+        assertEquals(1, sessions.getSessionCount());
+        assertEquals(1, sessions.getTotalEntries());
+    }
+
+    @Test
+    public void globalQuota_shouldEvictLeastRecentlyUsedSessions() {
+        HistorySessions sessions = sessions(2, 100_000, 4);
+        Task task1 = createTask("Task 1");
+        Task task2 = createTask("Task 2");
+
+        sessions.record("alice", task1);
+        sessions.record("alice", task2);
+        sessions.record("bob", task1);
+        sessions.record("carol", task1);
+        sessions.getHistory("alice", taskManager, 10);
+        sessions.record("carol", task2);
+
+        assertEquals(4, sessions.getTotalEntries());
+        assertEquals(2, sessions.getSessionCount());
+        assertTrue(sessions.getHistory("bob", taskManager, 10).isEmpty(), "Вытесняется сессия, к которой дольше всего не обращались.");
+        assertEquals(2, sessions.getHistory("alice", taskManager, 10).size());
+        assertEquals(2, sessions.getHistory("carol", taskManager, 10).size());
+    }
+
+    @Test
+    public void constructor_shouldRejectQuotaSmallerThanSessionCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new HistorySessions(10, 1000, 5));
+        assertThrows(IllegalArgumentException.class, () -> new HistorySessions(0, 1000, 5));
+    }
+
+    @Test
+    public void getHistory_shouldNotBlockOtherSessionsWhileManagerIsSlow() throws Exception {
+        HistorySessions sessions = sessions(10, 1000, 100);
+        CountDownLatch peeking = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TaskManager slowManager = new InMemoryTaskManager() {
+            @Override
+            public Task peekTask(int id) {
+                peeking.countDown();
+                try {
+                    release.await(10L, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.peekTask(id);
+            }
+        };
+        int taskId = slowManager.createTask(new Task("Task", "Description"));
+        Task task = slowManager.getTasks().get(0);
+        sessions.record("alice", task);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Future<List<Task>> aliceHistory = pool.submit(() -> sessions.getHistory("alice", slowManager, 10));
+        assertTrue(peeking.await(10L, TimeUnit.SECONDS));
+
+        Future<?> bobRecord = pool.submit(() -> sessions.record("bob", task));
+        bobRecord.get(10L, TimeUnit.SECONDS);
+        assertFalse(aliceHistory.isDone(), "Запись другого клиента не должна ждать чтения менеджера.");
+
+        release.countDown();
+        assertEquals(taskId, aliceHistory.get(10L, TimeUnit.SECONDS).get(0).getId());
+        assertEquals(2, sessions.getTotalEntries());
+        pool.shutdown();
+    }
+}
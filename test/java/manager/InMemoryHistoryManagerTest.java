@@ -161,4 +161,105 @@ public class InMemoryHistoryManagerTest implements HistoryManagerTest<InMemoryHi
         assertNotNull(history);
         assertTrue(history.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void restore_shouldReplaceHistoryInGivenOrder() {
+        HistoryManager historyManager = createHistoryManager();
+        Task task1 = new Task("Task 1", "Desc 1", 1, TaskStatus.NEW);
+        Task task2 = new Task("Task 2", "Desc 2", 2, TaskStatus.NEW);
+        Task task3 = new Task("Task 3", "Desc 3", 3, TaskStatus.NEW);
+
+        historyManager.add(task3);
+        historyManager.restore(List.of(task1, task2, task1));
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(2, history.size());
+        assertEquals(task2, history.get(0));
+        assertEquals(task1, history.get(1));
+    }
+
+    @Test
+    public void getHistory_withLimit_shouldReturnMostRecentEntries() {
+        HistoryManager historyManager = createHistoryManager();
+        Task task1 = new Task("Task 1", "Desc 1", 1, TaskStatus.NEW);
+        Task task2 = new Task("Task 2", "Desc 2", 2, TaskStatus.NEW);
+        Task task3 = new Task("Task 3", "Desc 3", 3, TaskStatus.NEW);
+
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+
+        assertEquals(List.of(task2, task3), historyManager.getHistory(2));
+        assertEquals(List.of(task1, task2, task3), historyManager.getHistory(5));
+        assertTrue(historyManager.getHistory(0).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> historyManager.getHistory(-1));
+    }
+
+    @Test
+    public void add_shouldEvictOldestEntryWhenCapacityReached() {
+        HistoryManager historyManager = new InMemoryHistoryManager(2);
+        Task task1 = new Task("Task 1", "Desc 1", 1, TaskStatus.NEW);
+        Task task2 = new Task("Task 2", "Desc 2", 2, TaskStatus.NEW);
+        Task task3 = new Task("Task 3", "Desc 3", 3, TaskStatus.NEW);
+
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task1);
+        assertEquals(List.of(task2, task1), historyManager.getHistory(), "Повторный просмотр не должен вытеснять записи.");
+
+        historyManager.add(task3);
+        assertEquals(List.of(task1, task3), historyManager.getHistory(), "Должен вытесняться самый старый просмотр.");
+
+        historyManager.remove(task1.getId());
+        historyManager.add(task2);
+        assertEquals(List.of(task3, task2), historyManager.getHistory());
+    }
+
+    @Test
+    public void restore_shouldKeepOnlyMostRecentEntriesWithinCapacity() {
+        HistoryManager historyManager = new InMemoryHistoryManager(2);
+        Task task1 = new Task("Task 1", "Desc 1", 1, TaskStatus.NEW);
+        Task task2 = new Task("Task 2", "Desc 2", 2, TaskStatus.NEW);
+        Task task3 = new Task("Task 3", "Desc 3", 3, TaskStatus.NEW);
+
+        historyManager.restore(List.of(task1, task2, task3));
+
+        assertEquals(List.of(task2, task3), historyManager.getHistory());
+    }
+
+    @Test
+    public void constructor_shouldRejectNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new InMemoryHistoryManager(0));
+    }
+
+    @Test
+    public void add_shouldKeepOrderAcrossGrowthRemovalsAndReuse() {
+        HistoryManager historyManager = createHistoryManager();
+        java.util.LinkedHashMap<Integer, Task> expected = new java.util.LinkedHashMap<>();
+        for (int id = 1; id <= 1000; id++) {
+            Task task = new Task("Task " + id, "Desc", id, TaskStatus.NEW);
+            historyManager.add(task);
+            expected.put(id, task);
+        }
+        for (int id = 2; id <= 1000; id += 2) {
+            historyManager.remove(id);
+            expected.remove(id);
+        }
+        for (int id = 999; id >= 1; id -= 3) {
+            Task task = new Task("Task " + id, "Updated", id, TaskStatus.DONE);
+            historyManager.add(task);
+            expected.remove(id);
+            expected.put(id, task);
+        }
+        for (int id = 1001; id <= 1300; id++) {
+            Task task = new Task("Task " + id, "Desc", id, TaskStatus.NEW);
+            historyManager.add(task);
+            expected.put(id, task);
+        }
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(List.copyOf(expected.values()), history);
+        assertEquals("Updated", history.get(history.size() - 301).getDescription(),
+                "Повторный просмотр должен хранить последнюю версию задачи.");
+    }
+}
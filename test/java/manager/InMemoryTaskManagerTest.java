@@ -1,5 +1,13 @@
 package manager;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import model.Epic;
+import model.Subtask;
+import model.TaskStatus;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
 class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
 
     @Override
@@ -7,4 +15,15 @@ class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
         return new InMemoryTaskManager();
     }
 
-}
\ No newline at end of file
+    @Test
+    void deletedEpicNoLongerListsItsSubtasks() {
+        Epic epic = new Epic("Epic", "Description");
+        int epicId = this.taskManager.createEpic(epic);
+        this.taskManager.createSubtask(new Subtask("Subtask 1", "Description", TaskStatus.NEW, epicId, Duration.ofMinutes(15L), LocalDateTime.of(2023, 1, 1, 10, 0)));
+        this.taskManager.createSubtask(new Subtask("Subtask 2", "Description", TaskStatus.NEW, epicId, null, null));
+
+        this.taskManager.deleteEpic(epicId);
+
+        Assertions.assertTrue(epic.getSubtaskIds().isEmpty(), "Удалённый эпик не должен ссылаться на удалённые подзадачи.");
+    }
+}
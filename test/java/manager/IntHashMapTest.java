@@ -0,0 +1,96 @@
+package manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntHashMapTest {
+
+    @Test
+    public void put_shouldReplaceAndReturnPreviousValue() {
+        IntHashMap<String> map = new IntHashMap<>();
+
+        assertNull(map.put(1, "a"));
+        assertEquals("a", map.put(1, "b"));
+        assertEquals("b", map.get(1));
+        assertEquals(1, map.size());
+        assertNull(map.get(2));
+        assertFalse(map.containsKey(2));
+        assertThrows(IllegalArgumentException.class, () -> map.put(3, null));
+    }
+
+    @Test
+    public void remove_shouldKeepCollidingKeysReachable() {
+        IntHashMap<String> map = new IntHashMap<>(4);
+        // Ключи с одинаковой ячейкой в таблице длины 16 образуют одну цепочку пробирования
+        map.put(0, "0");
+        map.put(16, "16");
+        map.put(32, "32");
+        map.put(1, "1");
+
+        assertEquals("0", map.remove(0));
+        assertEquals("16", map.get(16));
+        assertEquals("32", map.get(32));
+        assertEquals("1", map.get(1));
+        assertNull(map.remove(0));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    public void iteration_shouldFollowIdOrderForSequentialIds() {
+        IntHashMap<String> map = new IntHashMap<>();
+        List<Integer> ids = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int id = 1; id <= 100; id++) {
+            map.put(id, "v" + id);
+            ids.add(id);
+            expected.add("v" + id);
+        }
+
+        List<String> values = new ArrayList<>();
+        map.forEachValue(values::add);
+        assertEquals(expected, values);
+        List<Integer> keys = new ArrayList<>();
+        map.forEachKey(keys::add);
+        assertEquals(ids, keys);
+        assertEquals(expected, new ArrayList<>(map.values()));
+        assertEquals(ids, new ArrayList<>(map.keySet()));
+    }
+
+    @Test
+    public void operations_shouldMatchHashMapOnRandomSequence() {
+        IntHashMap<String> map = new IntHashMap<>(0, 0.75f);
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int step = 0; step < 20_000; step++) {
+            int key = random.nextInt(2_000) - 1_000;
+            int action = random.nextInt(3);
+            if (action == 0) {
+                String value = "v" + step;
+                assertEquals(expected.put(key, value), map.put(key, value));
+            } else if (action == 1) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.get(key), map.get(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertEquals(expected, map);
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(expected.keySet().iterator().next()));
+    }
+
+    @Test
+    public void constructor_shouldRejectInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new IntHashMap<>(-1));
+        assertThrows(IllegalArgumentException.class, () -> new IntHashMap<>(16, 0f));
+        assertThrows(IllegalArgumentException.class, () -> new IntHashMap<>(16, 1f));
+    }
+}
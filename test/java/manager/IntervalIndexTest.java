@@ -0,0 +1,111 @@
+package manager;
+
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntervalIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    private Task task(int id, int startMinutes, int durationMinutes) {
+        return new Task("Task " + id, "Description", id, TaskStatus.NEW,
+                Duration.ofMinutes(durationMinutes), BASE.plusMinutes(startMinutes));
+    }
+
+    @Test
+    public void overlaps_shouldDetectIntersectingInterval() {
+        IntervalIndex index = new IntervalIndex();
+        index.add(task(1, 0, 30));
+        index.add(task(2, 60, 30));
+
+        assertTrue(index.overlaps(BASE.plusMinutes(20), BASE.plusMinutes(40), 0));
+        assertTrue(index.overlaps(BASE.plusMinutes(-10), BASE.plusMinutes(120), 0));
+        assertFalse(index.overlaps(BASE.plusMinutes(30), BASE.plusMinutes(60), 0),
+                "Интервалы, касающиеся границами, не пересекаются.");
+        assertFalse(index.overlaps(BASE.plusMinutes(90), BASE.plusMinutes(100), 0));
+    }
+
+    @Test
+    public void overlaps_shouldIgnoreAllExcludedIds() {
+        IntervalIndex index = new IntervalIndex();
+        index.add(task(1, 0, 30));
+        index.add(task(2, 10, 30));
+
+        assertTrue(index.overlaps(BASE.plusMinutes(15), BASE.plusMinutes(20), id -> id == 1));
+        assertFalse(index.overlaps(BASE.plusMinutes(15), BASE.plusMinutes(20), id -> id == 1 || id == 2));
+    }
+
+    @Test
+    public void overlaps_shouldIgnoreExcludedId() {
+        IntervalIndex index = new IntervalIndex();
+        index.add(task(1, 0, 30));
+
+        assertFalse(index.overlaps(BASE.plusMinutes(10), BASE.plusMinutes(20), 1));
+        assertTrue(index.overlaps(BASE.plusMinutes(10), BASE.plusMinutes(20), 2));
+    }
+
+    @Test
+    public void overlaps_shouldFindNestedIntervalBehindExcludedOne() {
+        IntervalIndex index = new IntervalIndex();
+        index.add(task(1, 0, 120));
+        index.add(task(2, 30, 10));
+
+        assertTrue(index.overlaps(BASE.plusMinutes(35), BASE.plusMinutes(36), 1));
+    }
+
+    @Test
+    public void remove_shouldDropIntervalFromIndex() {
+        IntervalIndex index = new IntervalIndex();
+        index.add(task(1, 0, 30));
+        index.add(task(2, 60, 30));
+        index.remove(1);
+
+        assertEquals(1, index.size());
+        assertFalse(index.contains(1));
+        assertFalse(index.overlaps(BASE, BASE.plusMinutes(30), 0));
+        assertTrue(index.overlaps(BASE.plusMinutes(70), BASE.plusMinutes(80), 0));
+    }
+
+    @Test
+    public void add_shouldReindexTaskWithSameId() {
+        IntervalIndex index = new IntervalIndex();
+        index.add(task(1, 0, 30));
+        index.add(task(1, 100, 30));
+
+        assertEquals(1, index.size());
+        assertFalse(index.overlaps(BASE, BASE.plusMinutes(30), 0));
+        assertTrue(index.overlaps(BASE.plusMinutes(110), BASE.plusMinutes(120), 0));
+    }
+
+    @Test
+    public void add_shouldSkipTaskWithoutTime() {
+        IntervalIndex index = new IntervalIndex();
+        index.add(new Task("Task", "Description", 1, TaskStatus.NEW));
+
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void overlaps_shouldMatchLinearScanOnManyIntervals() {
+        IntervalIndex index = new IntervalIndex();
+        for (int i = 1; i <= 1000; i++) {
+            index.add(task(i, i * 10, 5));
+        }
+        for (int i = 1; i <= 1000; i += 2) {
+            index.remove(i);
+        }
+
+        for (int minute = 0; minute < 10_000; minute += 7) {
+            int slot = minute / 10;
+            boolean expected = slot % 2 == 0 && slot >= 2 && minute % 10 < 5;
+            assertEquals(expected, index.overlaps(BASE.plusMinutes(minute), BASE.plusMinutes(minute + 1), 0),
+                    "Минута " + minute);
+        }
+    }
+}
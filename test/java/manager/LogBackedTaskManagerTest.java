@@ -0,0 +1,192 @@
+package manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LogBackedTaskManagerTest extends TaskManagerTest<LogBackedTaskManager> {
+    private File snapshotFile;
+    private File logFile;
+
+    protected TaskManager createTaskManager() {
+        return LogBackedTaskManager.loadFromFiles(this.snapshotFile, this.logFile);
+    }
+
+    @BeforeEach
+    protected void setUp() {
+        try {
+            this.snapshotFile = File.createTempFile("snapshot", ".csv");
+            this.logFile = File.createTempFile("journal", ".log");
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        super.setUp();
+    }
+
+    @AfterEach
+    protected void tearDown() {
+        ((LogBackedTaskManager) this.taskManager).close();
+        this.snapshotFile.delete();
+        this.logFile.delete();
+        new File(this.snapshotFile.getPath() + ".tmp").delete();
+    }
+
+    @Test
+    void replayLogRestoresStateWithoutSnapshot() {
+        Task task = new Task("Task", "Description", Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 10, 0));
+        int taskId = this.taskManager.createTask(task);
+        Epic epic = new Epic("Epic", "Description");
+        int epicId = this.taskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Subtask", "Description", TaskStatus.DONE, epicId, Duration.ofMinutes(15L), LocalDateTime.of(2023, 1, 1, 11, 0));
+        int subtaskId = this.taskManager.createSubtask(subtask);
+        this.taskManager.updateTask(new Task("Updated", "Description", taskId, TaskStatus.IN_PROGRESS, Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 2, 10, 0)));
+        this.taskManager.getSubtask(subtaskId);
+        this.taskManager.getTask(taskId);
+
+        LogBackedTaskManager loadedManager = LogBackedTaskManager.loadFromFiles(this.snapshotFile, this.logFile);
+
+        Assertions.assertEquals("Updated", loadedManager.getTasks().get(0).getName());
+        Assertions.assertEquals(TaskStatus.IN_PROGRESS, loadedManager.getTasks().get(0).getStatus());
+        Assertions.assertEquals(TaskStatus.DONE, loadedManager.getEpics().get(0).getStatus());
+        Assertions.assertEquals(subtask.getStartTime(), loadedManager.getEpics().get(0).getStartTime());
+        List<Task> history = loadedManager.getHistory();
+        Assertions.assertEquals(2, history.size());
+        Assertions.assertEquals(subtaskId, history.get(0).getId());
+        Assertions.assertEquals(taskId, history.get(1).getId());
+        Assertions.assertEquals(3, loadedManager.getPrioritizedTasks().size());
+        loadedManager.close();
+    }
+
+    @Test
+    void replayLogRestoresBatchWithSubtaskBeforeItsEpic() {
+        Epic epic = new Epic("Epic", "Description");
+        epic.setId(-1);
+        Subtask subtask = new Subtask("Subtask", "Description", TaskStatus.DONE, -1, Duration.ofMinutes(15L), LocalDateTime.of(2023, 1, 1, 11, 0));
+        List<Integer> ids = this.taskManager.createAll(List.of(subtask, epic));
+
+        LogBackedTaskManager loadedManager = LogBackedTaskManager.loadFromFiles(this.snapshotFile, this.logFile);
+
+        int epicId = ids.get(1);
+        Assertions.assertEquals(epicId, loadedManager.peekSubtask(ids.get(0)).getEpicId());
+        Assertions.assertEquals(TaskStatus.DONE, loadedManager.peekEpic(epicId).getStatus());
+        Assertions.assertEquals(2, loadedManager.getPrioritizedTasks().size());
+        loadedManager.close();
+    }
+
+    @Test
+    void replayLogAppliesDeletes() {
+        int taskId = this.taskManager.createTask(new Task("Task", "Description"));
+        int epicId = this.taskManager.createEpic(new Epic("Epic", "Description"));
+        this.taskManager.createSubtask(new Subtask("Subtask", "Description", TaskStatus.NEW, epicId, null, null));
+        this.taskManager.deleteTask(taskId);
+        this.taskManager.deleteEpic(epicId);
+
+        LogBackedTaskManager loadedManager = LogBackedTaskManager.loadFromFiles(this.snapshotFile, this.logFile);
+
+        Assertions.assertTrue(loadedManager.getTasks().isEmpty());
+        Assertions.assertTrue(loadedManager.getEpics().isEmpty());
+        Assertions.assertTrue(loadedManager.getSubtasks().isEmpty());
+        loadedManager.close();
+    }
+
+    @Test
+    void compactionWritesSnapshotAndTruncatesLog() throws IOException {
+        LogBackedTaskManager manager = LogBackedTaskManager.loadFromFiles(this.snapshotFile, this.logFile, 3);
+        manager.createTask(new Task("Task 1", "Description"));
+        manager.createTask(new Task("Task 2", "Description"));
+        manager.createTask(new Task("Task 3", "Description"));
+
+        Assertions.assertEquals(0L, this.logFile.length(), "После сжатия журнал должен быть пуст.");
+        Assertions.assertEquals(3, FileBackedTaskManager.loadFromFile(this.snapshotFile).getTasks().size());
+
+        int taskId = manager.createTask(new Task("Task 4", "Description"));
+        Assertions.assertEquals(1, Files.readAllLines(this.logFile.toPath()).size());
+        manager.close();
+
+        LogBackedTaskManager loadedManager = LogBackedTaskManager.loadFromFiles(this.snapshotFile, this.logFile, 3);
+        Assertions.assertEquals(4, loadedManager.getTasks().size());
+        int nextId = loadedManager.createTask(new Task("Task 5", "Description"));
+        Assertions.assertTrue(nextId > taskId, "Новые id не должны совпадать с уже выданными.");
+        loadedManager.close();
+    }
+
+    @Test
+    void replayOfRecordsAlreadyInSnapshotIsIdempotent() throws IOException {
+        int taskId = this.taskManager.createTask(new Task("Task", "Description"));
+        this.taskManager.updateTask(new Task("Renamed", "Description", taskId, TaskStatus.DONE));
+        List<String> records = Files.readAllLines(this.logFile.toPath());
+        ((LogBackedTaskManager) this.taskManager).compact();
+        Files.write(this.logFile.toPath(), records);
+
+        LogBackedTaskManager loadedManager = LogBackedTaskManager.loadFromFiles(this.snapshotFile, this.logFile);
+
+        Assertions.assertEquals(1, loadedManager.getTasks().size());
+        Assertions.assertEquals("Renamed", loadedManager.getTasks().get(0).getName());
+        Assertions.assertEquals(TaskStatus.DONE, loadedManager.getTasks().get(0).getStatus());
+        loadedManager.close();
+    }
+
+    @Test
+    void replayLogAppliesRecordsWithoutRevalidatingThem() throws IOException {
+        int epicId = this.taskManager.createEpic(new Epic("Epic", "Description"));
+        int subtaskId = this.taskManager.createSubtask(new Subtask("Subtask", "Description", TaskStatus.DONE, epicId, Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 10, 0)));
+        // Запись, которую createTask отклонил бы из-за пересечения: журнал хранит уже принятое состояние
+        Files.write(this.logFile.toPath(), List.of("CREATE,100,TASK,Overlapping,NEW,Description,2023-01-01T10:00,15,"),
+                StandardOpenOption.APPEND);
+
+        LogBackedTaskManager loadedManager = LogBackedTaskManager.loadFromFiles(this.snapshotFile, this.logFile);
+
+        Assertions.assertNotNull(loadedManager.peekTask(100));
+        Assertions.assertEquals(TaskStatus.DONE, loadedManager.peekEpic(epicId).getStatus());
+        Assertions.assertEquals(List.of(subtaskId), loadedManager.peekEpic(epicId).getSubtaskIds());
+        Assertions.assertEquals(3, loadedManager.getPrioritizedTasks().size());
+        Assertions.assertTrue(loadedManager.createTask(new Task("Next", "Description")) > 100);
+        loadedManager.close();
+    }
+
+    @Test
+    void replayLogReportsCorruptRecordsToErrorHandler() throws IOException {
+        int taskId = this.taskManager.createTask(new Task("Task", "Description"));
+        Files.write(this.logFile.toPath(), List.of("UPDATE,abc,TASK,Broken,NEW,Description,,,", "CREATE,7,SUBTASK,Orphan,NEW,Description,,,42", "VIEW," + taskId),
+                StandardOpenOption.APPEND);
+        List<String> reported = new ArrayList<>();
+
+        LogBackedTaskManager loadedManager = LogBackedTaskManager.loadFromFiles(this.snapshotFile, this.logFile,
+                LogBackedTaskManager.DEFAULT_COMPACTION_THRESHOLD, (lineNumber, line, reason) -> reported.add(line));
+
+        Assertions.assertEquals(List.of("UPDATE,abc,TASK,Broken,NEW,Description,,,", "CREATE,7,SUBTASK,Orphan,NEW,Description,,,42"), reported);
+        Assertions.assertEquals(1, loadedManager.getTasks().size());
+        Assertions.assertTrue(loadedManager.getSubtasks().isEmpty());
+        Assertions.assertEquals(1, loadedManager.getHistory().size());
+        loadedManager.close();
+    }
+
+    @Test
+    void replayLogHandlesQuotedMultilineNames() {
+        int taskId = this.taskManager.createTask(new Task("First line,\nsecond", "Description \"quoted\""));
+        this.taskManager.createEpic(new Epic("Epic", "a,b,c"));
+        this.taskManager.getTask(taskId);
+
+        LogBackedTaskManager loadedManager = LogBackedTaskManager.loadFromFiles(this.snapshotFile, this.logFile);
+
+        Assertions.assertEquals("First line,\nsecond", loadedManager.getTasks().get(0).getName());
+        Assertions.assertEquals("Description \"quoted\"", loadedManager.getTasks().get(0).getDescription());
+        Assertions.assertEquals("a,b,c", loadedManager.getEpics().get(0).getDescription());
+        Assertions.assertEquals(1, loadedManager.getHistory().size());
+        loadedManager.close();
+    }
+}
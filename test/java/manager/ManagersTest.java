@@ -19,4 +19,46 @@ class ManagersTest {
         assertNotNull(historyManager, "Managers.getDefaultHistory() должен возвращать экземпляр HistoryManager.");
         assertTrue(historyManager instanceof InMemoryHistoryManager, "Managers.getDefaultHistory() должен возвращать экзем экземпляр InMemoryHistoryManager по умолчанию.");
     }
+
+    @Test
+    void getThreadSafe_shouldWrapOnlyUnsafeManagers() {
+        TaskManager wrapped = Managers.getThreadSafe(new InMemoryTaskManager());
+        assertTrue(wrapped instanceof SynchronizedTaskManager, "Обычный менеджер должен оборачиваться.");
+        assertSame(wrapped, Managers.getThreadSafe(wrapped), "Потокобезопасный менеджер не должен оборачиваться повторно.");
+    }
+
+    @Test
+    void getThreadSafe_shouldReturnEpicCopies() {
+        InMemoryTaskManager delegate = new InMemoryTaskManager();
+        TaskManager wrapped = Managers.getThreadSafe(delegate);
+        int epicId = wrapped.createEpic(new model.Epic("Epic", "Description"));
+        model.Epic epic = wrapped.getEpic(epicId);
+        wrapped.createSubtask(new model.Subtask("Subtask", "Description", model.TaskStatus.DONE, epicId, null, null));
+
+        assertFalse(delegate.peekEpic(epicId) == wrapped.peekEpic(epicId));
+        assertTrue(epic.getSubtaskIds().isEmpty(), "Выданный эпик не должен меняться вместе с менеджером.");
+        assertEquals(1, wrapped.getEpics().get(0).getSubtaskIds().size());
+        assertFalse(delegate.getHistory().get(0) == wrapped.getHistory().get(0));
+    }
+
+    @Test
+    void getDefaultHistory_withCapacity_shouldReturnBoundedHistory() {
+        HistoryManager historyManager = Managers.getDefaultHistory(10);
+        assertTrue(historyManager instanceof InMemoryHistoryManager);
+        assertEquals(10, ((InMemoryHistoryManager) historyManager).getCapacity());
+        assertEquals(InMemoryHistoryManager.UNBOUNDED, ((InMemoryHistoryManager) Managers.getDefaultHistory()).getCapacity(),
+                "История по умолчанию не ограничена.");
+    }
+
+    @Test
+    void getDefault_withHistoryCapacity_shouldBoundHistory() {
+        TaskManager taskManager = Managers.getDefault(1);
+        int taskId1 = taskManager.createTask(new model.Task("Task 1", "Description"));
+        int taskId2 = taskManager.createTask(new model.Task("Task 2", "Description"));
+        taskManager.getTask(taskId1);
+        taskManager.getTask(taskId2);
+
+        assertEquals(1, taskManager.getHistory().size());
+        assertEquals(taskId2, taskManager.getHistory().get(0).getId());
+    }
 }
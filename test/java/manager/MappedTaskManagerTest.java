@@ -0,0 +1,161 @@
+package manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MappedTaskManagerTest extends TaskManagerTest<MappedTaskManager> {
+    private File storeFile;
+
+    protected TaskManager createTaskManager() {
+        return MappedTaskManager.loadFromFile(this.storeFile);
+    }
+
+    @BeforeEach
+    protected void setUp() {
+        try {
+            this.storeFile = File.createTempFile("store", ".db");
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        this.storeFile.delete();
+
+        super.setUp();
+    }
+
+    @AfterEach
+    protected void tearDown() {
+        ((MappedTaskManager) this.taskManager).close();
+        this.storeFile.delete();
+        MappedTaskStore.heapFile(this.storeFile).delete();
+        new File(this.storeFile.getPath() + ".history").delete();
+    }
+
+    private MappedTaskManager reopen() {
+        ((MappedTaskManager) this.taskManager).close();
+        MappedTaskManager manager = MappedTaskManager.loadFromFile(this.storeFile);
+        this.taskManager = manager;
+        return manager;
+    }
+
+    @Test
+    void reopenRestoresTasksEpicsSubtasksAndHistory() {
+        int taskId = this.taskManager.createTask(new Task("Task, with comma", "Description", Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 10, 0)));
+        int epicId = this.taskManager.createEpic(new Epic("Эпик", "Описание"));
+        int subtaskId = this.taskManager.createSubtask(new Subtask("Subtask", "Description", TaskStatus.DONE, epicId, Duration.ofMinutes(15L), LocalDateTime.of(2023, 1, 1, 11, 0)));
+        this.taskManager.createSubtask(new Subtask("Untimed", null, TaskStatus.NEW, epicId, null, null));
+        this.taskManager.updateEpic(new Epic("Renamed epic", "Описание", epicId, TaskStatus.NEW));
+        this.taskManager.getSubtask(subtaskId);
+        this.taskManager.getTask(taskId);
+        String tasks = this.taskManager.getTasks().toString();
+        String epics = this.taskManager.getEpics().toString();
+        String subtasks = this.taskManager.getSubtasks().toString();
+
+        MappedTaskManager loadedManager = reopen();
+
+        Assertions.assertEquals(tasks, loadedManager.getTasks().toString());
+        Assertions.assertEquals(epics, loadedManager.getEpics().toString());
+        Assertions.assertEquals(subtasks, loadedManager.getSubtasks().toString());
+        Assertions.assertEquals("Renamed epic", loadedManager.peekEpic(epicId).getName());
+        Assertions.assertEquals(TaskStatus.IN_PROGRESS, loadedManager.peekEpic(epicId).getStatus());
+        List<Task> history = loadedManager.getHistory();
+        Assertions.assertEquals(2, history.size());
+        Assertions.assertEquals(subtaskId, history.get(0).getId());
+        Assertions.assertEquals(taskId, history.get(1).getId());
+        Assertions.assertEquals(3, loadedManager.getPrioritizedTasks().size());
+        Assertions.assertTrue(loadedManager.createTask(new Task("Next", "Description")) > subtaskId, "Новые id не должны совпадать с загруженными.");
+    }
+
+    @Test
+    void openingDoesNotMaterializeTasks() {
+        for (int i = 0; i < 50; i++) {
+            this.taskManager.createTask(new Task("Task " + i, "Description"));
+        }
+        MappedTaskManager loadedManager = reopen();
+        MappedTaskMap<?> tasks = (MappedTaskMap<?>) loadedManager.tasks;
+
+        Assertions.assertTrue(tasks.loadedValues().isEmpty());
+        Assertions.assertTrue(loadedManager.containsTask(10));
+        Assertions.assertTrue(tasks.loadedValues().isEmpty(), "containsTask не должен создавать объекты.");
+        Assertions.assertEquals("Task 9", loadedManager.peekTask(10).getName());
+        Assertions.assertEquals(1, tasks.loadedValues().size());
+    }
+
+    @Test
+    void intersectionsAreCheckedAgainstStoredTasksAfterReopen() {
+        this.taskManager.createTask(new Task("Task", "Description", Duration.ofMinutes(60L), LocalDateTime.of(2023, 1, 1, 10, 0)));
+        int epicId = this.taskManager.createEpic(new Epic("Epic", "Description"));
+        MappedTaskManager loadedManager = reopen();
+
+        Assertions.assertThrows(ManagerSaveException.class, () -> loadedManager.createSubtask(
+                new Subtask("Subtask", "Description", TaskStatus.NEW, epicId, Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 10, 30))));
+        int subtaskId = loadedManager.createSubtask(
+                new Subtask("Subtask", "Description", TaskStatus.NEW, epicId, Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 12, 0)));
+
+        Assertions.assertEquals(List.of(subtaskId), loadedManager.getEpic(epicId).getSubtaskIds());
+        Assertions.assertEquals(3, loadedManager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void storeGrowsBeyondInitialCapacity() {
+        int lastId = 0;
+        for (int i = 0; i < 3000; i++) {
+            lastId = this.taskManager.createTask(new Task("Task " + i, "Description " + i));
+        }
+        MappedTaskManager loadedManager = reopen();
+
+        Assertions.assertEquals(3000, loadedManager.getTasks().size());
+        Assertions.assertEquals("Description 2999", loadedManager.peekTask(lastId).getDescription());
+    }
+
+    @Test
+    void closeCompactsStringHeapAndReopenTruncatesIt() {
+        int taskId = this.taskManager.createTask(new Task("Task", "Description"));
+        int keptId = this.taskManager.createTask(new Task("Kept", "Kept description"));
+        String padding = "x".repeat(200);
+        for (int i = 0; i < 2000; i++) {
+            this.taskManager.updateTask(new Task("Name " + i + padding, "Description " + i, taskId, TaskStatus.NEW));
+        }
+        long grownSize = MappedTaskStore.heapFile(this.storeFile).length();
+
+        MappedTaskManager loadedManager = reopen();
+
+        Assertions.assertTrue(MappedTaskStore.heapFile(this.storeFile).length() < grownSize / 4,
+                "Куча строк должна уплотниться: " + MappedTaskStore.heapFile(this.storeFile).length());
+        Assertions.assertEquals("Name 1999" + padding, loadedManager.peekTask(taskId).getName());
+        Assertions.assertEquals("Kept description", loadedManager.peekTask(keptId).getDescription());
+        loadedManager.updateTask(new Task("After compaction", "Description", taskId, TaskStatus.DONE));
+        Assertions.assertEquals("After compaction", reopen().peekTask(taskId).getName());
+    }
+
+    @Test
+    void tasksDroppedFromCacheAreReadAgainFromStore() {
+        File file = new File(this.storeFile.getPath() + ".weak");
+        MappedTaskStore store = new MappedTaskStore(file);
+        MappedTaskMap<Task> tasks = new MappedTaskMap<>(store, TaskType.TASK, Task.class);
+        for (int id = 1; id <= 1000; id++) {
+            tasks.put(id, new Task("Task " + id, "Description", id, TaskStatus.NEW));
+        }
+        for (int i = 0; i < 5 && tasks.loadedValues().size() == 1000; i++) {
+            System.gc();
+        }
+
+        Assertions.assertTrue(tasks.loadedValues().size() < 1000, "Задачи без внешних ссылок не должны держаться в кэше.");
+        Assertions.assertEquals("Task 500", tasks.get(500).getName());
+        Assertions.assertEquals(1000, tasks.size());
+        store.close();
+        file.delete();
+        MappedTaskStore.heapFile(file).delete();
+    }
+}
@@ -0,0 +1,79 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrioritizedTasksTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    private Task task(int id, int startMinutes) {
+        return new Task("Task " + id, "Description", id, TaskStatus.NEW, Duration.ofMinutes(5), BASE.plusMinutes(startMinutes));
+    }
+
+    private Subtask subtask(int id, int startMinutes) {
+        return new Subtask("Subtask " + id, "Description", id, TaskStatus.NEW, 100,
+                Duration.ofMinutes(5), BASE.plusMinutes(startMinutes));
+    }
+
+    private static List<Integer> ids(PrioritizedTasks set) {
+        List<Integer> ids = new ArrayList<>();
+        for (Task task : set) {
+            ids.add(task.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void iterationMergesTypesByStartTimeThenId() {
+        PrioritizedTasks set = new PrioritizedTasks();
+        set.add(task(1, 30));
+        set.add(subtask(2, 10));
+        set.add(task(3, 10));
+        set.add(subtask(4, 50));
+        set.add(task(5, 0));
+
+        assertEquals(List.of(5, 2, 3, 1, 4), ids(set));
+        assertEquals(5, set.size());
+    }
+
+    @Test
+    public void clearByTypeKeepsOtherTypes() {
+        PrioritizedTasks set = new PrioritizedTasks();
+        Task task = task(1, 0);
+        Subtask subtask = subtask(2, 10);
+        set.add(task);
+        set.add(subtask);
+
+        set.clear(TaskType.SUBTASK);
+
+        assertEquals(List.of(1), ids(set));
+        assertTrue(set.contains(task));
+        assertFalse(set.contains(subtask));
+        assertTrue(set.add(subtask));
+        assertTrue(set.remove(task));
+        assertEquals(List.of(2), ids(set));
+    }
+
+    @Test
+    public void epicIsKeptSeparatelyFromTasks() {
+        PrioritizedTasks set = new PrioritizedTasks();
+        set.add(new Epic("Epic", "Description", 7, TaskStatus.NEW));
+        set.add(task(1, 0));
+
+        set.clear(TaskType.EPIC);
+
+        assertEquals(List.of(1), ids(set));
+    }
+}
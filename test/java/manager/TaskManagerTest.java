@@ -436,4 +436,185 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         Assertions.assertEquals(this.taskManager.getTask(taskId1), prioritized.get(3));
         Assertions.assertEquals(this.taskManager.getTask(taskId2), prioritized.get(4));
     }
-}
\ No newline at end of file
+
+    @Test
+    void peekAndContainsDoNotTouchHistory() {
+        int taskId = this.taskManager.createTask(new Task("Task", "Description"));
+        int epicId = this.taskManager.createEpic(new Epic("Epic", "Description"));
+        int subtaskId = this.taskManager.createSubtask(new Subtask("Subtask", "Description", TaskStatus.NEW, epicId, null, null));
+
+        Assertions.assertEquals(taskId, this.taskManager.peekTask(taskId).getId());
+        Assertions.assertEquals(epicId, this.taskManager.peekEpic(epicId).getId());
+        Assertions.assertEquals(subtaskId, this.taskManager.peekSubtask(subtaskId).getId());
+        Assertions.assertTrue(this.taskManager.containsTask(taskId));
+        Assertions.assertTrue(this.taskManager.containsEpic(epicId));
+        Assertions.assertTrue(this.taskManager.containsSubtask(subtaskId));
+        Assertions.assertFalse(this.taskManager.containsTask(epicId));
+        Assertions.assertNull(this.taskManager.peekSubtask(999));
+
+        Assertions.assertTrue(this.taskManager.getHistory().isEmpty(), "Поиск без просмотра не должен попадать в историю.");
+    }
+
+    @Test
+    void getHistoryWithLimitReturnsMostRecentViews() {
+        int taskId = this.taskManager.createTask(new Task("Task", "Description"));
+        int epicId = this.taskManager.createEpic(new Epic("Epic", "Description"));
+        int subtaskId = this.taskManager.createSubtask(new Subtask("Subtask", "Description", TaskStatus.NEW, epicId, null, null));
+        this.taskManager.getTask(taskId);
+        this.taskManager.getEpic(epicId);
+        this.taskManager.getSubtask(subtaskId);
+
+        List<Task> recent = this.taskManager.getHistory(2);
+        Assertions.assertEquals(2, recent.size());
+        Assertions.assertEquals(epicId, recent.get(0).getId());
+        Assertions.assertEquals(subtaskId, recent.get(1).getId());
+        Assertions.assertEquals(this.taskManager.getHistory(), this.taskManager.getHistory(10));
+        Assertions.assertTrue(this.taskManager.getHistory(0).isEmpty());
+    }
+
+    @Test
+    void createAllLinksSubtasksToEpicFromSameBatch() {
+        Epic epic = new Epic("Epic", "Description");
+        epic.setId(-1);
+        Task task = new Task("Task", "Description", Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 9, 0));
+        Subtask first = new Subtask("Subtask 1", "Description", TaskStatus.DONE, -1, Duration.ofMinutes(15L), LocalDateTime.of(2023, 1, 1, 10, 0));
+        Subtask second = new Subtask("Subtask 2", "Description", TaskStatus.DONE, -1, Duration.ofMinutes(20L), LocalDateTime.of(2023, 1, 1, 11, 0));
+
+        List<Integer> ids = this.taskManager.createAll(List.of(first, epic, task, second));
+
+        Assertions.assertEquals(4, ids.size());
+        int epicId = ids.get(1);
+        Assertions.assertEquals(epicId, this.taskManager.peekSubtask(ids.get(0)).getEpicId());
+        Assertions.assertEquals(epicId, this.taskManager.peekSubtask(ids.get(3)).getEpicId());
+        int taskId = ids.get(2);
+        Assertions.assertEquals(taskId, this.taskManager.peekTask(taskId).getId());
+        Epic created = this.taskManager.peekEpic(epicId);
+        Assertions.assertEquals(List.of(ids.get(0), ids.get(3)), created.getSubtaskIds());
+        Assertions.assertEquals(TaskStatus.DONE, created.getStatus());
+        Assertions.assertEquals(LocalDateTime.of(2023, 1, 1, 10, 0), created.getStartTime());
+        Assertions.assertEquals(LocalDateTime.of(2023, 1, 1, 11, 20), created.getEndTime());
+        Assertions.assertEquals(4, this.taskManager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void createAllAppliesNothingWhenAnyItemFails() {
+        this.taskManager.createTask(new Task("Existing", "Description", Duration.ofMinutes(60L), LocalDateTime.of(2023, 1, 1, 8, 0)));
+        List<Task> batch = List.of(
+                new Task("Fine", "Description", Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 12, 0)),
+                new Task("Clashes with existing", "Description", Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 8, 30)),
+                new Task("Clashes with #0", "Description", Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 12, 15)),
+                new Subtask("Orphan", "Description", TaskStatus.NEW, 999, null, null));
+
+        BatchException e = assertThrows(BatchException.class, () -> this.taskManager.createAll(batch));
+
+        Assertions.assertEquals(List.of(1, 2, 3), e.getErrors().stream().map(BatchException.ItemError::getIndex).sorted().toList());
+        Assertions.assertEquals(1, this.taskManager.getTasks().size(), "Пакет с ошибками не должен применяться частично.");
+        Assertions.assertTrue(this.taskManager.getSubtasks().isEmpty());
+        Assertions.assertEquals(1, this.taskManager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void updateAllMovesIntervalsTogether() {
+        int epicId = this.taskManager.createEpic(new Epic("Epic", "Description"));
+        int firstId = this.taskManager.createTask(new Task("First", "Description", Duration.ofMinutes(60L), LocalDateTime.of(2023, 1, 1, 10, 0)));
+        int secondId = this.taskManager.createTask(new Task("Second", "Description", Duration.ofMinutes(60L), LocalDateTime.of(2023, 1, 1, 11, 0)));
+        int subtaskId = this.taskManager.createSubtask(new Subtask("Subtask", "Description", TaskStatus.NEW, epicId, Duration.ofMinutes(60L), LocalDateTime.of(2023, 1, 1, 14, 0)));
+
+        // Поодиночке обмен интервалами невозможен: первое же обновление пересекается со второй задачей
+        Task first = new Task("First", "Description", firstId, TaskStatus.NEW, Duration.ofMinutes(60L), LocalDateTime.of(2023, 1, 1, 11, 0));
+        Task second = new Task("Second", "Description", secondId, TaskStatus.NEW, Duration.ofMinutes(60L), LocalDateTime.of(2023, 1, 1, 10, 0));
+        // Подзадача сдвигается внутри старого времени своего эпика, которое пакет пересчитает
+        Subtask subtask = new Subtask("Subtask", "Description", subtaskId, TaskStatus.DONE, epicId, Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 14, 30));
+        Epic epic = new Epic("Renamed", "New description");
+        epic.setId(epicId);
+        this.taskManager.updateAll(List.of(first, second, subtask, epic));
+
+        Assertions.assertEquals(LocalDateTime.of(2023, 1, 1, 11, 0), this.taskManager.peekTask(firstId).getStartTime());
+        Assertions.assertEquals(LocalDateTime.of(2023, 1, 1, 10, 0), this.taskManager.peekTask(secondId).getStartTime());
+        Epic updated = this.taskManager.peekEpic(epicId);
+        Assertions.assertEquals("Renamed", updated.getName());
+        Assertions.assertEquals(TaskStatus.DONE, updated.getStatus());
+        Assertions.assertEquals(LocalDateTime.of(2023, 1, 1, 14, 30), updated.getStartTime());
+        Assertions.assertEquals(List.of(subtaskId), updated.getSubtaskIds());
+
+        Task clash = new Task("First", "Description", firstId, TaskStatus.NEW, Duration.ofMinutes(60L), LocalDateTime.of(2023, 1, 1, 10, 30));
+        assertThrows(BatchException.class, () -> this.taskManager.updateAll(List.of(clash)));
+        Assertions.assertEquals(LocalDateTime.of(2023, 1, 1, 11, 0), this.taskManager.peekTask(firstId).getStartTime());
+        Assertions.assertEquals(4, this.taskManager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void createAllChecksTasksAgainstCurrentSpanOfEpicsItRecomputes() {
+        int epicId = this.taskManager.createEpic(new Epic("Epic", "Description"));
+        this.taskManager.createSubtask(new Subtask("Early", "Description", TaskStatus.NEW, epicId, Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 10, 0)));
+        this.taskManager.createSubtask(new Subtask("Late", "Description", TaskStatus.NEW, epicId, Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 12, 0)));
+        List<Task> batch = List.of(
+                new Subtask("Inside epic span", "Description", TaskStatus.NEW, epicId, Duration.ofMinutes(15L), LocalDateTime.of(2023, 1, 1, 11, 0)),
+                new Task("Inside epic span", "Description", Duration.ofMinutes(15L), LocalDateTime.of(2023, 1, 1, 11, 30)));
+
+        BatchException e = assertThrows(BatchException.class, () -> this.taskManager.createAll(batch));
+
+        Assertions.assertEquals(List.of(1), e.getErrors().stream().map(BatchException.ItemError::getIndex).toList(),
+                "Задача не может попасть во время эпика, как и при createTask; подзадаче своего эпика это разрешено.");
+        Assertions.assertTrue(this.taskManager.getTasks().isEmpty());
+        Assertions.assertEquals(2, this.taskManager.getSubtasks().size());
+        Assertions.assertEquals(3, this.taskManager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void createSubtaskAppliesSameOwnEpicRuleAsCreateAll() {
+        int epicId = this.taskManager.createEpic(new Epic("Epic", "Description"));
+        int otherEpicId = this.taskManager.createEpic(new Epic("Other epic", "Description"));
+        this.taskManager.createSubtask(new Subtask("Early", "Description", TaskStatus.NEW, epicId, Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 10, 0)));
+        this.taskManager.createSubtask(new Subtask("Late", "Description", TaskStatus.NEW, epicId, Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 12, 0)));
+
+        int insideId = this.taskManager.createSubtask(new Subtask("Inside epic span", "Description", TaskStatus.NEW, epicId, Duration.ofMinutes(15L), LocalDateTime.of(2023, 1, 1, 11, 0)));
+
+        Assertions.assertEquals(epicId, this.taskManager.getSubtask(insideId).getEpicId());
+        assertThrows(ManagerSaveException.class, () -> this.taskManager.createSubtask(new Subtask("Other epic", "Description", TaskStatus.NEW, otherEpicId, Duration.ofMinutes(15L), LocalDateTime.of(2023, 1, 1, 11, 30))),
+                "Подзадача другого эпика не может попасть во время чужого эпика.");
+        assertThrows(ManagerSaveException.class, () -> this.taskManager.createSubtask(new Subtask("Same slot", "Description", TaskStatus.NEW, epicId, Duration.ofMinutes(15L), LocalDateTime.of(2023, 1, 1, 11, 5))),
+                "Подзадачи своего эпика по-прежнему не пересекаются между собой.");
+    }
+
+    @Test
+    void deleteEpicLeavesOtherEpicsAndTasksScheduled() {
+        int epicId1 = this.taskManager.createEpic(new Epic("Epic 1", "Description"));
+        int epicId2 = this.taskManager.createEpic(new Epic("Epic 2", "Description"));
+        int taskId = this.taskManager.createTask(new Task("Task", "Description", Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 9, 0)));
+        for (int i = 0; i < 50; i++) {
+            this.taskManager.createSubtask(new Subtask("Subtask " + i, "Description", TaskStatus.NEW, epicId1, Duration.ofMinutes(5L), LocalDateTime.of(2023, 1, 2, 0, 0).plusMinutes(10L * i)));
+        }
+        int keptSubtaskId = this.taskManager.createSubtask(new Subtask("Kept", "Description", TaskStatus.NEW, epicId2, Duration.ofMinutes(15L), LocalDateTime.of(2023, 1, 1, 10, 0)));
+        this.taskManager.getSubtask(keptSubtaskId - 1);
+        this.taskManager.getTask(taskId);
+
+        this.taskManager.deleteEpic(epicId1);
+
+        Assertions.assertEquals(1, this.taskManager.getSubtasks().size());
+        Assertions.assertEquals(List.of(taskId), this.taskManager.getHistory().stream().map(Task::getId).toList());
+        Assertions.assertEquals(List.of(taskId, epicId2, keptSubtaskId),
+                this.taskManager.getPrioritizedTasks().stream().map(Task::getId).toList());
+        this.taskManager.createTask(new Task("Reuses freed slot", "Description", Duration.ofMinutes(5L), LocalDateTime.of(2023, 1, 2, 0, 0)));
+    }
+
+    @Test
+    void removeAllOfOneTypeKeepsOtherTypesScheduled() {
+        int epicId = this.taskManager.createEpic(new Epic("Epic", "Description"));
+        int subtaskId = this.taskManager.createSubtask(new Subtask("Subtask", "Description", TaskStatus.NEW, epicId, Duration.ofMinutes(15L), LocalDateTime.of(2023, 1, 1, 10, 0)));
+        int taskId = this.taskManager.createTask(new Task("Task", "Description", Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 9, 0)));
+
+        this.taskManager.removeAllTasks();
+        Assertions.assertEquals(List.of(epicId, subtaskId), this.taskManager.getPrioritizedTasks().stream().map(Task::getId).toList());
+        this.taskManager.createTask(new Task("Task", "Description", Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 9, 0)));
+
+        this.taskManager.removeAllSubtasks();
+        Assertions.assertEquals(1, this.taskManager.getPrioritizedTasks().size());
+        Assertions.assertNull(this.taskManager.peekEpic(epicId).getStartTime());
+        this.taskManager.createSubtask(new Subtask("Subtask", "Description", TaskStatus.NEW, epicId, Duration.ofMinutes(15L), LocalDateTime.of(2023, 1, 1, 10, 0)));
+
+        this.taskManager.removeAllEpics();
+        Assertions.assertEquals(1, this.taskManager.getPrioritizedTasks().size());
+        Assertions.assertNotEquals(taskId, this.taskManager.getPrioritizedTasks().get(0).getId());
+    }
+}
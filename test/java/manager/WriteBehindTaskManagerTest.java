@@ -0,0 +1,99 @@
+package manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class WriteBehindTaskManagerTest extends TaskManagerTest<WriteBehindTaskManager> {
+    private File tempFile;
+
+    protected TaskManager createTaskManager() {
+        return WriteBehindTaskManager.loadFromFile(this.tempFile, 60_000L, 1000);
+    }
+
+    @BeforeEach
+    protected void setUp() {
+        try {
+            this.tempFile = File.createTempFile("test", ".csv");
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        super.setUp();
+    }
+
+    @AfterEach
+    protected void tearDown() {
+        ((WriteBehindTaskManager) this.taskManager).close();
+        this.tempFile.delete();
+    }
+
+    @Test
+    void readsDoNotWriteFileUntilFlush() {
+        WriteBehindTaskManager manager = (WriteBehindTaskManager) this.taskManager;
+        int taskId = manager.createTask(new Task("Task", "Description", Duration.ofMinutes(30L), LocalDateTime.of(2023, 1, 1, 10, 0)));
+        manager.getTask(taskId);
+
+        Assertions.assertTrue(manager.isDirty());
+        Assertions.assertEquals(0L, this.tempFile.length(), "До сброса файл не должен перезаписываться.");
+
+        manager.flush();
+
+        Assertions.assertFalse(manager.isDirty());
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(this.tempFile);
+        Assertions.assertEquals(1, loadedManager.getTasks().size());
+        Assertions.assertEquals(1, loadedManager.getHistory().size());
+    }
+
+    @Test
+    void flushesAfterConfiguredNumberOfOperations() {
+        WriteBehindTaskManager manager = WriteBehindTaskManager.loadFromFile(this.tempFile, 60_000L, 2);
+        manager.createTask(new Task("Task 1", "Description"));
+        Assertions.assertTrue(manager.isDirty());
+        manager.createTask(new Task("Task 2", "Description"));
+        Assertions.assertFalse(manager.isDirty());
+        Assertions.assertEquals(2, FileBackedTaskManager.loadFromFile(this.tempFile).getTasks().size());
+        manager.close();
+    }
+
+    @Test
+    void flushesInBackgroundAfterInterval() throws InterruptedException {
+        WriteBehindTaskManager manager = WriteBehindTaskManager.loadFromFile(this.tempFile, 50L, 1000);
+        manager.createTask(new Task("Task", "Description"));
+        for (int i = 0; i < 100 && manager.isDirty(); i++) {
+            Thread.sleep(20L);
+        }
+        Assertions.assertFalse(manager.isDirty(), "Фоновый поток должен был сохранить изменения.");
+        Assertions.assertEquals(1, FileBackedTaskManager.loadFromFile(this.tempFile).getTasks().size());
+        manager.close();
+    }
+
+    @Test
+    void closeFlushesPendingChanges() {
+        WriteBehindTaskManager manager = WriteBehindTaskManager.loadFromFile(this.tempFile, 60_000L, 1000);
+        manager.createTask(new Task("Task", "Description"));
+        manager.close();
+        Assertions.assertEquals(1, FileBackedTaskManager.loadFromFile(this.tempFile).getTasks().size());
+    }
+
+    @Test
+    void lookupsOfMissingIdsDoNotMarkDirty() {
+        WriteBehindTaskManager manager = (WriteBehindTaskManager) this.taskManager;
+        int taskId = manager.createTask(new Task("Task", "Description"));
+        manager.flush();
+
+        manager.getTask(taskId + 100);
+        manager.getEpic(taskId + 100);
+        manager.getSubtask(taskId + 100);
+
+        Assertions.assertFalse(manager.isDirty(), "Просмотр несуществующей задачи не меняет историю.");
+        manager.getTask(taskId);
+        Assertions.assertTrue(manager.isDirty());
+    }
+}
@@ -2,6 +2,9 @@ package model;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class EpicTest {
@@ -22,4 +25,42 @@ public class EpicTest {
         assertNotEquals(epic1, epic2, "Эпики с разными ID не должны быть равны.");
     }
 
-}
\ No newline at end of file
+    @Test
+    void trackSubtask_shouldUpdateStatusAndTimes() {
+        Epic epic = new Epic("Epic", "Description", 1, TaskStatus.NEW);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        epic.trackSubtask(new Subtask("Sub1", "Desc", 2, TaskStatus.DONE, 1, Duration.ofMinutes(30), start));
+        epic.trackSubtask(new Subtask("Sub2", "Desc", 3, TaskStatus.NEW, 1, Duration.ofMinutes(15), start.plusHours(2)));
+
+        assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus());
+        assertEquals(Duration.ofMinutes(45), epic.getDuration());
+        assertEquals(start, epic.getStartTime());
+        assertEquals(start.plusHours(2).plusMinutes(15), epic.getEndTime());
+    }
+
+    @Test
+    void trackSubtask_shouldReplacePreviousValuesOfSameSubtask() {
+        Epic epic = new Epic("Epic", "Description", 1, TaskStatus.NEW);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        epic.trackSubtask(new Subtask("Sub1", "Desc", 2, TaskStatus.NEW, 1, Duration.ofMinutes(30), start));
+        epic.trackSubtask(new Subtask("Sub1", "Desc", 2, TaskStatus.DONE, 1, Duration.ofMinutes(10), start.plusDays(1)));
+
+        assertEquals(TaskStatus.DONE, epic.getStatus());
+        assertEquals(Duration.ofMinutes(10), epic.getDuration());
+        assertEquals(start.plusDays(1), epic.getStartTime());
+        assertEquals(start.plusDays(1).plusMinutes(10), epic.getEndTime());
+    }
+
+    @Test
+    void untrackSubtask_shouldResetEpicWhenLastSubtaskRemoved() {
+        Epic epic = new Epic("Epic", "Description", 1, TaskStatus.NEW);
+        epic.trackSubtask(new Subtask("Sub1", "Desc", 2, TaskStatus.IN_PROGRESS, 1,
+                Duration.ofMinutes(30), LocalDateTime.of(2024, 1, 1, 10, 0)));
+        epic.untrackSubtask(2);
+
+        assertEquals(TaskStatus.NEW, epic.getStatus());
+        assertEquals(Duration.ZERO, epic.getDuration());
+        assertNull(epic.getStartTime());
+        assertNull(epic.getEndTime());
+    }
+}
@@ -0,0 +1,84 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderedIntSetTest {
+
+    @Test
+    void add_shouldKeepInsertionOrderAndIgnoreDuplicates() {
+        OrderedIntSet set = new OrderedIntSet();
+
+        assertTrue(set.add(5));
+        assertTrue(set.add(1));
+        assertTrue(set.add(3));
+        assertFalse(set.add(1));
+
+        assertEquals(List.of(5, 1, 3), set.asList());
+        assertTrue(set.contains(3));
+        assertFalse(set.contains(4));
+    }
+
+    @Test
+    void remove_shouldKeepOrderOfRemainingValues() {
+        OrderedIntSet set = new OrderedIntSet();
+        for (int i = 1; i <= 10; i++) {
+            set.add(i);
+        }
+
+        assertTrue(set.remove(2));
+        assertTrue(set.remove(10));
+        assertFalse(set.remove(2));
+
+        assertEquals(List.of(1, 3, 4, 5, 6, 7, 8, 9), set.asList());
+        assertEquals(Integer.valueOf(4), set.asList().get(2), "get по индексу должен пропускать удалённые значения.");
+        set.add(2);
+        assertEquals(List.of(1, 3, 4, 5, 6, 7, 8, 9, 2), set.asList());
+    }
+
+    @Test
+    void asList_shouldBeReadOnlyView() {
+        OrderedIntSet set = new OrderedIntSet();
+        List<Integer> view = set.asList();
+        set.add(7);
+
+        assertEquals(List.of(7), view, "Представление отражает изменения без копирования.");
+        assertThrows(UnsupportedOperationException.class, () -> view.add(8));
+        assertThrows(UnsupportedOperationException.class, () -> view.remove(0));
+        assertEquals("[7]", view.toString());
+    }
+
+    @Test
+    void operations_shouldMatchLinkedHashSetOnRandomSequence() {
+        OrderedIntSet set = new OrderedIntSet();
+        Set<Integer> expected = new LinkedHashSet<>();
+        Random random = new Random(7);
+        for (int step = 0; step < 20_000; step++) {
+            int value = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                assertEquals(expected.add(value), set.add(value));
+            }
+            if (step % 1000 == 0) {
+                set.clear();
+                expected.clear();
+            }
+        }
+
+        List<Integer> values = new ArrayList<>();
+        for (PrimitiveIterator.OfInt it = set.iterator(); it.hasNext(); ) {
+            values.add(it.nextInt());
+        }
+        assertEquals(new ArrayList<>(expected), values);
+        assertEquals(expected.size(), set.size());
+    }
+}